@@ -0,0 +1,54 @@
+package landclan.com.landparcel.jmh;
+
+import java.util.concurrent.TimeUnit;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * The reflective BeanUtils.copyProperties used by saveLandParcel against copying the same properties with setters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LandParcelMappingBenchmark {
+    
+    private final LandParcel source = createSource();
+    
+    @Benchmark
+    public LandParcel beanUtilsCopyProperties() {
+        LandParcel landParcel = new LandParcel();
+        BeanUtils.copyProperties(source, landParcel);
+        return landParcel;
+    }
+    
+    @Benchmark
+    public LandParcel setterCopy() {
+        LandParcel landParcel = new LandParcel();
+        landParcel.setName(source.getName());
+        landParcel.setStatus(source.getStatus());
+        landParcel.setArea(source.getArea());
+        landParcel.setConstraints(source.isConstraints());
+        landParcel.setBoundary(source.getBoundary());
+        return landParcel;
+    }
+    
+    private static LandParcel createSource() {
+        LandParcel landParcel = new LandParcel(0L, "North Field", Status.SHORT_LISTED, 23.5, true);
+        landParcel.setBoundary(new Polygon(0, 0, 10, 0, 10, 10, 0, 10));
+        return landParcel;
+    }
+}
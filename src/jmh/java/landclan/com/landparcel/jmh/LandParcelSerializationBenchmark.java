@@ -0,0 +1,115 @@
+package landclan.com.landparcel.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import landclan.com.landparcel.config.MessageConverterConfiguration;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization of a single Land Parcel and of pages of Land Parcels as written by the controller,
+ * using an ObjectMapper configured the way Spring Boot configures the one used for responses.
+ * Pages are written as JSON, Smile and CBOR with the mappers of {@link MessageConverterConfiguration}, with and
+ * without the gzip compression applied to large responses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LandParcelSerializationBenchmark {
+    
+    private static final Status[] STATUSES = Status.values();
+    
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LandParcel landParcel = landParcel(1, true);
+    
+    @State(Scope.Thread)
+    public static class Page {
+        
+        @Param({"100", "1000", "10000"})
+        int pageSize;
+        
+        @Param({"false", "true"})
+        boolean boundaries;
+        
+        @Param({"json", "smile", "cbor"})
+        String format;
+        
+        private ObjectMapper mapper;
+        private LandParcelResponse response;
+        private byte[] encoded;
+        
+        @Setup
+        public void createPage() throws JsonProcessingException {
+            List<LandParcelView> landParcels = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                landParcels.add(LandParcelView.of(landParcel(i, boundaries)));
+            }
+            response = new LandParcelResponse(landParcels, (long) pageSize, pageSize * 10L);
+            
+            MessageConverterConfiguration converters = new MessageConverterConfiguration();
+            mapper = switch (format) {
+                case "smile" -> converters.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+                case "cbor" -> converters.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+                default -> Jackson2ObjectMapperBuilder.json().build();
+            };
+            encoded = mapper.writeValueAsBytes(response);
+        }
+    }
+    
+    @Benchmark
+    public byte[] writeLandParcel() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(landParcel);
+    }
+    
+    @Benchmark
+    public byte[] writePage(Page page) throws JsonProcessingException {
+        return page.mapper.writeValueAsBytes(page.response);
+    }
+    
+    @Benchmark
+    public byte[] writePageGzip(Page page) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            page.mapper.writeValue(gzip, page.response);
+        }
+        return bytes.toByteArray();
+    }
+    
+    @Benchmark
+    public LandParcelResponse readPage(Page page) throws IOException {
+        return page.mapper.readValue(page.encoded, LandParcelResponse.class);
+    }
+    
+    private static LandParcel landParcel(int i, boolean boundary) {
+        LandParcel landParcel = new LandParcel(i + 1, "Parcel " + i, STATUSES[i % STATUSES.length], 1.0 + (i % 1000) / 10.0, i % 3 == 0);
+        if (boundary) {
+            double x = i % 1000, y = i / 1000;
+            landParcel.setBoundary(new Polygon(x, y, x + 0.9, y, x + 0.9, y + 0.9, x, y + 0.9));
+        }
+        return landParcel;
+    }
+}
@@ -0,0 +1,99 @@
+package landclan.com.landparcel.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import landclan.com.landparcel.LandparcelApplication;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelSearchCriteria;
+import landclan.com.landparcel.domain.LandParcelSearchResponse;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * LandParcelServiceImpl operations against the embedded H2 database of a started application context without the web server.
+ * Keys and area ranges vary on every call as H2 reuses the result of a query repeated against an unchanged table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LandParcelServiceBenchmark {
+    
+    @Param("20000")
+    int rows;
+    
+    private ConfigurableApplicationContext context;
+    private LandParcelService landParcelService;
+    private long firstObjectID;
+    
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LandparcelApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        landParcelService = context.getBean(LandParcelService.class);
+        
+        Status[] statuses = Status.values();
+        List<LandParcel> landParcels = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            landParcels.add(new LandParcel(0L, "Parcel " + i, statuses[i % statuses.length], 1.0 + (i % 1000) / 10.0, i % 3 == 0));
+        }
+        firstObjectID = landParcelService.saveLandParcels(landParcels).get(0).getObjectID();
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+    
+    @Benchmark
+    public LandParcelResponse getLandParcelsPage() {
+        return landParcelService.getLandParcels(firstObjectID + ThreadLocalRandom.current().nextInt(rows), LandParcelService.DEFAULT_PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public LandParcelSearchResponse searchLandParcels() {
+        double minArea = 1.0 + ThreadLocalRandom.current().nextInt(1000) / 10.0;
+        LandParcelSearchCriteria criteria = new LandParcelSearchCriteria(Set.of(Status.SAVED), minArea, minArea + 0.5, null, "area,asc");
+        return landParcelService.searchLandParcels(criteria, null, LandParcelService.DEFAULT_PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public Object getLandParcelCached() {
+        return landParcelService.getLandParcel(firstObjectID + ThreadLocalRandom.current().nextInt(100));
+    }
+    
+    @Benchmark
+    public LandParcel updateLandParcel() {
+        int i = ThreadLocalRandom.current().nextInt(rows);
+        return landParcelService.updateLandParcel(new LandParcel(firstObjectID + i, "Parcel " + i, Status.APPROVED, 1.0 + (i % 1000) / 10.0, false));
+    }
+    
+    @Benchmark
+    public LandParcel saveLandParcel() {
+        return landParcelService.saveLandParcel(new LandParcel(0L, "Parcel", Status.SAVED, 12.5, true));
+    }
+}
@@ -0,0 +1,60 @@
+package landclan.com.landparcel.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The requests of the load test, one for each of the CRUD endpoints of LandParcelController.
+ */
+enum Endpoint {
+    
+    GET("get"),
+    LIST("list"),
+    CREATE("create"),
+    UPDATE("update"),
+    DELETE("delete");
+    
+    private static final String[] STATUSES = {"SAVED", "SHORT_LISTED", "UNDER_CONSTRUCTION", "APPROVED"};
+    
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+    
+    static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + key + " in loadtest.mix");
+    }
+    
+    /**
+     * @param objectID an existing objectID for the requests that need one, the taken objectID for DELETE.
+     */
+    HttpRequest request(String url, long objectID) {
+        return switch (this) {
+            case GET -> HttpRequest.newBuilder(URI.create(url + "/api/landParcel/" + objectID)).GET().build();
+            case LIST -> HttpRequest.newBuilder(URI.create(url + "/api/landParcel?limit=20&after=" + objectID)).GET().build();
+            case CREATE -> HttpRequest.newBuilder(URI.create(url + "/api/landParcel"))
+                    .header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body(0))).build();
+            case UPDATE -> HttpRequest.newBuilder(URI.create(url + "/api/landParcel"))
+                    .header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofString(body(objectID))).build();
+            case DELETE -> HttpRequest.newBuilder(URI.create(url + "/api/landParcel/" + objectID)).DELETE().build();
+        };
+    }
+    
+    static String body(long objectID) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "{\"objectID\":" + objectID + ",\"name\":\"Load test " + random.nextInt(1_000_000) + "\",\"status\":\""
+                + STATUSES[random.nextInt(STATUSES.length)] + "\",\"area\":" + (1 + random.nextInt(10_000) / 10.0)
+                + ",\"constraints\":" + random.nextBoolean() + "}";
+    }
+}
@@ -0,0 +1,185 @@
+package landclan.com.landparcel.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+
+/**
+ * Open model load test of a running LandparcelApplication. Requests are started at a fixed rate whether or not earlier
+ * requests have completed, each on its own virtual thread, and the latency of a request is measured from the time it
+ * was scheduled to start rather than when it was sent. A slow server therefore shows up as higher latency instead of
+ * a lower request rate, avoiding coordinated omission.
+ * <p>
+ * The endpoints are chosen at random in the proportions of loadtest.mix. The latencies of each endpoint after the
+ * warmup are recorded into HdrHistograms, printed, and saved under loadtest.output along with a summary. Setting
+ * loadtest.baseline to the directory of an earlier run prints the change of each percentile from that run.
+ */
+public final class LandParcelLoadTest {
+    
+    private static final int SEED_PARCELS = 1000;
+    private static final long HIGHEST_LATENCY_MICROS = 60_000_000;
+    
+    private final String url = System.getProperty("loadtest.url", "http://localhost:8080");
+    private final int rate = Integer.getInteger("loadtest.rate", 200);
+    private final int seconds = Integer.getInteger("loadtest.seconds", 60);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 10);
+    private final String mix = System.getProperty("loadtest.mix", "get=50,list=25,create=10,update=10,delete=5");
+    private final Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+    private final String baseline = System.getProperty("loadtest.baseline", "");
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectIDPool objectIDs = new ObjectIDPool();
+    private final Map<Endpoint, ConcurrentHistogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+    private Endpoint[] schedule;
+    
+    public static void main(String[] args) throws Exception {
+        new LandParcelLoadTest().run();
+    }
+    
+    private void run() throws Exception {
+        schedule = parseMix(mix);
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            errors.put(endpoint, new AtomicLong());
+        }
+        
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder().executor(clientExecutor).version(HttpClient.Version.HTTP_1_1).build();
+            seed(httpClient);
+            
+            long intervalNanos = 1_000_000_000L / rate;
+            long start = System.nanoTime();
+            long measureFromMillis = System.currentTimeMillis() + warmupSeconds * 1000L;
+            histograms.values().forEach(histogram -> histogram.setStartTimeStamp(measureFromMillis));
+            long measureFrom = start + warmupSeconds * 1_000_000_000L;
+            long end = measureFrom + seconds * 1_000_000_000L;
+            System.out.printf("%d requests/s to %s for %d s after a %d s warmup, mix %s%n", rate, url, seconds, warmupSeconds, mix);
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                Endpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                boolean measured = intended >= measureFrom;
+                executor.execute(() -> send(httpClient, endpoint, intended, measured));
+            }
+        }
+        
+        long endMillis = System.currentTimeMillis();
+        histograms.values().forEach(histogram -> histogram.setEndTimeStamp(endMillis));
+        Map<Endpoint, Long> errorCounts = new EnumMap<>(Endpoint.class);
+        errors.forEach((endpoint, count) -> errorCounts.put(endpoint, count.get()));
+        histograms.values().removeIf(histogram -> histogram.getTotalCount() == 0);
+        LoadTestResults results = new LoadTestResults(histograms, errorCounts);
+        Path directory = output.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        results.save(directory, String.format("rate=%d seconds=%d warmupSeconds=%d mix=%s url=%s", rate, seconds, warmupSeconds, mix, url));
+        results.print(System.out, baseline.isBlank() ? null : LoadTestResults.load(Path.of(baseline)));
+        System.out.println("Saved to " + directory);
+    }
+    
+    private void send(HttpClient httpClient, Endpoint endpoint, long intended, boolean measured) {
+        long objectID = endpoint == Endpoint.DELETE ? objectIDs.take() : objectIDs.pick();
+        try {
+            HttpResponse<String> response = httpClient.send(endpoint.request(url, objectID), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                countError(endpoint, measured);
+            } else if (endpoint == Endpoint.CREATE) {
+                objectIDs.add(objectMapper.readTree(response.body()).get("objectID").asLong());
+            }
+        } catch (Exception e) {
+            countError(endpoint, measured);
+        }
+        if (measured) {
+            histograms.get(endpoint).recordValue(Math.min(HIGHEST_LATENCY_MICROS, (System.nanoTime() - intended) / 1000));
+        }
+    }
+    
+    private void countError(Endpoint endpoint, boolean measured) {
+        if (measured) {
+            errors.get(endpoint).incrementAndGet();
+        }
+    }
+    
+    private void seed(HttpClient httpClient) throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < SEED_PARCELS; i++) {
+            body.append(i == 0 ? "" : ",").append(Endpoint.body(0));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/api/landParcel/bulk"))
+                .header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body.append("]").toString())).build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Seeding " + SEED_PARCELS + " land parcels failed with HTTP " + response.statusCode());
+        }
+        for (JsonNode landParcel : objectMapper.readTree(response.body())) {
+            objectIDs.add(landParcel.get("objectID").asLong());
+        }
+    }
+    
+    /**
+     * Expands a mix such as get=50,list=25 into an array holding each endpoint as many times as its weight.
+     */
+    static Endpoint[] parseMix(String mix) {
+        return Arrays.stream(mix.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .flatMap(part -> {
+                    String[] keyAndWeight = part.split("=");
+                    Endpoint endpoint = Endpoint.fromKey(keyAndWeight[0].trim());
+                    return Arrays.stream(new Endpoint[Integer.parseInt(keyAndWeight[1].trim())]).map(unused -> endpoint);
+                })
+                .toArray(Endpoint[]::new);
+    }
+    
+    /**
+     * The objectIDs known to exist, picked at random by the requests that read or update a Land Parcel.
+     */
+    private static final class ObjectIDPool {
+        private long[] objectIDs = new long[SEED_PARCELS * 2];
+        private int size;
+        
+        synchronized void add(long objectID) {
+            if (size == objectIDs.length) {
+                objectIDs = Arrays.copyOf(objectIDs, size * 2);
+            }
+            objectIDs[size++] = objectID;
+        }
+        
+        synchronized long pick() {
+            return size == 0 ? 1 : objectIDs[ThreadLocalRandom.current().nextInt(size)];
+        }
+        
+        /**
+         * Removes a random objectID so that it is deleted only once.
+         */
+        synchronized long take() {
+            if (size == 0) {
+                return 1;
+            }
+            int index = ThreadLocalRandom.current().nextInt(size);
+            long objectID = objectIDs[index];
+            objectIDs[index] = objectIDs[--size];
+            return objectID;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package landclan.com.landparcel.loadtest;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * Latency histograms in microseconds and error counts of each endpoint for one run. A run is saved as an HdrHistogram
+ * log with one tagged histogram per endpoint next to a text summary, so the log of an earlier run can be loaded as a baseline.
+ */
+final class LoadTestResults {
+    
+    static final String HISTOGRAM_LOG = "histograms.hlog";
+    static final String SUMMARY = "summary.txt";
+    
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Long> errors = new EnumMap<>(Endpoint.class);
+
+    LoadTestResults(Map<Endpoint, ? extends Histogram> histograms, Map<Endpoint, Long> errors) {
+        this.histograms.putAll(histograms);
+        this.errors.putAll(errors);
+    }
+    
+    static LoadTestResults load(Path directory) throws FileNotFoundException {
+        Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+        HistogramLogReader reader = new HistogramLogReader(directory.resolve(HISTOGRAM_LOG).toFile());
+        for (EncodableHistogram histogram = reader.nextIntervalHistogram(); histogram != null; histogram = reader.nextIntervalHistogram()) {
+            histograms.put(Endpoint.fromKey(histogram.getTag()), (Histogram) histogram);
+        }
+        return new LoadTestResults(histograms, Map.of());
+    }
+    
+    void save(Path directory, String description) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream log = new PrintStream(directory.resolve(HISTOGRAM_LOG).toFile())) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputComment(description);
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            histograms.forEach((endpoint, histogram) -> {
+                histogram.setTag(endpoint.key());
+                writer.outputIntervalHistogram(histogram);
+            });
+        }
+        try (PrintStream summary = new PrintStream(directory.resolve(SUMMARY).toFile())) {
+            summary.println(description);
+            print(summary, null);
+        }
+    }
+    
+    /**
+     * Prints count, errors and p50, p99, p99.9 and max in milliseconds for each endpoint, followed by the change from the baseline if given.
+     */
+    void print(PrintStream out, LoadTestResults baseline) {
+        out.printf("%-8s %9s %7s %10s %10s %10s %10s%n", "endpoint", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        histograms.forEach((endpoint, histogram) -> {
+            out.printf("%-8s %9d %7d %10.2f %10.2f %10.2f %10.2f%n", endpoint.key(), histogram.getTotalCount(), errors.getOrDefault(endpoint, 0L),
+                    millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+            Histogram before = baseline == null ? null : baseline.histograms.get(endpoint);
+            if (before != null) {
+                out.printf("%-8s %9d %7s %10s %10s %10s %10s%n", "  vs base", before.getTotalCount(), "",
+                        change(before, histogram, 50), change(before, histogram, 99), change(before, histogram, 99.9), change(before, histogram, 100));
+            }
+        });
+    }
+    
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    private static String change(Histogram before, Histogram after, double percentile) {
+        double from = before.getValueAtPercentile(percentile);
+        double to = after.getValueAtPercentile(percentile);
+        return from == 0 ? "n/a" : String.format("%+.1f%%", (to - from) * 100 / from);
+    }
+}
@@ -0,0 +1,36 @@
+package landclan.com.landparcel.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings of the same request and response bodies as JSON, chosen by the client with the Accept and
+ * Content-Type headers application/x-jackson-smile or application/cbor.
+ * Smile writes each property name and each repeated short string such as a status once per response and refers back
+ * to it afterwards, CBOR is the standard encoding for clients without a Smile decoder.
+ * Both mappers are built by Spring Boot's Jackson2ObjectMapperBuilder so they are configured like the JSON one.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Configuration(proxyBeanMethods = false)
+public class MessageConverterConfiguration {
+    
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build());
+    }
+    
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
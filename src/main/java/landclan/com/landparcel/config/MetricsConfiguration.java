@@ -0,0 +1,22 @@
+package landclan.com.landparcel.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the {@link io.micrometer.core.annotation.Timed} annotation on beans. Request timers by endpoint and status,
+ * repository invocation timers and connection pool gauges are configured by Spring Boot and served with every other
+ * metric in Prometheus text format from /actuator/prometheus.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfiguration {
+    
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,111 @@
+package landclan.com.landparcel.controller;
+
+/**
+ * Limit on the number of requests processed at once which adjusts itself to the latency measured, in the manner of
+ * a gradient limit.
+ * <p>
+ * Two exponentially weighted averages of the latency are kept, a short one over the last
+ * {@value #SHORT_WINDOW} requests and a long one over the last {@value #LONG_WINDOW}. While the short average stays
+ * within the tolerance of the long one nothing is queueing and the limit grows by its square root, an additive
+ * increase. Once requests take longer than that the limit shrinks in proportion to how much longer, by at most half,
+ * a multiplicative decrease. Each new limit is blended into the previous one so a single slow request barely moves it,
+ * while a request which failed or timed out lowers the limit by a tenth at once. The limit only grows while at least
+ * half of it is in use so it does not run away while demand is low. When the short average drops far below the long
+ * one, after the database has recovered, the long average decays towards it so the limit grows again promptly.
+ * <p>
+ * Thread safe.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final int SHORT_WINDOW = 10;
+    static final int LONG_WINDOW = 500;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    /**
+     * The limit, the requests in flight and the averages in nanoseconds, 0 until the first sample, guarded by this.
+     */
+    private double limit;
+    private int inFlight;
+    private double shortLatency;
+    private double longLatency;
+
+    /**
+     * @param tolerance how many times the long average latency requests may take before the limit is lowered.
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max and the tolerance must be at least 1.");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @return Whether the request may proceed, in which case {@link #release} must be called once it has finished.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Ends a request admitted by {@link #tryAcquire} without taking its latency into account, for requests which
+     * continue asynchronously or which were rejected for reasons of their own.
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    /**
+     * Ends a request admitted by {@link #tryAcquire} and adjusts the limit to its outcome.
+     * @param latencyNanos how long the request took.
+     * @param failed whether the request failed in a way which points to overload, such as a server error or a timeout.
+     */
+    public synchronized void release(long latencyNanos, boolean failed) {
+        int wasInFlight = inFlight--;
+        if (failed) {
+            limit = Math.max(minLimit, limit * FAILURE_BACKOFF);
+            return;
+        }
+        if (longLatency == 0) {
+            shortLatency = latencyNanos;
+            longLatency = latencyNanos;
+            return;
+        }
+        shortLatency += (latencyNanos - shortLatency) / SHORT_WINDOW;
+        longLatency += (latencyNanos - longLatency) / LONG_WINDOW;
+        if (longLatency > 2 * shortLatency) {
+            longLatency *= 0.95;
+        }
+        if (wasInFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longLatency / shortLatency));
+        update(limit * gradient + Math.sqrt(limit));
+    }
+
+    private void update(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
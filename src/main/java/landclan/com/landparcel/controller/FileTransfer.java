@@ -0,0 +1,93 @@
+package landclan.com.landparcel.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+
+/**
+ * Sends a file which does not change once written as the response, with a strong ETag and support for a single byte
+ * range so an interrupted download can be resumed.
+ * <p>
+ * The bytes are copied by the kernel without passing through the heap: Tomcat's NIO connector sends the file with
+ * FileChannel.transferTo when the request attributes for sendfile are set, otherwise the file is copied with
+ * FileChannel.transferTo into the response stream.
+ */
+final class FileTransfer {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileTransfer() {}
+
+    /**
+     * @param eTag the strong ETag of the file, quoted.
+     */
+    static void send(HttpServletRequest request, HttpServletResponse response, Path file, String contentType, String fileName,
+            String eTag) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            if (eTag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            long start = 0;
+            long end = length;
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            String range = request.getHeader(HttpHeaders.RANGE);
+            if (range != null && (ifRange == null || ifRange.equals(eTag))) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(range);
+                } catch (IllegalArgumentException e) {
+                    ranges = List.of();
+                }
+                if (ranges.size() == 1) {
+                    HttpRange requested = ranges.get(0);
+                    if (length == 0 || requested.getRangeStart(length) >= length) {
+                        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                        return;
+                    }
+                    start = requested.getRangeStart(length);
+                    end = requested.getRangeEnd(length) + 1;
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+                }
+            }
+
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
+            response.setContentLengthLong(end - start);
+            if (HttpMethod.HEAD.matches(request.getMethod())) {
+                return;
+            }
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            while (start < end) {
+                start += channel.transferTo(start, end - start, out);
+            }
+        }
+    }
+}
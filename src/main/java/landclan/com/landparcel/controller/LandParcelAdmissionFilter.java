@@ -0,0 +1,123 @@
+package landclan.com.landparcel.controller;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admission control in front of the /api endpoints, enabled with landparcel.admission.enabled.
+ * <p>
+ * Reads and writes each pass an {@link AdaptiveConcurrencyLimit}, so writes slowed by locks or a slow disk do not
+ * take the capacity left for reads and the other way around. A request arriving while its limit is taken is answered
+ * at once with 503 Service Unavailable and a Retry-After of landparcel.admission.retry-after rather than waiting for a
+ * Tomcat thread and a database connection, so the requests admitted keep their latency while the database is slow.
+ * Requests which continue asynchronously, such as streams and server-sent events, count against the limit only
+ * until their handler returns and their latency is not used. Neither is the latency of uploads of files to import
+ * and downloads of exports, which take as long as the client's connection does, so a slow client does not lower the
+ * limit for everyone else.
+ * <p>
+ * The limits and requests in flight are published as the landparcel.admission.limit and landparcel.admission.in-flight
+ * gauges and the requests turned away as the landparcel.admission.rejected counter, each tagged with the type read or write.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelAdmissionFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final String retryAfter;
+    private final AtomicLong readsRejected = new AtomicLong();
+    private final AtomicLong writesRejected = new AtomicLong();
+
+    public LandParcelAdmissionFilter(@Value("${landparcel.admission.enabled:true}") boolean enabled,
+            @Value("${landparcel.admission.read.initial-limit:20}") int readInitialLimit,
+            @Value("${landparcel.admission.read.max-limit:200}") int readMaxLimit,
+            @Value("${landparcel.admission.write.initial-limit:10}") int writeInitialLimit,
+            @Value("${landparcel.admission.write.max-limit:50}") int writeMaxLimit,
+            @Value("${landparcel.admission.min-limit:2}") int minLimit,
+            @Value("${landparcel.admission.tolerance:2.0}") double tolerance,
+            @Value("${landparcel.admission.retry-after:1s}") Duration retryAfter) {
+        this.enabled = enabled;
+        this.readLimit = new AdaptiveConcurrencyLimit(readInitialLimit, minLimit, readMaxLimit, tolerance);
+        this.writeLimit = new AdaptiveConcurrencyLimit(writeInitialLimit, minLimit, writeMaxLimit, tolerance);
+        this.retryAfter = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        AdaptiveConcurrencyLimit limit = read ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            (read ? readsRejected : writesRejected).incrementAndGet();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        boolean transfer = isTransfer(request);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (request.isAsyncStarted() || transfer) {
+                limit.release();
+            } else {
+                limit.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    /**
+     * @return Whether the request uploads a file to import or downloads an export.
+     */
+    private static boolean isTransfer(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return HttpMethod.POST.matches(request.getMethod()) && path.equals("/api/landParcel/import")
+                || path.startsWith("/api/landParcel/export/") && path.endsWith("/download");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, readLimit, readsRejected, "read");
+        bind(registry, writeLimit, writesRejected, "write");
+    }
+
+    private static void bind(MeterRegistry registry, AdaptiveConcurrencyLimit limit, AtomicLong rejected, String type) {
+        Gauge.builder("landparcel.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Number of requests admitted at once")
+                .tag("type", type)
+                .register(registry);
+        Gauge.builder("landparcel.admission.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Number of admitted requests being processed")
+                .tag("type", type)
+                .register(registry);
+        FunctionCounter.builder("landparcel.admission.rejected", rejected, AtomicLong::get)
+                .description("Number of requests answered with 503 as the limit was taken")
+                .tag("type", type)
+                .register(registry);
+    }
+}
@@ -1,36 +1,1263 @@
 package landclan.com.landparcel.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import landclan.com.landparcel.domain.FileFormat;
+import landclan.com.landparcel.domain.JobState;
 import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelAggregates;
+import landclan.com.landparcel.domain.LandParcelCacheStats;
+import landclan.com.landparcel.domain.LandParcelChange;
+import landclan.com.landparcel.domain.LandParcelDelta;
+import landclan.com.landparcel.domain.LandParcelExportStatus;
+import landclan.com.landparcel.domain.LandParcelImportStatus;
+import landclan.com.landparcel.domain.LandParcelNameMatch;
+import landclan.com.landparcel.domain.LandParcelOperation;
+import landclan.com.landparcel.domain.LandParcelOperationResult;
 import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelSearchCriteria;
+import landclan.com.landparcel.domain.LandParcelSearchResponse;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.Status;
 import landclan.com.landparcel.exception.LandParcelNotFoundException;
+import landclan.com.landparcel.exception.LandParcelVersionMismatchException;
+import landclan.com.landparcel.index.LandParcelColumns;
+import landclan.com.landparcel.index.LandParcelNameIndex;
+import landclan.com.landparcel.index.LandParcelSpatialIndex;
+import landclan.com.landparcel.service.LandParcelCache;
+import landclan.com.landparcel.service.LandParcelChangeFeed;
+import landclan.com.landparcel.service.LandParcelExporter;
+import landclan.com.landparcel.service.LandParcelGeneration;
+import landclan.com.landparcel.service.LandParcelImporter;
 import landclan.com.landparcel.service.LandParcelService;
+import landclan.com.landparcel.service.LandParcelWriteBehind;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Contains a list of all API requests available for CRUD operations on Land Parcels.
+ * Request and response bodies are JSON by default, the smaller binary encodings application/x-jackson-smile and
+ * application/cbor can be chosen with the Content-Type and Accept headers. Responses of 2KB or more are gzip compressed
+ * for clients sending Accept-Encoding: gzip. The ETags of Smile and CBOR responses end in +smile and +cbor so that no two
+ * encodings share an ETag, and responses with an ETag carry Vary: Accept so caches keep the encodings apart.
  * @author Stefanos Vafiadis
  */
 @RestController
 @RequestMapping("/api")
 public class LandParcelController {
     
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String TEXT_CSV_VALUE = "text/csv";
+    static final String APPLICATION_GEO_JSON_VALUE = "application/geo+json";
+    static final String APPLICATION_GZIP_VALUE = "application/gzip";
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    
+    /**
+     * Added to the ETags of Smile and CBOR responses so that each encoding of a resource has its own ETag, JSON ETags have none.
+     */
+    private static final String SMILE_ETAG_SUFFIX = "+smile";
+    private static final String CBOR_ETAG_SUFFIX = "+cbor";
+    
+    /**
+     * Number of Land Parcels written to the stream between flushes of the response.
+     */
+    private static final int STREAM_FLUSH_INTERVAL = 1000;
+    
+    /**
+     * Maximum number of changes taken from the change feed at a time and seconds without a change before a keep-alive comment is sent.
+     */
+    private static final int CHANGES_BATCH_SIZE = 100;
+    private static final int CHANGES_KEEP_ALIVE_SECONDS = 15;
+    
+    /**
+     * Maximum length of a Land Parcel name, as defined by the database schema.
+     */
+    private static final int MAX_NAME_LENGTH = 100;
+    
     @Autowired
     LandParcelService landParcelService;
     
+    @Autowired
+    LandParcelCache landParcelCache;
+    
+    @Autowired
+    LandParcelColumns landParcelColumns;
+    
+    @Autowired
+    LandParcelSpatialIndex landParcelSpatialIndex;
+    
+    @Autowired
+    LandParcelNameIndex landParcelNameIndex;
+    
+    @Autowired
+    LandParcelGeneration landParcelGeneration;
+    
+    @Autowired
+    LandParcelChangeFeed landParcelChangeFeed;
+    
+    @Autowired
+    LandParcelImporter landParcelImporter;
+    
+    @Autowired
+    LandParcelExporter landParcelExporter;
+    
+    @Autowired
+    LandParcelWriteBehind landParcelWriteBehind;
+    
+    @Autowired
+    ObjectMapper objectMapper;
+    
+    /**
+     * GET /api/landParcel?limit={limit}&amp;after={objectId}
+     * Land Parcels are returned one page at a time in ascending objectID order.
+     * The response contains the field nextCursor which should be passed as the after parameter to fetch the next page,
+     * nextCursor is null when the last page has been reached. The field totalCount holds the number of Land Parcels stored.
+     * The ETag returned changes whenever any Land Parcel is created, updated or deleted, it is worked out without reading
+     * the Land Parcels so a request sending it back in If-None-Match is answered without querying the database.
+     * The ETag is weak so that the page can still be compressed.
+     * @param after The objectID of the last Land Parcel of the previous page, omitted for the first page.
+     * @param limit The maximum number of Land Parcels to be returned, defaults to 100 and is capped at 1000.
+     * @param ifNoneMatch The ETag of the page already held by the client, optional.
+     * @param accept The encodings accepted, which the ETag depends on.
+     * @return Returns a page of the Land Parcels found. 
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and Land Parcels should be returned in JSON within an Array of name landParcels.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 204
+     * </td>
+     * <td>
+     * No Content
+     * </td>
+     * <td>
+     * The request was successful but there are no Land Parcels to display currently.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 304
+     * </td>
+     * <td>
+     * Not Modified
+     * </td>
+     * <td>
+     * No Land Parcel has changed since the ETag sent in If-None-Match was returned, no body is sent.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * The limit provided was not a positive number.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 500
+     * </td>
+     * <td>
+     * Internal Server Error
+     * </td>
+     * <td>
+     * The request was unsuccessful.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel")
+    public ResponseEntity<LandParcelResponse> getAllLandParcels(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + LandParcelService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag("W/" + eTag(landParcelGeneration.current(), accept));
+            headers.setVary(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+            if (eTagMatches(ifNoneMatch, headers.getETag())) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+            
+            LandParcelResponse landParcels = landParcelService.getLandParcels(after, limit);
+
+            if (landParcels.getLandParcels().isEmpty()) {
+              return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+
+            return new ResponseEntity<>(landParcels, headers, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * GET /api/landParcel/search?status={status}&amp;minArea={minArea}&amp;maxArea={maxArea}&amp;constraints={constraints}&amp;sort={sort}&amp;limit={limit}&amp;after={cursor}
+     * Land Parcels matching all of the filters provided are returned one page at a time, every filter is optional.
+     * The response contains the field nextCursor which should be passed as the after parameter along with the same filters
+     * to fetch the next page, nextCursor is null when the last page has been reached.
+     * @param statuses One or more status values of type {"SAVED", "SHORT_LISTED", "UNDER_CONSTRUCTION", "APPROVED"}, the parameter status may be repeated.
+     * @param minArea The smallest area to be returned.
+     * @param maxArea The largest area to be returned.
+     * @param constraints The constraints value to be returned.
+     * @param sort The field to sort by, one of objectID, name, status or area, optionally followed by ",asc" or ",desc". Defaults to objectID.
+     * @param after The nextCursor of the previous page, omitted for the first page.
+     * @param limit The maximum number of Land Parcels to be returned, defaults to 100 and is capped at 1000.
+     * @return Returns a page of the Land Parcels found.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and Land Parcels should be returned in JSON within an Array of name landParcels, the Array is empty if none match.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * A filter, the sort, the limit or the cursor provided was not valid.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 500
+     * </td>
+     * <td>
+     * Internal Server Error
+     * </td>
+     * <td>
+     * The request was unsuccessful.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/search")
+    public ResponseEntity<LandParcelSearchResponse> searchLandParcels(@RequestParam(name = "status", required = false) Set<Status> statuses,
+            @RequestParam(required = false) Double minArea, @RequestParam(required = false) Double maxArea,
+            @RequestParam(required = false) Boolean constraints, @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after, @RequestParam(defaultValue = "" + LandParcelService.DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        try {
+            LandParcelSearchCriteria criteria = new LandParcelSearchCriteria(statuses, minArea, maxArea, constraints, sort);
+            return new ResponseEntity<>(landParcelService.searchLandParcels(criteria, after, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * GET /api/landParcel/stream
+     * Streams all Land Parcels in objectID order as newline delimited JSON, one Land Parcel per line.
+     * Land Parcels are written as they are read from the database so the first line is sent before the whole table has been read.
+     * @return Returns all Land Parcels found.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and Land Parcels are streamed with content type application/x-ndjson, the body is empty when there are no Land Parcels.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping(value = "/landParcel/stream", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLandParcels() {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+                landParcelService.streamLandParcels(landParcel -> {
+                    try {
+                        writer.writeValue(generator, landParcel);
+                        generator.writeRaw('\n');
+                        if (++written[0] % STREAM_FLUSH_INTERVAL == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE));
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * GET /api/landParcel/delta?since={changeSeq}&amp;limit={limit}
+     * Returns the Land Parcels created, updated or deleted since a change sequence so an offline client only transfers
+     * what changed while it was away. Every Land Parcel holds the changeSeq of its latest change.
+     * The response contains landParcels, the Land Parcels created or updated in their current state, deletedObjectIDs,
+     * the objectIDs of the Land Parcels deleted, and nextSince which should be stored by the client and passed as since
+     * on the next request. While hasMore is true the following changes can be requested straight away.
+     * Requesting since=0 returns every Land Parcel. When reset is true the change sequence sent was not handed out by this
+     * server, the changes returned start from the beginning and the Land Parcels held by the client should be dropped.
+     * @param since The nextSince of the previous response, defaults to 0.
+     * @param limit The maximum number of changes to be returned, defaults to 100 and is capped at 1000.
+     * @return Returns the changes found.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful, the changes are returned in JSON along with nextSince even when there are none.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * The since provided was negative or the limit provided was not a positive number.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 500
+     * </td>
+     * <td>
+     * Internal Server Error
+     * </td>
+     * <td>
+     * The request was unsuccessful.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/delta")
+    public ResponseEntity<LandParcelDelta> getLandParcelChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "" + LandParcelService.DEFAULT_PAGE_SIZE) int limit) {
+        if (since < 0 || limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        try {
+            return new ResponseEntity<>(landParcelService.getLandParcelChanges(since, limit), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * GET /api/landParcel/changes
+     * Streams every Land Parcel created, updated or deleted from now on as Server-Sent Events, an example event shown below
+     * id: 1718000000000-42
+     * event: change
+     * data: {"id": "1718000000000-42", "type": "UPDATE", "objectID": 3, "landParcel": {"objectID": 3, "name": "Test", ...}}
+     * 
+     * The field type is one of CREATE, UPDATE or DELETE, landParcel holds the Land Parcel as saved and is null for a delete.
+     * Events are sent once the change has been committed. Changes of one Land Parcel are sent in the order they were made,
+     * a change committed late behind a newer change of the same Land Parcel is left out, while changes of different Land
+     * Parcels committed at about the same time may be sent in either order.
+     * A client reconnecting with the header Last-Event-ID receives the changes it missed, as the EventSource of a browser does.
+     * When those changes are no longer held, or when the client falls too far behind, an event named reset is sent instead
+     * and the client should read the Land Parcels again, the connection is closed after a reset caused by falling behind.
+     * A comment is sent every 15 seconds without a change to keep the connection open, the connection is closed after
+     * spring.mvc.async.request-timeout and should be reopened with Last-Event-ID.
+     * @param lastEventId The id of the last event received, optional.
+     * @return Returns the stream of changes.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and changes are streamed with content type text/event-stream.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping(value = "/landParcel/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        LandParcelChangeFeed.Subscription subscription = landParcelChangeFeed.subscribe(lastEventId);
+        Thread sender = Thread.ofVirtual().name("landparcel-changes").start(() -> sendChanges(emitter, subscription));
+        emitter.onCompletion(sender::interrupt);
+        emitter.onTimeout(sender::interrupt);
+        emitter.onError(e -> sender.interrupt());
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+    
+    /**
+     * Runs on its own virtual thread for each client so a slow client only holds up its own thread, never the writers.
+     */
+    private void sendChanges(SseEmitter emitter, LandParcelChangeFeed.Subscription subscription) {
+        try (subscription) {
+            if (subscription.isReset()) {
+                sendReset(emitter, subscription);
+            }
+            while (true) {
+                List<LandParcelChange> changes = subscription.poll(CHANGES_BATCH_SIZE, CHANGES_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+                if (changes == null) {
+                    sendReset(emitter, subscription);
+                    emitter.complete();
+                    return;
+                }
+                if (changes.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+                for (LandParcelChange change : changes) {
+                    emitter.send(SseEmitter.event().id(change.getId()).name("change").data(change, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException e) {
+            // The emitter has completed, timed out or failed.
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone, the container completes the emitter.
+        }
+    }
+    
+    private static void sendReset(SseEmitter emitter, LandParcelChangeFeed.Subscription subscription) throws IOException {
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name("reset").data("Changes have been missed, read the Land Parcels again.");
+        String lastEventId = subscription.getLastEventId();
+        emitter.send(lastEventId == null ? event : event.id(lastEventId));
+    }
+    
+    /**
+     * GET /api/landParcel/{objectId}
+     * The ETag returned is the version of the Land Parcel, it can be sent back in If-None-Match to avoid downloading
+     * the Land Parcel again while it is unchanged and in If-Match to update only the version read. The ETag of a Smile or
+     * CBOR response is suffixed with +smile or +cbor, If-Match accepts the ETag of any encoding.
+     * @param objectId The integer value of the ObjectID of the Land Parcel to be found.
+     * @param ifNoneMatch The ETag of the Land Parcel already held by the client, optional.
+     * @param accept The encodings accepted, which the ETag depends on.
+     * @return Returns a specific Land Parcel based on the ObjectID provided. 
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and a land parcel should be return in JSON form.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 204
+     * </td>
+     * <td>
+     * No Content
+     * </td>
+     * <td>
+     * The request was successful but there are no Land Parcels matching the objectID provided.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 304
+     * </td>
+     * <td>
+     * Not Modified
+     * </td>
+     * <td>
+     * The Land Parcel is still at the version sent in If-None-Match, no body is sent.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 500
+     * </td>
+     * <td>
+     * Internal Server Error
+     * </td>
+     * <td>
+     * The request was unsuccessful.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/{objectId}")
+    public ResponseEntity<LandParcelView> getLandParcel(@PathVariable long objectId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            Optional<LandParcelView> landParcel = landParcelService.getLandParcel(objectId);
+
+            if (landParcel.isEmpty()) {
+              return new ResponseEntity<>(null, HttpStatus.NO_CONTENT);
+            }
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(eTag(Long.toString(landParcel.get().version()), accept));
+            headers.setVary(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+            if (eTagMatches(ifNoneMatch, headers.getETag())) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+
+            return new ResponseEntity<>(landParcel.get(), headers, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * GET /api/landParcel/aggregates
+     * Totals of the area of all Land Parcels grouped by status and split by the constraints flag, an example shown below
+     * {
+     *      "totalCount": 2,
+     *      "groups": [
+     *          { "status": "SAVED", "constraints": true, "count": 2, "sum": 33.5, "average": 16.75, "min": 10.0, "max": 23.5, "p50": 10.0, "p90": 23.5, "p99": 23.5 }
+     *      ]
+     * }
+     * 
+     * Only groups containing at least one Land Parcel are returned. The percentiles are estimated and are within 2% of the exact value.
+     * The totals are computed from an in-memory copy of the Land Parcels which is loaded once the application has started.
+     * @return Returns the totals of each group of Land Parcels.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and the totals are returned in JSON form.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The in-memory copy of the Land Parcels is still being loaded, the request should be retried later.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/aggregates")
+    public ResponseEntity<LandParcelAggregates> getAggregates() {
+        if (!landParcelColumns.isLoaded()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        
+        return new ResponseEntity<>(landParcelColumns.aggregate(), HttpStatus.OK);
+    }
+    
+    /**
+     * GET /api/landParcel/spatial/bbox?minX={minX}&amp;minY={minY}&amp;maxX={maxX}&amp;maxY={maxY}&amp;limit={limit}
+     * Land Parcels whose boundary intersects the bounding box, found in the in-memory spatial index and read from the database.
+     * Up to limit Land Parcels are returned in ascending objectID order and the field totalCount holds the number of
+     * Land Parcels intersecting the bounding box, counted up to 10000, so a map can tell when it should zoom in. When more
+     * than limit Land Parcels intersect the bounding box an arbitrary subset of them is returned, not those with the lowest
+     * objectIDs. Land Parcels without a boundary are never returned.
+     * @param limit The maximum number of Land Parcels to be returned, defaults to 100 and is capped at 1000.
+     * @return Returns the Land Parcels found.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and the Land Parcels found are returned in JSON form.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * The limit is less than 1 or the minimum of the bounding box is greater than its maximum.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The spatial index of the Land Parcels is still being loaded, the request should be retried later.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 500
+     * </td>
+     * <td>
+     * Internal Server Error
+     * </td>
+     * <td>
+     * The request was unsuccessful.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/spatial/bbox")
+    public ResponseEntity<LandParcelResponse> getLandParcelsIntersecting(@RequestParam double minX, @RequestParam double minY,
+            @RequestParam double maxX, @RequestParam double maxY, @RequestParam(defaultValue = "" + LandParcelService.DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || minX > maxX || minY > maxY) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (!landParcelSpatialIndex.isLoaded()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        
+        try {
+            List<Long> objectIDs = new ArrayList<>();
+            int totalCount = landParcelSpatialIndex.intersecting(minX, minY, maxX, maxY, Math.min(limit, LandParcelService.MAX_PAGE_SIZE), objectIDs);
+            return new ResponseEntity<>(new LandParcelResponse(landParcelService.getLandParcels(objectIDs), null, totalCount), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * GET /api/landParcel/spatial/point?x={x}&amp;y={y}&amp;limit={limit}
+     * Land Parcels whose boundary contains the point, normally one unless boundaries overlap.
+     * Up to limit Land Parcels are returned in ascending objectID order and the field totalCount holds the number of Land Parcels containing the point,
+     * counted up to 10000. When more than limit Land Parcels contain the point an arbitrary subset of them is returned, not those with the lowest objectIDs.
+     * @param limit The maximum number of Land Parcels to be returned, defaults to 100 and is capped at 1000.
+     * @return Returns the Land Parcels found.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and the Land Parcels found are returned in JSON form.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * The limit is less than 1.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The spatial index of the Land Parcels is still being loaded, the request should be retried later.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 500
+     * </td>
+     * <td>
+     * Internal Server Error
+     * </td>
+     * <td>
+     * The request was unsuccessful.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/spatial/point")
+    public ResponseEntity<LandParcelResponse> getLandParcelsContaining(@RequestParam double x, @RequestParam double y,
+            @RequestParam(defaultValue = "" + LandParcelService.DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (!landParcelSpatialIndex.isLoaded()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        
+        try {
+            List<Long> objectIDs = new ArrayList<>();
+            int totalCount = landParcelSpatialIndex.containing(x, y, Math.min(limit, LandParcelService.MAX_PAGE_SIZE), objectIDs);
+            return new ResponseEntity<>(new LandParcelResponse(landParcelService.getLandParcels(objectIDs), null, totalCount), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * GET /api/landParcel/names?query={query}&amp;limit={limit}
+     * Autocomplete of Land Parcel names, an example shown below
+     * [
+     *      { "objectID": 2, "name": "test2" }
+     * ]
+     * 
+     * Names are matched ignoring case. Names starting with the query come first in alphabetical order, followed by names
+     * with a word starting with the query and then names containing the query anywhere, shorter names first.
+     * A query of one or two characters only matches names with a word starting with it, not names containing it in the
+     * middle of a word. For a query contained in many names the order after the names starting with it is approximate,
+     * only about the first thousand of the other names containing it are ranked so a shorter name may be left out.
+     * The names are served from an in-memory index which is loaded once the application has started.
+     * @param query The text typed so far.
+     * @param limit The maximum number of names to be returned, defaults to 10 and is capped at 100.
+     * @return Returns the best matching names along with the objectID of their Land Parcel.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and the matching names are returned in JSON form.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * The query is blank or the limit is less than 1.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The name index of the Land Parcels is still being loaded, the request should be retried later.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/names")
+    public ResponseEntity<List<LandParcelNameMatch>> searchLandParcelNames(@RequestParam String query,
+            @RequestParam(defaultValue = "" + LandParcelNameIndex.DEFAULT_LIMIT) int limit) {
+        if (limit < 1 || query.isBlank()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (!landParcelNameIndex.isLoaded()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        
+        return new ResponseEntity<>(landParcelNameIndex.search(query, Math.min(limit, LandParcelNameIndex.MAX_LIMIT)), HttpStatus.OK);
+    }
+    
+    /**
+     * GET /api/landParcel/cache/stats
+     * @return Returns the number of Land Parcels currently cached along with the hit, miss and eviction counts of the cache
+     * used by GET /api/landParcel/{objectId} since the application started.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and the cache statistics are returned in JSON form.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/cache/stats")
+    public ResponseEntity<LandParcelCacheStats> getCacheStats() {
+        return new ResponseEntity<>(landParcelCache.getStats(), HttpStatus.OK);
+    }
+    
+    /**
+     * POST /api/landParcel
+     * A land parcel is JSON format must be provided an example shown below
+     * {
+     *      "name": "Test",
+     *      "status": "SAVED",
+     *      "area": 15.2,
+     *      "constraints": false
+     *  }
+     * 
+     * The field name accepts String values.
+     * The field status accepts String values of type {"SAVED", "SHORT_LISTED", "UNDER_CONSIDERATION", "APPROVED"}
+     * The field area accepts double values.
+     * The field constrains accepts boolean values.
+     * All fields must be correctly set otherwise the request will fail, any other fields defined will be ignored (including objectID which is set automatically by the database.
+     * @param landParcel requires all fields described above to be created.
+     * @return The land parcel created in JSON format.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 201
+     * </td>
+     * <td>
+     * Created
+     * </td>
+     * <td>
+     * The request was successful and a land parcel was created.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * The request was unsuccessful and a Land Parcel was not created.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The request was interrupted while waiting for queued updates to be written, the land parcel was not created.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @PostMapping(value = "/landParcel")
+    public ResponseEntity createLandParcel(@RequestBody LandParcel landParcel){
+        try {
+            landParcelWriteBehind.awaitQueuedUpdates(List.of());
+            LandParcel newLandParcel = landParcelService.saveLandParcel(landParcel);
+            return new ResponseEntity<>(newLandParcel, HttpStatus.CREATED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * POST /api/landParcel/bulk
+     * An array of land parcels in JSON format must be provided, each in the same format as for POST /api/landParcel.
+     * All land parcels are created in a single transaction, if any of them is invalid none of them will be created.
+     * @param landParcels requires all fields described for POST /api/landParcel to be set on every land parcel.
+     * @return The land parcels created in JSON format in the order provided.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 201
+     * </td>
+     * <td>
+     * Created
+     * </td>
+     * <td>
+     * The request was successful and all land parcels were created.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * The request was unsuccessful and no Land Parcels were created.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The request was interrupted while waiting for queued updates to be written, no land parcels were created.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @PostMapping(value = "/landParcel/bulk")
+    public ResponseEntity createLandParcels(@RequestBody List<LandParcel> landParcels){
+        try {
+            landParcelWriteBehind.awaitQueuedUpdates(List.of());
+            List<LandParcel> newLandParcels = landParcelService.saveLandParcels(landParcels);
+            return new ResponseEntity<>(newLandParcels, HttpStatus.CREATED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * POST /api/landParcel/import
+     * Imports a file of Land Parcels in the background, meant for datasets too large to post one land parcel at a time.
+     * The file is sent as the request body with Content-Type text/csv or application/geo+json, for example with
+     * curl --data-binary @parcels.csv -H "Content-Type: text/csv".
+     * A CSV file starts with a header naming its columns, name, status and area are required, constraints and boundary are
+     * optional and the boundary is a WKT POLYGON such as "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))".
+     * A GeoJSON file holds a FeatureCollection whose features carry those fields as properties and an optional Polygon geometry.
+     * The file is stored as it is received and the request returns once it has been received in full, the Location header
+     * and the id of the status returned point to GET /api/landParcel/import/{jobId}. Imports run one at a time.
+     * @param contentType The format of the file, text/csv or application/geo+json.
+     * @param body The file, streamed rather than read into memory.
+     * @return The status of the import job queued.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 202
+     * </td>
+     * <td>
+     * Accepted
+     * </td>
+     * <td>
+     * The file was received and its import has been queued, the status of the job is returned in JSON.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 415
+     * </td>
+     * <td>
+     * Unsupported Media Type
+     * </td>
+     * <td>
+     * The Content-Type was neither text/csv nor application/geo+json.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 500
+     * </td>
+     * <td>
+     * Internal Server Error
+     * </td>
+     * <td>
+     * The file could not be received or stored.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @PostMapping(value = "/landParcel/import", consumes = {TEXT_CSV_VALUE, APPLICATION_GEO_JSON_VALUE})
+    public ResponseEntity<LandParcelImportStatus> importLandParcels(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        FileFormat format = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE)) ? FileFormat.CSV : FileFormat.GEOJSON;
+        try {
+            LandParcelImportStatus status = landParcelImporter.submit(format, body);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setLocation(URI.create("/api/landParcel/import/" + status.getId()));
+            return new ResponseEntity<>(status, headers, HttpStatus.ACCEPTED);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * GET /api/landParcel/import/{jobId}
+     * Returns the progress of an import, state is one of QUEUED, RUNNING, COMPLETED or FAILED and rowsRead, rowsImported
+     * and rowsRejected count the rows so far. When the state is FAILED the field failure explains why the import stopped,
+     * the rows imported up to then are kept. The last 100 imports are kept.
+     * @param jobId The id of the import returned by POST /api/landParcel/import.
+     * @return The status of the import.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * The request was successful and the status of the import is returned in JSON.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 404
+     * </td>
+     * <td>
+     * Not Found
+     * </td>
+     * <td>
+     * There is no import with the id provided.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/import/{jobId}")
+    public ResponseEntity<LandParcelImportStatus> getImportStatus(@PathVariable String jobId) {
+        return landParcelImporter.getStatus(jobId)
+                .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
     /**
-     * GET /api/landParcel
-     * @return Returns all Land Parcels found. 
+     * GET /api/landParcel/import/{jobId}/errors
+     * Returns a CSV file with the columns row and message listing every row of the import which was rejected and why,
+     * rows are numbered by line for CSV files, counting the header as line 1, and by feature for GeoJSON files.
+     * The report is complete once the import has finished.
+     * @param jobId The id of the import returned by POST /api/landParcel/import.
+     * @return The error report of the import.
      * <table>
      * <tr>
      * <th>
@@ -51,52 +1278,108 @@ public class LandParcelController {
      * OK
      * </td>
      * <td>
-     * The request was successful and Land Parcels should be returned in JSON within an Array of name landParcels.
+     * The request was successful and the error report is returned as text/csv.
      * </td>
      * </tr>
      * <tr>
      * <td>
-     * 204
+     * 404
      * </td>
      * <td>
-     * No Content
+     * Not Found
      * </td>
      * <td>
-     * The request was successful but there are no Land Parcels to display currently.
+     * There is no import with the id provided.
+     * </td>
+     * </tr>
+     * </table>
+     */
+    @GetMapping(value = "/landParcel/import/{jobId}/errors", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<Resource> getImportErrors(@PathVariable String jobId) {
+        return landParcelImporter.getErrorReport(jobId)
+                .map(report -> new ResponseEntity<Resource>(new FileSystemResource(report), HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+    /**
+     * POST /api/landParcel/export?format=csv
+     * Exports every Land Parcel to a gzip compressed file in the background, meant for downloading the whole dataset
+     * rather than reading it a page at a time. The format is csv, with the columns objectID, name, status, area,
+     * constraints, boundary as a WKT POLYGON, version and changeSeq, or geojson, a FeatureCollection with a Polygon
+     * geometry per Land Parcel. Both can be imported again with POST /api/landParcel/import once decompressed.
+     * An export is made of the Land Parcels as they are when it is requested. While no Land Parcel changes every request
+     * is given the same export, so the database is read once however often the export is downloaded.
+     * The Location header and the id of the status returned point to GET /api/landParcel/export/{exportId}.
+     * @param format csv or geojson, csv by default.
+     * @return The status of the export.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
+     * <tr>
+     * <td>
+     * 200
+     * </td>
+     * <td>
+     * OK
+     * </td>
+     * <td>
+     * An export of the current Land Parcels has already completed and can be downloaded, its status is returned in JSON.
      * </td>
      * </tr>
      * <tr>
      * <td>
-     * 500
+     * 202
      * </td>
      * <td>
-     * Internal Server Error
+     * Accepted
      * </td>
      * <td>
-     * The request was unsuccessful.
+     * The export has been queued or is running, its status is returned in JSON.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 400
+     * </td>
+     * <td>
+     * Bad Request
+     * </td>
+     * <td>
+     * The format is neither csv nor geojson.
      * </td>
      * </tr>
      * </table>
      */
-    @GetMapping("/landParcel")
-    public ResponseEntity<LandParcelResponse> getAllLandParcels() {
+    @PostMapping("/landParcel/export")
+    public ResponseEntity<LandParcelExportStatus> exportLandParcels(@RequestParam(defaultValue = "csv") String format) {
+        FileFormat fileFormat;
         try {
-            LandParcelResponse landParcels = landParcelService.getLandParcels();
-
-            if (landParcels.getLandParcels().isEmpty()) {
-              return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-
-            return new ResponseEntity<>(landParcels, HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            fileFormat = FileFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+        LandParcelExportStatus status = landParcelExporter.export(fileFormat);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(URI.create("/api/landParcel/export/" + status.getId()));
+        return new ResponseEntity<>(status, headers, status.getState() == JobState.COMPLETED ? HttpStatus.OK : HttpStatus.ACCEPTED);
     }
     
     /**
-     * GET /api/landParcel/{objectId}
-     * @param objectId The integer value of the ObjectID of the Land Parcel to be found.
-     * @return Returns a specific Land Parcel based on the ObjectID provided. 
+     * GET /api/landParcel/export/{exportId}
+     * Returns the progress of an export, state is one of QUEUED, RUNNING, COMPLETED or FAILED, rowsWritten counts the
+     * Land Parcels written so far and sizeBytes is the size of the compressed file once completed. The latest two
+     * completed exports of each format are kept.
+     * @param exportId The id of the export returned by POST /api/landParcel/export.
+     * @return The status of the export.
      * <table>
      * <tr>
      * <th>
@@ -117,65 +1400,149 @@ public class LandParcelController {
      * OK
      * </td>
      * <td>
-     * The request was successful and a land parcel should be return in JSON form.
+     * The request was successful and the status of the export is returned in JSON.
      * </td>
      * </tr>
      * <tr>
      * <td>
-     * 204
+     * 404
      * </td>
      * <td>
-     * No Content
+     * Not Found
      * </td>
      * <td>
-     * The request was successful but there are no Land Parcels matching the objectID provided.
+     * There is no export with the id provided.
      * </td>
      * </tr>
+     * </table>
+     */
+    @GetMapping("/landParcel/export/{exportId}")
+    public ResponseEntity<LandParcelExportStatus> getExportStatus(@PathVariable String exportId) {
+        return landParcelExporter.getStatus(exportId)
+                .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+    /**
+     * GET /api/landParcel/export/{exportId}/download
+     * Downloads the file of a completed export as application/gzip, named landparcels-{exportId}.csv.gz or
+     * landparcels-{exportId}.geojson.gz. The file is sent straight from disk by the server without being read into memory.
+     * A single byte range can be requested with the Range header, together with If-Range and the ETag of the file to
+     * resume an interrupted download, and If-None-Match with the ETag avoids downloading the same file again.
+     * @param exportId The id of the export returned by POST /api/landParcel/export.
+     * <table>
+     * <tr>
+     * <th>
+     *  HTTP CODE
+     * </th>
+     * <th>
+     *  HTTP Status
+     * </th>
+     * <th>
+     *  Description
+     * </th>
+     * </tr>
      * <tr>
      * <td>
-     * 500
+     * 200
      * </td>
      * <td>
-     * Internal Server Error
+     * OK
      * </td>
      * <td>
-     * The request was unsuccessful.
+     * The request was successful and the whole file is returned.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 206
+     * </td>
+     * <td>
+     * Partial Content
+     * </td>
+     * <td>
+     * The byte range requested is returned, the Content-Range header gives its position in the file.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 304
+     * </td>
+     * <td>
+     * Not Modified
+     * </td>
+     * <td>
+     * The If-None-Match header matches the ETag of the file, nothing is returned.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 404
+     * </td>
+     * <td>
+     * Not Found
+     * </td>
+     * <td>
+     * There is no export with the id provided.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 409
+     * </td>
+     * <td>
+     * Conflict
+     * </td>
+     * <td>
+     * The export has not completed, or has failed.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 416
+     * </td>
+     * <td>
+     * Range Not Satisfiable
+     * </td>
+     * <td>
+     * The byte range requested starts beyond the end of the file.
      * </td>
      * </tr>
      * </table>
      */
-    @GetMapping("/landParcel/{objectId}")
-    public ResponseEntity<LandParcel> getLandParcel(@PathVariable long objectId) {
-        try {
-            Optional<LandParcel> landParcel = landParcelService.getLandParcel(objectId);
-
-            if (landParcel.isEmpty()) {
-              return new ResponseEntity<>(null, HttpStatus.NO_CONTENT);
-            }
-
-            return new ResponseEntity<>(landParcel.get(), HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+    @GetMapping("/landParcel/export/{exportId}/download")
+    public void downloadExport(@PathVariable String exportId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<LandParcelExportStatus> status = landParcelExporter.getStatus(exportId);
+        if (status.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        Optional<Path> file = landParcelExporter.getFile(exportId);
+        if (file.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            return;
+        }
+        FileTransfer.send(request, response, file.get(), APPLICATION_GZIP_VALUE, file.get().getFileName().toString(),
+                "\"" + exportId + "\"");
     }
     
     /**
-     * POST /api/landParcel
-     * A land parcel is JSON format must be provided an example shown below
-     * {
-     *      "name": "Test",
-     *      "status": "SAVED",
-     *      "area": 15.2,
-     *      "constraints": false
-     *  }
+     * POST /api/landParcel/batch
+     * An ordered array of operations in JSON format must be provided, an example shown below
+     * [
+     *      { "type": "CREATE", "landParcel": { "name": "Test", "status": "SAVED", "area": 15.2, "constraints": false } },
+     *      { "type": "UPDATE", "landParcel": { "objectID": 3, "name": "Test", "status": "APPROVED", "area": 15.2, "constraints": false } },
+     *      { "type": "DELETE", "objectID": 4 }
+     * ]
      * 
-     * The field name accepts String values.
-     * The field status accepts String values of type {"SAVED", "SHORT_LISTED", "UNDER_CONSIDERATION", "APPROVED"}
-     * The field area accepts double values.
-     * The field constrains accepts boolean values.
-     * All fields must be correctly set otherwise the request will fail, any other fields defined will be ignored (including objectID which is set automatically by the database.
-     * @param landParcel requires all fields described above to be created.
-     * @return The land parcel created in JSON format.
+     * The field type accepts String values of type {"CREATE", "UPDATE", "DELETE"}.
+     * CREATE and UPDATE operations require the field landParcel in the same format as for POST and PUT /api/landParcel.
+     * DELETE operations require the field objectID of the land parcel to be deleted.
+     * All operations are applied in a single transaction in the order provided. An operation which cannot be applied, such as
+     * an update of a land parcel which does not exist, is reported in its result without stopping the other operations.
+     * @param operations the operations to be applied in order.
+     * @return One result per operation in JSON format, each holding the index of the operation, its objectID, the http code
+     * the equivalent single request would have returned in the field status, an error message if it failed and the land parcel created or updated.
      * <table>
      * <tr>
      * <th>
@@ -190,13 +1557,13 @@ public class LandParcelController {
      * </tr>
      * <tr>
      * <td>
-     * 201
+     * 200
      * </td>
      * <td>
-     * Created
+     * OK
      * </td>
      * <td>
-     * The request was successful and a land parcel was created.
+     * The request was successful and the result of each operation is returned.
      * </td>
      * </tr>
      * <tr>
@@ -207,16 +1574,37 @@ public class LandParcelController {
      * Bad Request
      * </td>
      * <td>
-     * The request was unsuccessful and a Land Parcel was not created.
+     * The request was unsuccessful and none of the operations were applied.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The request was interrupted while waiting for queued updates of the land parcels to be written, none of the operations were applied.
      * </td>
      * </tr>
      * </table>
      */
-    @PostMapping(value = "/landParcel")
-    public ResponseEntity createLandParcel(@RequestBody LandParcel landParcel){
+    @PostMapping(value = "/landParcel/batch")
+    public ResponseEntity applyLandParcelOperations(@RequestBody List<LandParcelOperation> operations){
         try {
-            LandParcel newLandParcel = landParcelService.saveLandParcel(landParcel);
-            return new ResponseEntity<>(newLandParcel, HttpStatus.CREATED);
+            List<Long> objectIDs = new ArrayList<>();
+            for (LandParcelOperation operation : operations) {
+                if (operation.getTargetObjectID() != null) {
+                    objectIDs.add(operation.getTargetObjectID());
+                }
+            }
+            landParcelWriteBehind.awaitQueuedUpdates(objectIDs);
+            List<LandParcelOperationResult> results = landParcelService.applyLandParcelOperations(operations);
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e){
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
@@ -240,7 +1628,16 @@ public class LandParcelController {
      * The field constrains accepts boolean values.
      * All fields must be correctly set otherwise the request will fail, any other fields defined will be ignored.
      * The objectID field must correspond to an existing land parcel otherwise the request will fail with http code 404.
+     * The ETag returned by GET /api/landParcel/{objectId} can be sent in If-Match so that the update is only applied to the
+     * version the client read, the ETag of the new version is returned.
+     * When landparcel.write-behind.enabled is set, updates without If-Match are queued and written together in group
+     * commits, a later update of the same land parcel replacing a queued one. An update without a name, with a name longer
+     * than 100 characters or without a status is rejected with 400 before it is queued. With landparcel.write-behind.durability set
+     * to ACKNOWLEDGED the request returns 202 as soon as the update is queued, a land parcel which does not exist is then
+     * not reported. With COMMITTED the request returns once the group commit holding it has been committed.
      * @param landParcel requires all fields described above to be updated correctly.
+     * @param ifMatch The ETag of the version of the land parcel the changes were made to in any encoding, optional.
+     * @param accept The encodings accepted, which the ETag returned depends on.
      * @return The land parcel updated in JSON format. 
      * <table>
      * <tr>
@@ -267,6 +1664,17 @@ public class LandParcelController {
      * </tr>
      * <tr>
      * <td>
+     * 202
+     * </td>
+     * <td>
+     * Accepted
+     * </td>
+     * <td>
+     * The update has been queued to be written with landparcel.write-behind.durability set to ACKNOWLEDGED, nothing is returned.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
      * 400
      * </td>
      * <td>
@@ -287,20 +1695,98 @@ public class LandParcelController {
      * The land parcel with the objectID specified could not be found.
      * </td>
      * </tr>
+     * <tr>
+     * <td>
+     * 409
+     * </td>
+     * <td>
+     * Conflict
+     * </td>
+     * <td>
+     * The land parcel was updated by another request while this update was applied and If-Match was not sent.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 412
+     * </td>
+     * <td>
+     * Precondition Failed
+     * </td>
+     * <td>
+     * The land parcel is no longer at the version sent in If-Match, it should be read again before it is updated.
+     * </td>
+     * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The request was interrupted while waiting for room in the write-behind queue or for the update to be written.
+     * </td>
+     * </tr>
      * </table>
      */
     @PutMapping(value = "/landParcel")
-    public ResponseEntity updateLandParcel(@RequestBody LandParcel landParcel){
+    public ResponseEntity updateLandParcel(@RequestBody LandParcel landParcel,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept){
         try {
-            LandParcel updatedLandParcel = landParcelService.updateLandParcel(landParcel);
-            return new ResponseEntity<>(updatedLandParcel, HttpStatus.OK);
+            Long expectedVersion = null;
+            if (ifMatch != null && !ifMatch.trim().equals("*")) {
+                expectedVersion = parseVersion(ifMatch);
+                if (expectedVersion == null) {
+                    return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+                }
+            }
+            
+            LandParcel updatedLandParcel;
+            if (expectedVersion == null && landParcelWriteBehind.isEnabled()) {
+                if (!isComplete(landParcel)) {
+                    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                }
+                CompletableFuture<LandParcel> update = landParcelWriteBehind.update(landParcel);
+                if (landParcelWriteBehind.getDurability() == LandParcelWriteBehind.Durability.ACKNOWLEDGED) {
+                    return new ResponseEntity<>(HttpStatus.ACCEPTED);
+                }
+                try {
+                    updatedLandParcel = update.get();
+                } catch (ExecutionException e) {
+                    throw (RuntimeException) e.getCause();
+                }
+            } else {
+                landParcelWriteBehind.awaitQueuedUpdates(List.of(landParcel.getObjectID()));
+                updatedLandParcel = landParcelService.updateLandParcel(landParcel, expectedVersion);
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(eTag(Long.toString(updatedLandParcel.getVersion()), accept));
+            headers.setVary(List.of(HttpHeaders.ACCEPT));
+            return new ResponseEntity<>(updatedLandParcel, headers, HttpStatus.OK);
         } catch (LandParcelNotFoundException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+        } catch (LandParcelVersionMismatchException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.PRECONDITION_FAILED);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>("Land Parcel with object ID:"+landParcel.getObjectID()+" was updated by another request.", HttpStatus.CONFLICT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e){
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
     
+    /**
+     * @return Whether the Land Parcel has every property the database requires, checked before an update is queued as
+     * the update would otherwise only fail once written along with the other queued updates.
+     */
+    private static boolean isComplete(LandParcel landParcel) {
+        return landParcel.getName() != null && landParcel.getName().length() <= MAX_NAME_LENGTH && landParcel.getStatus() != null;
+    }
+    
      /**
      * DELETE /api/landParcel/{objectID}
      * To delete a land parcel based on the objectID provided.
@@ -352,18 +1838,116 @@ public class LandParcelController {
      * The request was unsuccessful.
      * </td>
      * </tr>
+     * <tr>
+     * <td>
+     * 503
+     * </td>
+     * <td>
+     * Service Unavailable
+     * </td>
+     * <td>
+     * The request was interrupted while waiting for queued updates of the land parcel to be written, it was not deleted.
+     * </td>
+     * </tr>
      * </table>
      */
     @DeleteMapping("/landParcel/{objectId}")
     public ResponseEntity deleteLandParcel(@PathVariable Long objectId) {
         try {
+            landParcelWriteBehind.awaitQueuedUpdates(List.of(objectId));
             landParcelService.deleteLandParcel(objectId);
 
             return new ResponseEntity<>(HttpStatus.OK);
         } catch (LandParcelNotFoundException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+    
+    /**
+     * @param accept the Accept header of the request, the ETag is suffixed with the encoding it selects.
+     */
+    private static String eTag(String value, String accept) {
+        return "\"" + value + eTagSuffix(accept) + "\"";
+    }
+    
+    /**
+     * @return The suffix of the ETags of the encoding the message converters choose for the Accept header given, the
+     * most specific and preferred media type which JSON, Smile or CBOR is compatible with, JSON first.
+     */
+    private static String eTagSuffix(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(mediaTypes);
+            for (MediaType mediaType : mediaTypes) {
+                if (mediaType.getQualityValue() == 0) {
+                    continue;
+                }
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return "";
+                }
+                if (mediaType.isCompatibleWith(MediaType.parseMediaType(APPLICATION_SMILE_VALUE))) {
+                    return SMILE_ETAG_SUFFIX;
+                }
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                    return CBOR_ETAG_SUFFIX;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // rejected when the response is written
+        }
+        return "";
+    }
+    
+    /**
+     * @param header the value of an If-None-Match header, a list of ETags or *, compared ignoring any weak prefix.
+     * @param eTag the current ETag of the resource.
+     * @return Whether the header holds the current ETag.
+     */
+    private static boolean eTagMatches(String header, String eTag) {
+        if (header == null) {
+            return false;
+        }
+        String opaqueTag = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @param ifMatch the value of an If-Match header holding a single strong ETag returned for a Land Parcel in any encoding.
+     * @return The version held by the ETag, null if it is not the ETag of a Land Parcel version.
+     */
+    private static Long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        String version = tag.substring(1, tag.length() - 1);
+        if (version.endsWith(SMILE_ETAG_SUFFIX) || version.endsWith(CBOR_ETAG_SUFFIX)) {
+            version = version.substring(0, version.lastIndexOf('+'));
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,6 @@
+package landclan.com.landparcel.domain;
+
+public enum FileFormat {
+    CSV,
+    GEOJSON
+}
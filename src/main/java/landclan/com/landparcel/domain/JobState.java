@@ -0,0 +1,8 @@
+package landclan.com.landparcel.domain;
+
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
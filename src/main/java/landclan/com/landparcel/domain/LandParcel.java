@@ -1,20 +1,32 @@
 package landclan.com.landparcel.domain;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.io.Serializable;
+import landclan.com.landparcel.repo.LandParcelChangeSequenceListener;
 
 @Entity
 @Table(name = "landParcel")
+@EntityListeners(LandParcelChangeSequenceListener.class)
 public class LandParcel implements Serializable {
     
+    /**
+     * Allocated from the landParcel_seq sequence in blocks so that inserts can be sent to the database in JDBC batches,
+     * the block size must match the INCREMENT BY of the sequence.
+     */
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @GeneratedValue(strategy=GenerationType.SEQUENCE, generator="landParcelSeq")
+    @SequenceGenerator(name="landParcelSeq", sequenceName="landParcel_seq", allocationSize=50)
     @Column
     private long objectID;
     
@@ -31,6 +43,39 @@ public class LandParcel implements Serializable {
     @Column
     private boolean constraints;
     
+    /**
+     * Stored as packed vertices by {@link PolygonConverter}, the bounding box columns are derived from it.
+     */
+    @Convert(converter = PolygonConverter.class)
+    @Column
+    private Polygon boundary;
+    
+    @Column
+    private Double minX;
+    
+    @Column
+    private Double minY;
+    
+    @Column
+    private Double maxX;
+    
+    @Column
+    private Double maxY;
+    
+    /**
+     * Incremented by Hibernate on every update, an update of a Land Parcel which has been changed since it was read fails.
+     */
+    @Version
+    @Column
+    private long version;
+    
+    /**
+     * Position of the latest change to this Land Parcel among all changes, assigned on every insert and update
+     * by {@link LandParcelChangeSequenceListener} and shared with {@link LandParcelTombstone}.
+     */
+    @Column
+    private long changeSeq;
+    
     public LandParcel() {}
 
     public LandParcel(long objectID, String name, Status status, double area, boolean constraints) {
@@ -76,6 +121,52 @@ public class LandParcel implements Serializable {
     public void setConstraints(boolean constraints) {
         this.constraints = constraints;
     }
+
+    public Polygon getBoundary() {
+        return boundary;
+    }
+
+    public void setBoundary(Polygon boundary) {
+        this.boundary = boundary;
+        this.minX = boundary == null ? null : boundary.getMinX();
+        this.minY = boundary == null ? null : boundary.getMinY();
+        this.maxX = boundary == null ? null : boundary.getMaxX();
+        this.maxY = boundary == null ? null : boundary.getMaxY();
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Double getMinX() {
+        return minX;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Double getMinY() {
+        return minY;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Double getMaxX() {
+        return maxX;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Double getMaxY() {
+        return maxY;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long getVersion() {
+        return version;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
     
     @Override
 	public String toString() {
@@ -0,0 +1,74 @@
+package landclan.com.landparcel.domain;
+
+/**
+ * Totals of the area of all Land Parcels sharing the same status and constraints flag.
+ * The percentiles are estimated from a histogram and are within 2% of the exact value for areas between 0.001 and 10^12.
+ */
+public class LandParcelAggregate {
+    private Status status;
+    private boolean constraints;
+    private long count;
+    private double sum;
+    private double average;
+    private double min;
+    private double max;
+    private double p50;
+    private double p90;
+    private double p99;
+
+    public LandParcelAggregate() {
+    }
+
+    public LandParcelAggregate(Status status, boolean constraints, long count, double sum, double min, double max, double p50, double p90, double p99) {
+        this.status = status;
+        this.constraints = constraints;
+        this.count = count;
+        this.sum = sum;
+        this.average = count == 0 ? 0 : sum / count;
+        this.min = min;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isConstraints() {
+        return constraints;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+}
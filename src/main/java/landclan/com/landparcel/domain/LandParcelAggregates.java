@@ -0,0 +1,27 @@
+package landclan.com.landparcel.domain;
+
+import java.util.List;
+
+public class LandParcelAggregates {
+    private long totalCount;
+    private List<LandParcelAggregate> groups;
+
+    public LandParcelAggregates() {
+    }
+
+    public LandParcelAggregates(long totalCount, List<LandParcelAggregate> groups) {
+        this.totalCount = totalCount;
+        this.groups = groups;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return One entry per combination of status and constraints flag which has at least one Land Parcel.
+     */
+    public List<LandParcelAggregate> getGroups() {
+        return groups;
+    }
+}
@@ -0,0 +1,44 @@
+package landclan.com.landparcel.domain;
+
+/**
+ * A committed create, update or delete of a Land Parcel as sent by the change feed.
+ * A Land Parcel saved at its first version is reported as created, later saves as updated.
+ */
+public class LandParcelChange {
+    private String id;
+    private OperationType type;
+    private long objectID;
+    private LandParcelView landParcel;
+
+    public LandParcelChange() {
+    }
+
+    public LandParcelChange(String id, OperationType type, long objectID, LandParcelView landParcel) {
+        this.id = id;
+        this.type = type;
+        this.objectID = objectID;
+        this.landParcel = landParcel;
+    }
+
+    /**
+     * @return The id of the change, sent as the event id so a client can resume after it with Last-Event-ID.
+     */
+    public String getId() {
+        return id;
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public long getObjectID() {
+        return objectID;
+    }
+
+    /**
+     * @return The Land Parcel as saved, null when it was deleted.
+     */
+    public LandParcelView getLandParcel() {
+        return landParcel;
+    }
+}
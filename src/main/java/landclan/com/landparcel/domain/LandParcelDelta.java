@@ -0,0 +1,78 @@
+package landclan.com.landparcel.domain;
+
+import java.util.List;
+
+public class LandParcelDelta {
+    private List<LandParcelView> landParcels;
+    private List<Long> deletedObjectIDs;
+    private long nextSince;
+    private boolean hasMore;
+    private boolean reset;
+
+    public LandParcelDelta() {
+    }
+
+    public LandParcelDelta(List<LandParcelView> landParcels, List<Long> deletedObjectIDs, long nextSince, boolean hasMore, boolean reset) {
+        this.landParcels = landParcels;
+        this.deletedObjectIDs = deletedObjectIDs;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+        this.reset = reset;
+    }
+
+    /**
+     * @return The Land Parcels created or updated since the change sequence requested, in the state they are in now.
+     */
+    public List<LandParcelView> getLandParcels() {
+        return landParcels;
+    }
+
+    public void setLandParcels(List<LandParcelView> landParcels) {
+        this.landParcels = landParcels;
+    }
+
+    /**
+     * @return The objectIDs of the Land Parcels deleted since the change sequence requested.
+     */
+    public List<Long> getDeletedObjectIDs() {
+        return deletedObjectIDs;
+    }
+
+    public void setDeletedObjectIDs(List<Long> deletedObjectIDs) {
+        this.deletedObjectIDs = deletedObjectIDs;
+    }
+
+    /**
+     * @return The change sequence to be passed as the since parameter of the next request.
+     */
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(long nextSince) {
+        this.nextSince = nextSince;
+    }
+
+    /**
+     * @return Whether further changes can be read straight away with nextSince, false once the client has caught up.
+     */
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @return Whether the change sequence requested was not handed out by this database, in which case the changes
+     * returned start from the beginning and the client should drop the Land Parcels it holds before applying them.
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+}
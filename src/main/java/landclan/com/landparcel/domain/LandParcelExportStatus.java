@@ -0,0 +1,83 @@
+package landclan.com.landparcel.domain;
+
+import java.time.Instant;
+
+public class LandParcelExportStatus {
+    private String id;
+    private FileFormat format;
+    private JobState state;
+    private String snapshot;
+    private long rowsWritten;
+    private long sizeBytes;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String failure;
+
+    public LandParcelExportStatus() {
+    }
+
+    public LandParcelExportStatus(String id, FileFormat format, JobState state, String snapshot, long rowsWritten, long sizeBytes,
+            Instant submittedAt, Instant startedAt, Instant finishedAt, String failure) {
+        this.id = id;
+        this.format = format;
+        this.state = state;
+        this.snapshot = snapshot;
+        this.rowsWritten = rowsWritten;
+        this.sizeBytes = sizeBytes;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.failure = failure;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public FileFormat getFormat() {
+        return format;
+    }
+
+    public JobState getState() {
+        return state;
+    }
+
+    /**
+     * @return The state of the Land Parcels the export was requested for, the same value as the ETag of GET /api/landParcel.
+     * The file holds every change up to this state and possibly some made while it was written.
+     */
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * @return The size of the compressed file, 0 until the export has completed.
+     */
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return Why the export failed, null unless the state is FAILED.
+     */
+    public String getFailure() {
+        return failure;
+    }
+}
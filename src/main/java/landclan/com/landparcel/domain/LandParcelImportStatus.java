@@ -0,0 +1,82 @@
+package landclan.com.landparcel.domain;
+
+import java.time.Instant;
+
+public class LandParcelImportStatus {
+    private String id;
+    private FileFormat format;
+    private JobState state;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String failure;
+
+    public LandParcelImportStatus() {
+    }
+
+    public LandParcelImportStatus(String id, FileFormat format, JobState state, long rowsRead, long rowsImported,
+            long rowsRejected, Instant submittedAt, Instant startedAt, Instant finishedAt, String failure) {
+        this.id = id;
+        this.format = format;
+        this.state = state;
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.failure = failure;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public FileFormat getFormat() {
+        return format;
+    }
+
+    public JobState getState() {
+        return state;
+    }
+
+    /**
+     * @return The number of rows, or features for GeoJSON, read from the file so far.
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    /**
+     * @return The number of rows which could not be imported, each listed with the reason in the error report of the job.
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return Why the job stopped before the end of the file, null unless the state is FAILED.
+     */
+    public String getFailure() {
+        return failure;
+    }
+}
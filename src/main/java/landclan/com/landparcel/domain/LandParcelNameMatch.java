@@ -0,0 +1,22 @@
+package landclan.com.landparcel.domain;
+
+public class LandParcelNameMatch {
+    private long objectID;
+    private String name;
+
+    public LandParcelNameMatch() {
+    }
+
+    public LandParcelNameMatch(long objectID, String name) {
+        this.objectID = objectID;
+        this.name = name;
+    }
+
+    public long getObjectID() {
+        return objectID;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
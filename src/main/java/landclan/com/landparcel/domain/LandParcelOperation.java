@@ -0,0 +1,61 @@
+package landclan.com.landparcel.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A single change within a batch of operations.
+ * CREATE and UPDATE operations require landParcel to be set, with the objectID of the land parcel used for UPDATE.
+ * DELETE operations require objectID to be set.
+ */
+public class LandParcelOperation {
+    private OperationType type;
+    private Long objectID;
+    private LandParcel landParcel;
+
+    public LandParcelOperation() {
+    }
+
+    public LandParcelOperation(OperationType type, Long objectID, LandParcel landParcel) {
+        this.type = type;
+        this.objectID = objectID;
+        this.landParcel = landParcel;
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public void setType(OperationType type) {
+        this.type = type;
+    }
+
+    public Long getObjectID() {
+        return objectID;
+    }
+
+    public void setObjectID(Long objectID) {
+        this.objectID = objectID;
+    }
+
+    public LandParcel getLandParcel() {
+        return landParcel;
+    }
+
+    public void setLandParcel(LandParcel landParcel) {
+        this.landParcel = landParcel;
+    }
+    
+    /**
+     * @return The objectID of the existing land parcel this operation refers to, null for CREATE operations.
+     */
+    @JsonIgnore
+    public Long getTargetObjectID() {
+        if (type == OperationType.DELETE) {
+            return objectID;
+        }
+        if (type == OperationType.UPDATE && landParcel != null) {
+            return landParcel.getObjectID();
+        }
+        return null;
+    }
+}
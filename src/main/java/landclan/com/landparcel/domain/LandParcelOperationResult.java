@@ -0,0 +1,73 @@
+package landclan.com.landparcel.domain;
+
+/**
+ * The outcome of a single operation within a batch, status holds the http code the equivalent single request would have returned.
+ */
+public class LandParcelOperationResult {
+    private int index;
+    private OperationType type;
+    private Long objectID;
+    private int status;
+    private String message;
+    private LandParcel landParcel;
+
+    public LandParcelOperationResult() {
+    }
+
+    public LandParcelOperationResult(int index, OperationType type, Long objectID, int status, String message, LandParcel landParcel) {
+        this.index = index;
+        this.type = type;
+        this.objectID = objectID;
+        this.status = status;
+        this.message = message;
+        this.landParcel = landParcel;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public void setType(OperationType type) {
+        this.type = type;
+    }
+
+    public Long getObjectID() {
+        return objectID;
+    }
+
+    public void setObjectID(Long objectID) {
+        this.objectID = objectID;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LandParcel getLandParcel() {
+        return landParcel;
+    }
+
+    public void setLandParcel(LandParcel landParcel) {
+        this.landParcel = landParcel;
+    }
+}
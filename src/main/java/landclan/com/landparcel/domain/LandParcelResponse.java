@@ -3,22 +3,49 @@ package landclan.com.landparcel.domain;
 import java.util.List;
 
 public class LandParcelResponse {
-    private List<LandParcel> landParcels;
+    private List<LandParcelView> landParcels;
+    private Long nextCursor;
+    private long totalCount;
 
     public LandParcelResponse() {
     }
 
-    public LandParcelResponse(List<LandParcel> landParcels) {
+    public LandParcelResponse(List<LandParcelView> landParcels) {
         this.landParcels = landParcels;
     }
 
-    public List<LandParcel> getLandParcels() {
+    public LandParcelResponse(List<LandParcelView> landParcels, Long nextCursor, long totalCount) {
+        this.landParcels = landParcels;
+        this.nextCursor = nextCursor;
+        this.totalCount = totalCount;
+    }
+
+    public List<LandParcelView> getLandParcels() {
         return landParcels;
     }
 
-    public void setLandParcels(List<LandParcel> landParcels) {
+    public void setLandParcels(List<LandParcelView> landParcels) {
         this.landParcels = landParcels;
     }
+
+    /**
+     * @return The objectID to be passed as the after parameter to fetch the next page, null when this is the last page.
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount) {
+        this.totalCount = totalCount;
+    }
     
     
 }
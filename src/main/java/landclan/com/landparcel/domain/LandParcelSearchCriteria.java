@@ -0,0 +1,66 @@
+package landclan.com.landparcel.domain;
+
+import java.util.Set;
+
+/**
+ * Filters for searching Land Parcels, every filter which is null is ignored.
+ * The sort is given as the name of a field followed optionally by a comma and asc or desc, for example "area,desc".
+ */
+public class LandParcelSearchCriteria {
+    private Set<Status> statuses;
+    private Double minArea;
+    private Double maxArea;
+    private Boolean constraints;
+    private String sort;
+
+    public LandParcelSearchCriteria() {
+    }
+
+    public LandParcelSearchCriteria(Set<Status> statuses, Double minArea, Double maxArea, Boolean constraints, String sort) {
+        this.statuses = statuses;
+        this.minArea = minArea;
+        this.maxArea = maxArea;
+        this.constraints = constraints;
+        this.sort = sort;
+    }
+
+    public Set<Status> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Set<Status> statuses) {
+        this.statuses = statuses;
+    }
+
+    public Double getMinArea() {
+        return minArea;
+    }
+
+    public void setMinArea(Double minArea) {
+        this.minArea = minArea;
+    }
+
+    public Double getMaxArea() {
+        return maxArea;
+    }
+
+    public void setMaxArea(Double maxArea) {
+        this.maxArea = maxArea;
+    }
+
+    public Boolean getConstraints() {
+        return constraints;
+    }
+
+    public void setConstraints(Boolean constraints) {
+        this.constraints = constraints;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+}
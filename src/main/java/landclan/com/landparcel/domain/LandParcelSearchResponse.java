@@ -0,0 +1,35 @@
+package landclan.com.landparcel.domain;
+
+import java.util.List;
+
+public class LandParcelSearchResponse {
+    private List<LandParcel> landParcels;
+    private String nextCursor;
+
+    public LandParcelSearchResponse() {
+    }
+
+    public LandParcelSearchResponse(List<LandParcel> landParcels, String nextCursor) {
+        this.landParcels = landParcels;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<LandParcel> getLandParcels() {
+        return landParcels;
+    }
+
+    public void setLandParcels(List<LandParcel> landParcels) {
+        this.landParcels = landParcels;
+    }
+
+    /**
+     * @return The opaque cursor to be passed as the after parameter with the same filters to fetch the next page, null when this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
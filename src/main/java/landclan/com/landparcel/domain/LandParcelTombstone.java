@@ -0,0 +1,43 @@
+package landclan.com.landparcel.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import landclan.com.landparcel.repo.LandParcelChangeSequenceListener;
+
+/**
+ * Left behind when a Land Parcel is deleted so that clients reading the changes since a change sequence learn of the deletion.
+ * The change sequence is assigned by {@link LandParcelChangeSequenceListener} from the same sequence as {@link LandParcel}.
+ */
+@Entity
+@Table(name = "landParcelTombstone")
+@EntityListeners(LandParcelChangeSequenceListener.class)
+public class LandParcelTombstone {
+    
+    @Id
+    @Column
+    private long objectID;
+    
+    @Column
+    private long changeSeq;
+
+    public LandParcelTombstone() {}
+
+    public LandParcelTombstone(long objectID) {
+        this.objectID = objectID;
+    }
+
+    public long getObjectID() {
+        return objectID;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+}
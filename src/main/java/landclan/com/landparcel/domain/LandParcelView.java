@@ -0,0 +1,16 @@
+package landclan.com.landparcel.domain;
+
+/**
+ * Immutable copy of a Land Parcel returned by the read endpoints, serialized with the same properties as {@link LandParcel}.
+ * Selected directly into this record by a JPQL constructor expression so reads never create a managed entity
+ * or a dirty checking snapshot of it.
+ */
+public record LandParcelView(long objectID, String name, Status status, double area, boolean constraints,
+        Polygon boundary, Double minX, Double minY, Double maxX, Double maxY, long version, long changeSeq) {
+
+    public static LandParcelView of(LandParcel landParcel) {
+        return new LandParcelView(landParcel.getObjectID(), landParcel.getName(), landParcel.getStatus(), landParcel.getArea(),
+                landParcel.isConstraints(), landParcel.getBoundary(), landParcel.getMinX(), landParcel.getMinY(),
+                landParcel.getMaxX(), landParcel.getMaxY(), landParcel.getVersion(), landParcel.getChangeSeq());
+    }
+}
@@ -0,0 +1,7 @@
+package landclan.com.landparcel.domain;
+
+public enum OperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
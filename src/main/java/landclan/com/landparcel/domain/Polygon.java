@@ -0,0 +1,140 @@
+package landclan.com.landparcel.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The boundary of a Land Parcel as a single ring of x,y vertices, in JSON form an array of [x, y] pairs.
+ * The ring is closed implicitly so the last vertex does not need to repeat the first.
+ * Vertices are held in one interleaved array and stored in the database as packed little endian doubles.
+ */
+public final class Polygon implements Serializable {
+    
+    private final double[] coordinates;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    /**
+     * @param coordinates the vertices as x0, y0, x1, y1 and so on.
+     * @throws IllegalArgumentException If fewer than three vertices or a non finite coordinate are provided.
+     */
+    public Polygon(double... coordinates) {
+        if (coordinates.length < 6 || coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("A polygon requires at least three x,y vertices.");
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < coordinates.length; i += 2) {
+            if (!Double.isFinite(coordinates[i]) || !Double.isFinite(coordinates[i + 1])) {
+                throw new IllegalArgumentException("Polygon coordinates must be finite numbers.");
+            }
+            minX = Math.min(minX, coordinates[i]);
+            maxX = Math.max(maxX, coordinates[i]);
+            minY = Math.min(minY, coordinates[i + 1]);
+            maxY = Math.max(maxY, coordinates[i + 1]);
+        }
+        this.coordinates = coordinates.clone();
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+    
+    @JsonCreator
+    public static Polygon fromVertices(double[][] vertices) {
+        double[] coordinates = new double[vertices.length * 2];
+        for (int i = 0; i < vertices.length; i++) {
+            if (vertices[i].length != 2) {
+                throw new IllegalArgumentException("Each polygon vertex must be an [x, y] pair.");
+            }
+            coordinates[i * 2] = vertices[i][0];
+            coordinates[i * 2 + 1] = vertices[i][1];
+        }
+        return new Polygon(coordinates);
+    }
+    
+    @JsonValue
+    public double[][] toVertices() {
+        double[][] vertices = new double[vertexCount()][];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new double[] {coordinates[i * 2], coordinates[i * 2 + 1]};
+        }
+        return vertices;
+    }
+    
+    public static Polygon fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        double[] coordinates = new double[bytes.length / Double.BYTES];
+        buffer.asDoubleBuffer().get(coordinates);
+        return new Polygon(coordinates);
+    }
+    
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(coordinates.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(coordinates);
+        return buffer.array();
+    }
+    
+    public int vertexCount() {
+        return coordinates.length / 2;
+    }
+    
+    public double getX(int vertex) {
+        return coordinates[vertex * 2];
+    }
+    
+    public double getY(int vertex) {
+        return coordinates[vertex * 2 + 1];
+    }
+    
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+    
+    /**
+     * Even-odd test of whether the point lies inside the ring, points exactly on an edge may be reported either way.
+     */
+    public boolean contains(double x, double y) {
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        boolean inside = false;
+        int n = vertexCount();
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            double xi = coordinates[i * 2], yi = coordinates[i * 2 + 1];
+            double xj = coordinates[j * 2], yj = coordinates[j * 2 + 1];
+            if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Polygon polygon && Arrays.equals(coordinates, polygon.coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(coordinates);
+    }
+}
@@ -0,0 +1,18 @@
+package landclan.com.landparcel.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class PolygonConverter implements AttributeConverter<Polygon, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(Polygon polygon) {
+        return polygon == null ? null : polygon.toBytes();
+    }
+
+    @Override
+    public Polygon convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : Polygon.fromBytes(bytes);
+    }
+}
@@ -0,0 +1,11 @@
+package landclan.com.landparcel.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class LandParcelVersionMismatchException extends RuntimeException {
+    public LandParcelVersionMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,127 @@
+package landclan.com.landparcel.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.service.LandParcelChangeListener;
+import landclan.com.landparcel.service.LandParcelService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Base of the in-memory indexes over every Land Parcel. The index is loaded from the database once the application
+ * has started and then kept up to date with every committed change, changes are applied under the write lock and
+ * subclasses read under the read lock. The number of Land Parcels held is published as the landparcel.index.size gauge.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+public abstract class AbstractLandParcelIndex implements LandParcelChangeListener, MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(AbstractLandParcelIndex.class);
+    
+    @Autowired
+    LandParcelService landParcelService;
+    
+    protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Set while the initial load is running, objectIDs changed during the load are newer than the rows being loaded.
+     */
+    private LongIntHashMap changedWhileLoading;
+    private volatile boolean loaded;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading = new LongIntHashMap(1024);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        landParcelService.streamLandParcels(landParcel -> {
+            lock.writeLock().lock();
+            try {
+                if (!changedWhileLoading.containsKey(landParcel.getObjectID())) {
+                    upsert(landParcel);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+        
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        loadCompleted();
+        loaded = true;
+        log.info("Loaded {} land parcels into {} in {} ms", size(), getClass().getSimpleName(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
+    public abstract int size();
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("landparcel.index.size", this, AbstractLandParcelIndex::size)
+                .description("Number of Land Parcels held by the in-memory index")
+                .tag("index", getClass().getSimpleName())
+                .register(registry);
+    }
+
+    @Override
+    public void landParcelSaved(LandParcel landParcel) {
+        lock.writeLock().lock();
+        try {
+            markChanged(landParcel.getObjectID());
+            upsert(landParcel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void landParcelDeleted(long objectID) {
+        lock.writeLock().lock();
+        try {
+            markChanged(objectID);
+            remove(objectID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds or replaces the Land Parcel, called with the write lock held.
+     */
+    protected abstract void upsert(LandParcel landParcel);
+    
+    /**
+     * Removes the Land Parcel if present, called with the write lock held.
+     */
+    protected abstract void remove(long objectID);
+    
+    /**
+     * Called without the lock once every Land Parcel has been loaded, before the index reports itself as loaded.
+     */
+    protected void loadCompleted() {
+    }
+    
+    private void markChanged(long objectID) {
+        if (changedWhileLoading != null) {
+            changedWhileLoading.put(objectID, 0);
+        }
+    }
+}
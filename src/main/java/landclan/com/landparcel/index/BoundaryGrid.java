@@ -0,0 +1,120 @@
+package landclan.com.landparcel.index;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import landclan.com.landparcel.domain.Polygon;
+
+/**
+ * Mutable uniform grid of boundaries by objectID, holding the Land Parcels changed since the {@link StrRTree} was packed.
+ * <p>
+ * Each boundary is listed in every cell its bounding box covers, boundaries covering more than {@value #MAX_CELLS}
+ * cells are kept apart and checked on every search. A search visits only the cells the query covers, or every
+ * boundary when there are fewer boundaries than cells, and reports a boundary only from the cell holding the lower
+ * left corner of its overlap with the query so no boundary is reported twice.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+final class BoundaryGrid {
+
+    static final int MAX_CELLS = 64;
+
+    private final double cellSize;
+    private final Map<Long, Polygon> boundaries = new HashMap<>();
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+    private final Set<Long> wide = new HashSet<>();
+
+    /**
+     * @param cellSize the width and height of a cell, best a few times the size of a typical boundary.
+     */
+    BoundaryGrid(double cellSize) {
+        this.cellSize = cellSize > 0 && Double.isFinite(cellSize) ? cellSize : 1.0;
+    }
+
+    void put(long objectID, Polygon boundary) {
+        remove(objectID);
+        boundaries.put(objectID, boundary);
+        long fromX = cell(boundary.getMinX()), toX = cell(boundary.getMaxX());
+        long fromY = cell(boundary.getMinY()), toY = cell(boundary.getMaxY());
+        if (((double) toX - fromX + 1) * ((double) toY - fromY + 1) > MAX_CELLS) {
+            wide.add(objectID);
+            return;
+        }
+        for (long x = fromX; x <= toX; x++) {
+            for (long y = fromY; y <= toY; y++) {
+                cells.computeIfAbsent(key(x, y), key -> new HashSet<>()).add(objectID);
+            }
+        }
+    }
+
+    void remove(long objectID) {
+        Polygon boundary = boundaries.remove(objectID);
+        if (boundary == null || wide.remove(objectID)) {
+            return;
+        }
+        for (long x = cell(boundary.getMinX()); x <= cell(boundary.getMaxX()); x++) {
+            for (long y = cell(boundary.getMinY()); y <= cell(boundary.getMaxY()); y++) {
+                Long key = key(x, y);
+                Set<Long> objectIDs = cells.get(key);
+                if (objectIDs != null && objectIDs.remove(objectID) && objectIDs.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every boundary whose bounding box intersects the query box, in no particular order.
+     * @return False if the visitor stopped the search.
+     */
+    boolean search(double minX, double minY, double maxX, double maxY, StrRTree.Visitor visitor) {
+        long fromX = cell(minX), toX = cell(maxX);
+        long fromY = cell(minY), toY = cell(maxY);
+        double queryCells = ((double) toX - fromX + 1) * ((double) toY - fromY + 1);
+        if (queryCells >= boundaries.size()) {
+            for (Map.Entry<Long, Polygon> entry : boundaries.entrySet()) {
+                if (intersects(entry.getValue(), minX, minY, maxX, maxY) && !visitor.visit(entry.getKey(), entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        for (Long objectID : wide) {
+            Polygon boundary = boundaries.get(objectID);
+            if (intersects(boundary, minX, minY, maxX, maxY) && !visitor.visit(objectID, boundary)) {
+                return false;
+            }
+        }
+        for (long x = fromX; x <= toX; x++) {
+            for (long y = fromY; y <= toY; y++) {
+                Set<Long> objectIDs = cells.get(key(x, y));
+                if (objectIDs == null) {
+                    continue;
+                }
+                for (Long objectID : objectIDs) {
+                    Polygon boundary = boundaries.get(objectID);
+                    if (intersects(boundary, minX, minY, maxX, maxY)
+                            && cell(Math.max(boundary.getMinX(), minX)) == x && cell(Math.max(boundary.getMinY(), minY)) == y
+                            && !visitor.visit(objectID, boundary)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean intersects(Polygon boundary, double minX, double minY, double maxX, double maxY) {
+        return boundary.getMinX() <= maxX && boundary.getMaxX() >= minX && boundary.getMinY() <= maxY && boundary.getMaxY() >= minY;
+    }
+
+    private long cell(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static Long key(long x, long y) {
+        return (x << 32) ^ (y & 0xFFFFFFFFL);
+    }
+}
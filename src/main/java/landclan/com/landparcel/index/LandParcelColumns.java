@@ -0,0 +1,250 @@
+package landclan.com.landparcel.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelAggregate;
+import landclan.com.landparcel.domain.LandParcelAggregates;
+import landclan.com.landparcel.domain.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Column oriented in-memory copy of the fields of every Land Parcel used for aggregate queries.
+ * Each Land Parcel is one row across primitive arrays of areas and status ordinals and a bitset of constraints flags,
+ * rows are kept dense by moving the last row into the place of a deleted one.
+ * <p>
+ * The copy is loaded from the database once the application has started and then kept up to date with every
+ * committed change. Aggregates are computed by scanning the arrays in parallel chunks into reused accumulators,
+ * and the last result is kept until the next change so repeated queries do not scan at all.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelColumns extends AbstractLandParcelIndex {
+    
+    private static final Status[] STATUSES = Status.values();
+    private static final int GROUPS = STATUSES.length * 2;
+    
+    /**
+     * Areas are counted into histogram buckets by binary exponent and the top SUB_BUCKET_BITS bits of the mantissa,
+     * giving percentiles within 2% for areas between 2^MIN_EXPONENT and 2^MAX_EXPONENT.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = -10;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+    
+    /**
+     * Tables with fewer rows than this are scanned on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    
+    private final LongIntHashMap rows = new LongIntHashMap(1024);
+    private long[] objectIDs = new long[1024];
+    private double[] areas = new double[1024];
+    private byte[] statuses = new byte[1024];
+    private final BitSet constraints = new BitSet();
+    private int size;
+    private long modifications;
+    
+    private final Accumulator[] accumulators;
+    private LandParcelAggregates lastAggregates;
+    private long lastAggregatesModifications = -1;
+
+    public LandParcelColumns() {
+        int chunks = ForkJoinPool.getCommonPoolParallelism() + 1;
+        accumulators = new Accumulator[chunks];
+        for (int i = 0; i < chunks; i++) {
+            accumulators[i] = new Accumulator();
+        }
+    }
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * As every Land Parcel has a row, the number of rows is also published as the landparcel.count gauge of stored Land Parcels.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        super.bindTo(registry);
+        Gauge.builder("landparcel.count", this, LandParcelColumns::size)
+                .description("Number of Land Parcels stored")
+                .register(registry);
+    }
+
+    @Override
+    protected void remove(long objectID) {
+        int row = rows.remove(objectID, -1);
+        if (row < 0) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            objectIDs[row] = objectIDs[last];
+            areas[row] = areas[last];
+            statuses[row] = statuses[last];
+            constraints.set(row, constraints.get(last));
+            rows.put(objectIDs[row], row);
+        }
+        constraints.clear(last);
+        modifications++;
+    }
+    
+    /**
+     * @return The count, sum, average, minimum, maximum and percentiles of area for each combination of status and constraints flag.
+     */
+    public synchronized LandParcelAggregates aggregate() {
+        lock.readLock().lock();
+        try {
+            if (lastAggregatesModifications != modifications) {
+                lastAggregates = scan();
+                lastAggregatesModifications = modifications;
+            }
+            return lastAggregates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    protected void upsert(LandParcel landParcel) {
+        int row = rows.get(landParcel.getObjectID(), -1);
+        if (row < 0) {
+            row = size++;
+            if (row == objectIDs.length) {
+                int capacity = objectIDs.length * 2;
+                objectIDs = Arrays.copyOf(objectIDs, capacity);
+                areas = Arrays.copyOf(areas, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+            }
+            objectIDs[row] = landParcel.getObjectID();
+            rows.put(landParcel.getObjectID(), row);
+        }
+        areas[row] = landParcel.getArea();
+        statuses[row] = (byte) (landParcel.getStatus() == null ? 0 : landParcel.getStatus().ordinal());
+        constraints.set(row, landParcel.isConstraints());
+        modifications++;
+    }
+    
+    private LandParcelAggregates scan() {
+        int rowCount = size;
+        int chunks = rowCount < PARALLEL_THRESHOLD ? 1 : accumulators.length;
+        int chunkSize = (rowCount + chunks - 1) / Math.max(chunks, 1);
+        
+        IntStream range = IntStream.range(0, chunks);
+        (chunks > 1 ? range.parallel() : range).forEach(chunk -> {
+            Accumulator accumulator = accumulators[chunk];
+            accumulator.reset();
+            accumulator.scan(areas, statuses, constraints, chunk * chunkSize, Math.min(rowCount, (chunk + 1) * chunkSize));
+        });
+        
+        Accumulator total = accumulators[0];
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            total.add(accumulators[chunk]);
+        }
+        return total.toAggregates(rowCount);
+    }
+    
+    private static int bucket(double area) {
+        if (!(area >= Double.MIN_NORMAL)) {
+            return 0;
+        }
+        int exponent = Math.getExponent(area);
+        if (exponent < MIN_EXPONENT) {
+            return 0;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (Double.doubleToRawLongBits(area) >>> (52 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+    
+    private static double bucketMidpoint(int bucket) {
+        int exponent = bucket / SUB_BUCKETS + MIN_EXPONENT;
+        int subBucket = bucket % SUB_BUCKETS;
+        return Math.scalb(1.0 + (subBucket + 0.5) / SUB_BUCKETS, exponent);
+    }
+    
+    /**
+     * Totals of one chunk of rows, allocated once and reused for every scan.
+     */
+    private static final class Accumulator {
+        private final long[] counts = new long[GROUPS];
+        private final double[] sums = new double[GROUPS];
+        private final double[] mins = new double[GROUPS];
+        private final double[] maxs = new double[GROUPS];
+        private final long[] histogram = new long[GROUPS * BUCKETS];
+        
+        void reset() {
+            Arrays.fill(counts, 0);
+            Arrays.fill(sums, 0);
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+            Arrays.fill(histogram, 0);
+        }
+        
+        void scan(double[] areas, byte[] statuses, BitSet constraints, int from, int to) {
+            for (int row = from; row < to; row++) {
+                int group = statuses[row] * 2 + (constraints.get(row) ? 1 : 0);
+                double area = areas[row];
+                counts[group]++;
+                sums[group] += area;
+                mins[group] = Math.min(mins[group], area);
+                maxs[group] = Math.max(maxs[group], area);
+                histogram[group * BUCKETS + bucket(area)]++;
+            }
+        }
+        
+        void add(Accumulator other) {
+            for (int group = 0; group < GROUPS; group++) {
+                counts[group] += other.counts[group];
+                sums[group] += other.sums[group];
+                mins[group] = Math.min(mins[group], other.mins[group]);
+                maxs[group] = Math.max(maxs[group], other.maxs[group]);
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+        
+        LandParcelAggregates toAggregates(long totalCount) {
+            List<LandParcelAggregate> groups = new ArrayList<>(GROUPS);
+            for (int group = 0; group < GROUPS; group++) {
+                if (counts[group] > 0) {
+                    groups.add(new LandParcelAggregate(STATUSES[group / 2], group % 2 == 1, counts[group], sums[group],
+                            mins[group], maxs[group], percentile(group, 0.5), percentile(group, 0.9), percentile(group, 0.99)));
+                }
+            }
+            return new LandParcelAggregates(totalCount, groups);
+        }
+        
+        private double percentile(int group, double fraction) {
+            long rank = Math.max(1, (long) Math.ceil(fraction * counts[group]));
+            long seen = 0;
+            int offset = group * BUCKETS;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += histogram[offset + bucket];
+                if (seen >= rank) {
+                    return Math.min(maxs[group], Math.max(mins[group], bucketMidpoint(bucket)));
+                }
+            }
+            return maxs[group];
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package landclan.com.landparcel.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelNameMatch;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of the name of every Land Parcel for autocomplete, matching names case insensitively.
+ * <p>
+ * Names starting with the query are found in a sorted set of the lower case names. Other names are found through
+ * posting lists of the rows containing each trigram of a name, together with grams marking the first one and two
+ * characters of every word so that queries shorter than a trigram still match the start of a word. The shortest
+ * posting list of the query is scanned and each candidate is checked against its name.
+ * <p>
+ * Rows are only ever appended, a changed or deleted Land Parcel leaves a dead row behind which is skipped by searches,
+ * so every posting list holds each live row at most once. Rows and posting lists are rebuilt once the dead rows
+ * outnumber the live ones.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelNameIndex extends AbstractLandParcelIndex {
+    
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+    
+    /**
+     * Number of posting list candidates checked beyond the limit, so that better ranked matches found a little later
+     * in the list can still be returned without the search scanning every name containing the query.
+     * The scan also stops once limit names with a word starting with the query have been found.
+     */
+    private static final int EXTRA_CANDIDATES = 1024;
+    
+    private static final int MIN_COMPACT_ROWS = 1024;
+    private static final char WORD_START = '\u0000';
+    
+    private static final Comparator<NameKey> NAME_ORDER = Comparator.comparing((NameKey key) -> key.name).thenComparingLong(key -> key.objectID);
+    
+    private final LongIntHashMap rows = new LongIntHashMap(1024);
+    private long[] objectIDs = new long[1024];
+    private String[] names = new String[1024];
+    private String[] keys = new String[1024];
+    private int rowCount;
+    private int liveRows;
+    private final LongIntHashMap postingOfGram = new LongIntHashMap(1 << 16);
+    private IntList[] postings = new IntList[1 << 16];
+    private int postingCount;
+    private final NavigableSet<NameKey> sortedNames = new TreeSet<>(NAME_ORDER);
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Names starting with the query are ranked first in alphabetical order, followed by names with a word starting with
+     * the query and then names containing the query elsewhere, shorter names first.
+     * <p>
+     * Queries of one or two characters are only looked up in the word start grams, so names containing them in the
+     * middle of a word are not found. Only the first limit + {@value #EXTRA_CANDIDATES} candidates of the posting list
+     * are ranked, so for a query contained in more names than that the ranking after the names starting with the query
+     * is approximate and a shorter name further down the list may be missed.
+     * @return Up to limit Land Parcels whose name contains the query, ignoring case.
+     */
+    public List<LandParcelNameMatch> search(String query, int limit) {
+        String key = normalize(query);
+        List<LandParcelNameMatch> matches = new ArrayList<>(limit);
+        if (key.isEmpty() || limit < 1) {
+            return matches;
+        }
+        
+        lock.readLock().lock();
+        try {
+            for (NameKey nameKey : sortedNames.tailSet(new NameKey(key, Long.MIN_VALUE), true)) {
+                if (matches.size() == limit || !nameKey.name.startsWith(key)) {
+                    break;
+                }
+                int row = rows.get(nameKey.objectID, -1);
+                matches.add(new LandParcelNameMatch(nameKey.objectID, names[row]));
+            }
+            if (matches.size() < limit) {
+                searchPostings(key, limit - matches.size(), matches);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void searchPostings(String key, int limit, List<LandParcelNameMatch> matches) {
+        IntList posting = shortestPosting(key);
+        if (posting == null) {
+            return;
+        }
+        List<int[]> found = new ArrayList<>();
+        int budget = limit + EXTRA_CANDIDATES;
+        int wordStarts = 0;
+        for (int i = 0; i < posting.size && budget > 0 && wordStarts < limit; i++) {
+            int row = posting.values[i];
+            String name = keys[row];
+            if (name == null || name.startsWith(key)) {
+                continue;
+            }
+            budget--;
+            int rank = rank(name, key);
+            if (rank >= 0) {
+                found.add(new int[] {rank, name.length(), row});
+                wordStarts += rank == 0 ? 1 : 0;
+            }
+        }
+        found.sort(Comparator.<int[]>comparingInt(match -> match[0]).thenComparingInt(match -> match[1])
+                .thenComparingLong(match -> objectIDs[match[2]]));
+        for (int i = 0; i < Math.min(limit, found.size()); i++) {
+            int row = found.get(i)[2];
+            matches.add(new LandParcelNameMatch(objectIDs[row], names[row]));
+        }
+    }
+    
+    private IntList shortestPosting(String key) {
+        if (key.length() < 3) {
+            return posting(key.length() == 1 ? gram(WORD_START, WORD_START, key.charAt(0)) : gram(WORD_START, key.charAt(0), key.charAt(1)));
+        }
+        IntList shortest = null;
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            IntList posting = posting(gram(key.charAt(i), key.charAt(i + 1), key.charAt(i + 2)));
+            if (posting == null) {
+                return null;
+            }
+            if (shortest == null || posting.size < shortest.size) {
+                shortest = posting;
+            }
+        }
+        return shortest;
+    }
+
+    @Override
+    protected void upsert(LandParcel landParcel) {
+        remove(landParcel.getObjectID());
+        if (landParcel.getName() == null) {
+            return;
+        }
+        
+        if (rowCount == objectIDs.length) {
+            int capacity = objectIDs.length * 2;
+            objectIDs = Arrays.copyOf(objectIDs, capacity);
+            names = Arrays.copyOf(names, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        int row = rowCount++;
+        objectIDs[row] = landParcel.getObjectID();
+        names[row] = landParcel.getName();
+        keys[row] = normalize(landParcel.getName());
+        rows.put(landParcel.getObjectID(), row);
+        liveRows++;
+        sortedNames.add(new NameKey(keys[row], landParcel.getObjectID()));
+        addPostings(row);
+    }
+
+    @Override
+    protected void remove(long objectID) {
+        int row = rows.remove(objectID, -1);
+        if (row < 0) {
+            return;
+        }
+        sortedNames.remove(new NameKey(keys[row], objectID));
+        names[row] = null;
+        keys[row] = null;
+        liveRows--;
+        if (rowCount - liveRows > Math.max(MIN_COMPACT_ROWS, liveRows)) {
+            compact();
+        }
+    }
+    
+    /**
+     * Moves the live rows to the front and rebuilds every posting list from them, called with the write lock held.
+     */
+    private void compact() {
+        int live = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (keys[row] != null) {
+                objectIDs[live] = objectIDs[row];
+                names[live] = names[row];
+                keys[live] = keys[row];
+                rows.put(objectIDs[live], live);
+                live++;
+            }
+        }
+        Arrays.fill(names, live, rowCount, null);
+        Arrays.fill(keys, live, rowCount, null);
+        rowCount = live;
+        postingOfGram.clear();
+        Arrays.fill(postings, 0, postingCount, null);
+        postingCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            addPostings(row);
+        }
+    }
+    
+    private void addPostings(int row) {
+        String key = keys[row];
+        long last = -1;
+        long[] grams = new long[key.length() * 3];
+        int count = 0;
+        for (int i = 0; i < key.length(); i++) {
+            if (i + 3 <= key.length()) {
+                grams[count++] = gram(key.charAt(i), key.charAt(i + 1), key.charAt(i + 2));
+            }
+            if (isWordStart(key, i)) {
+                grams[count++] = gram(WORD_START, WORD_START, key.charAt(i));
+                if (i + 1 < key.length() && Character.isLetterOrDigit(key.charAt(i + 1))) {
+                    grams[count++] = gram(WORD_START, key.charAt(i), key.charAt(i + 1));
+                }
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        for (int i = 0; i < count; i++) {
+            if (grams[i] != last) {
+                int posting = postingOfGram.get(grams[i], -1);
+                if (posting < 0) {
+                    if (postingCount == postings.length) {
+                        postings = Arrays.copyOf(postings, postingCount * 2);
+                    }
+                    posting = postingCount++;
+                    postings[posting] = new IntList();
+                    postingOfGram.put(grams[i], posting);
+                }
+                postings[posting].add(row);
+                last = grams[i];
+            }
+        }
+    }
+    
+    /**
+     * @return 0 if a word of the name starts with the key, 1 if the name only contains it elsewhere and -1 if not at all.
+     */
+    private static int rank(String name, String key) {
+        int rank = -1;
+        for (int position = name.indexOf(key); position >= 0; position = name.indexOf(key, position + 1)) {
+            if (isWordStart(name, position)) {
+                return 0;
+            }
+            rank = 1;
+        }
+        return rank;
+    }
+    
+    private IntList posting(long gram) {
+        int posting = postingOfGram.get(gram, -1);
+        return posting < 0 ? null : postings[posting];
+    }
+    
+    private static boolean isWordStart(String name, int position) {
+        return Character.isLetterOrDigit(name.charAt(position)) && (position == 0 || !Character.isLetterOrDigit(name.charAt(position - 1)));
+    }
+    
+    private static long gram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+    
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class NameKey {
+        private final String name;
+        private final long objectID;
+
+        NameKey(String name, long objectID) {
+            this.name = name;
+            this.objectID = objectID;
+        }
+    }
+    
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
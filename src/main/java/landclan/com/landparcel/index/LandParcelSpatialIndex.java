@@ -0,0 +1,202 @@
+package landclan.com.landparcel.index;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Polygon;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory spatial index of the boundary of every Land Parcel that has one, answering which Land Parcels intersect
+ * a bounding box and which contain a point.
+ * <p>
+ * Boundaries are searched in an {@link StrRTree} bulk loaded from a snapshot, which is not modified afterwards.
+ * Land Parcels changed since the snapshot are kept in an overlay: their entries in the tree are skipped and
+ * their current boundaries are searched in a {@link BoundaryGrid} whose cells are a few times the size of an average
+ * boundary, so a search costs the same whether the overlay holds ten or a hundred thousand Land Parcels. Once the
+ * overlay outgrows REBUILD_FRACTION of the tree a new snapshot is packed in the background, changes made while it is
+ * packed form the overlay of the new tree.
+ * <p>
+ * Matches are counted up to {@value #MAX_COUNT}, the search stops there so a bounding box covering most Land Parcels
+ * costs no more than one covering {@value #MAX_COUNT}.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelSpatialIndex extends AbstractLandParcelIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(LandParcelSpatialIndex.class);
+    
+    private static final int MIN_REBUILD_CHANGES = 1024;
+    private static final int REBUILD_FRACTION = 8;
+    private static final int CELL_SIZE_FACTOR = 4;
+    
+    public static final int MAX_COUNT = 10_000;
+    
+    private final Map<Long, Polygon> boundaries = new HashMap<>();
+    private StrRTree tree;
+    private Set<Long> changed = new HashSet<>();
+    private BoundaryGrid changedBoundaries = new BoundaryGrid(1.0);
+    private Set<Long> changedDuringRebuild;
+    private boolean rebuildScheduled;
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return boundaries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * @param objectIDs receives the objectIDs of the first limit Land Parcels found, in no particular order.
+     * @return The number of Land Parcels whose boundary intersects the bounding box, at most {@value #MAX_COUNT}.
+     */
+    public int intersecting(double minX, double minY, double maxX, double maxY, int limit, Collection<Long> objectIDs) {
+        return search(minX, minY, maxX, maxY, limit, objectIDs, null);
+    }
+    
+    /**
+     * @param objectIDs receives the objectIDs of the first limit Land Parcels found, in no particular order.
+     * @return The number of Land Parcels whose boundary contains the point, at most {@value #MAX_COUNT}.
+     */
+    public int containing(double x, double y, int limit, Collection<Long> objectIDs) {
+        return search(x, y, x, y, limit, objectIDs, boundary -> boundary.contains(x, y));
+    }
+    
+    private int search(double minX, double minY, double maxX, double maxY, int limit, Collection<Long> objectIDs,
+            Predicate<Polygon> filter) {
+        lock.readLock().lock();
+        try {
+            int[] count = new int[1];
+            StrRTree.Visitor visitor = (objectID, boundary) -> {
+                if (filter == null || filter.test(boundary)) {
+                    if (count[0]++ < limit) {
+                        objectIDs.add(objectID);
+                    }
+                }
+                return count[0] < MAX_COUNT;
+            };
+            if (tree == null || tree.search(minX, minY, maxX, maxY, (objectID, boundary) -> changed.contains(objectID) || visitor.visit(objectID, boundary))) {
+                changedBoundaries.search(minX, minY, maxX, maxY, visitor);
+            }
+            return count[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void upsert(LandParcel landParcel) {
+        if (landParcel.getBoundary() == null) {
+            remove(landParcel.getObjectID());
+            return;
+        }
+        boundaries.put(landParcel.getObjectID(), landParcel.getBoundary());
+        if (tree != null) {
+            changedBoundaries.put(landParcel.getObjectID(), landParcel.getBoundary());
+        }
+        markChanged(landParcel.getObjectID());
+    }
+
+    @Override
+    protected void remove(long objectID) {
+        if (boundaries.remove(objectID) != null) {
+            changedBoundaries.remove(objectID);
+            markChanged(objectID);
+        }
+    }
+    
+    @Override
+    protected void loadCompleted() {
+        rebuild();
+    }
+    
+    /**
+     * Called with the write lock held. Until the first tree is packed every boundary is only in the map.
+     */
+    private void markChanged(long objectID) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(objectID);
+        }
+        if (tree == null) {
+            return;
+        }
+        changed.add(objectID);
+        if (!rebuildScheduled && changed.size() > Math.max(MIN_REBUILD_CHANGES, tree.size() / REBUILD_FRACTION)) {
+            rebuildScheduled = true;
+            CompletableFuture.runAsync(this::rebuild).whenComplete((result, failure) -> {
+                if (failure != null) {
+                    log.error("Rebuilding the spatial index failed, it is rebuilt again after the next change", failure);
+                }
+            });
+        }
+    }
+    
+    void rebuild() {
+        long start = System.nanoTime();
+        long[] objectIDs;
+        Polygon[] snapshot;
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+            objectIDs = new long[boundaries.size()];
+            snapshot = new Polygon[boundaries.size()];
+            int i = 0;
+            for (Map.Entry<Long, Polygon> entry : boundaries.entrySet()) {
+                objectIDs[i] = entry.getKey();
+                snapshot[i++] = entry.getValue();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        StrRTree packed;
+        BoundaryGrid grid;
+        try {
+            packed = new StrRTree(objectIDs, snapshot, objectIDs.length);
+            double extent = 0;
+            for (Polygon boundary : snapshot) {
+                extent += Math.max(boundary.getMaxX() - boundary.getMinX(), boundary.getMaxY() - boundary.getMinY());
+            }
+            grid = new BoundaryGrid(snapshot.length == 0 ? 1.0 : CELL_SIZE_FACTOR * extent / snapshot.length);
+        } catch (RuntimeException | Error e) {
+            // the previous tree and overlay stay in use, changed still holds every change since the previous tree
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+                rebuildScheduled = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            for (Long objectID : changedDuringRebuild) {
+                Polygon boundary = boundaries.get(objectID);
+                if (boundary != null) {
+                    grid.put(objectID, boundary);
+                }
+            }
+            tree = packed;
+            changedBoundaries = grid;
+            changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+            rebuildScheduled = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Packed {} land parcel boundaries into the spatial index in {} ms", packed.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
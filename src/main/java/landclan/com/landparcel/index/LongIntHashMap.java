@@ -0,0 +1,134 @@
+package landclan.com.landparcel.index;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long keys to int values which stores both in primitive arrays, so that lookups and
+ * updates do not box or allocate. Not thread safe, callers provide their own locking.
+ * The key {@link Long#MIN_VALUE} is reserved to mark free slots.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+public class LongIntHashMap {
+    
+    private static final long FREE = Long.MIN_VALUE;
+    
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @return The value of the key, or missingValue if the key is not present.
+     */
+    public int get(long key, int missingValue) {
+        int slot = find(key);
+        return keys[slot] == FREE ? missingValue : values[slot];
+    }
+    
+    public boolean containsKey(long key) {
+        return keys[find(key)] != FREE;
+    }
+    
+    public void put(long key, int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Key " + key + " is reserved.");
+        }
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+    }
+    
+    /**
+     * @return The value which was removed, or missingValue if the key was not present.
+     */
+    public int remove(long key, int missingValue) {
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            return missingValue;
+        }
+        int value = values[slot];
+        keys[slot] = FREE;
+        size--;
+        
+        // shift back any following entries of the probe sequence so lookups do not stop early at the freed slot
+        int free = slot;
+        for (int next = (free + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = hash(keys[next]);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                keys[next] = FREE;
+                free = next;
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * @return A new array of the values of every key, in no particular order.
+     */
+    public int[] values() {
+        int[] result = new int[size];
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                result[i++] = values[slot];
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+    
+    private int find(long key) {
+        int slot = hash(key);
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+    
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
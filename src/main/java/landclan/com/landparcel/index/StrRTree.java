@@ -0,0 +1,191 @@
+package landclan.com.landparcel.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import landclan.com.landparcel.domain.Polygon;
+
+/**
+ * Immutable R-tree bulk loaded with the Sort-Tile-Recursive algorithm: entries are sorted into vertical slices by the
+ * centre x of their bounding boxes, each slice is sorted by centre y and runs of NODE_CAPACITY entries become the
+ * leaf nodes, and the same packing is repeated on the nodes until a single root remains.
+ * <p>
+ * Every level is held in flat arrays of bounding boxes and child ranges, searches descend from the root with an
+ * explicit stack and visit only the nodes whose bounding box intersects the query.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+final class StrRTree {
+    
+    static final int NODE_CAPACITY = 16;
+    
+    /**
+     * Receives each entry whose bounding box intersects the query, returning false stops the search.
+     */
+    interface Visitor {
+        boolean visit(long objectID, Polygon boundary);
+    }
+    
+    private final int size;
+    private final long[] objectIDs;
+    private final Polygon[] boundaries;
+    private final double[] boxes;
+    
+    /**
+     * Level 0 holds the leaf nodes whose children are entries, the last level holds the root.
+     * Boxes are stored as minX, minY, maxX, maxY and the children of node i are [childFrom[i], childTo[i]) of the level below.
+     */
+    private final double[][] nodeBoxes;
+    private final int[][] childFrom;
+    private final int[][] childTo;
+
+    StrRTree(long[] objectIDs, Polygon[] boundaries, int size) {
+        this.size = size;
+        double[] entryBoxes = new double[size * 4];
+        for (int i = 0; i < size; i++) {
+            Polygon boundary = boundaries[i];
+            entryBoxes[i * 4] = boundary.getMinX();
+            entryBoxes[i * 4 + 1] = boundary.getMinY();
+            entryBoxes[i * 4 + 2] = boundary.getMaxX();
+            entryBoxes[i * 4 + 3] = boundary.getMaxY();
+        }
+        int[] order = strOrder(entryBoxes, size);
+        this.objectIDs = new long[size];
+        this.boundaries = new Polygon[size];
+        this.boxes = new double[size * 4];
+        for (int i = 0; i < size; i++) {
+            this.objectIDs[i] = objectIDs[order[i]];
+            this.boundaries[i] = boundaries[order[i]];
+            System.arraycopy(entryBoxes, order[i] * 4, this.boxes, i * 4, 4);
+        }
+        
+        List<double[]> levelBoxes = new ArrayList<>();
+        List<int[]> levelFrom = new ArrayList<>();
+        List<int[]> levelTo = new ArrayList<>();
+        if (size > 0) {
+            double[] belowBoxes = this.boxes;
+            int belowCount = size;
+            while (true) {
+                int count = (belowCount + NODE_CAPACITY - 1) / NODE_CAPACITY;
+                double[] nodes = new double[count * 4];
+                int[] from = new int[count];
+                int[] to = new int[count];
+                for (int node = 0; node < count; node++) {
+                    from[node] = node * NODE_CAPACITY;
+                    to[node] = Math.min(belowCount, from[node] + NODE_CAPACITY);
+                    union(belowBoxes, from[node], to[node], nodes, node);
+                }
+                if (count > 1) {
+                    int[] nodeOrder = strOrder(nodes, count);
+                    double[] sortedNodes = new double[count * 4];
+                    int[] sortedFrom = new int[count];
+                    int[] sortedTo = new int[count];
+                    for (int i = 0; i < count; i++) {
+                        System.arraycopy(nodes, nodeOrder[i] * 4, sortedNodes, i * 4, 4);
+                        sortedFrom[i] = from[nodeOrder[i]];
+                        sortedTo[i] = to[nodeOrder[i]];
+                    }
+                    nodes = sortedNodes;
+                    from = sortedFrom;
+                    to = sortedTo;
+                }
+                levelBoxes.add(nodes);
+                levelFrom.add(from);
+                levelTo.add(to);
+                if (count == 1) {
+                    break;
+                }
+                belowBoxes = nodes;
+                belowCount = count;
+            }
+        }
+        this.nodeBoxes = levelBoxes.toArray(double[][]::new);
+        this.childFrom = levelFrom.toArray(int[][]::new);
+        this.childTo = levelTo.toArray(int[][]::new);
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Visits every entry whose bounding box intersects the query box, in no particular order.
+     * @return False if the visitor stopped the search.
+     */
+    boolean search(double minX, double minY, double maxX, double maxY, Visitor visitor) {
+        if (size == 0) {
+            return true;
+        }
+        int depth = nodeBoxes.length;
+        int[] stackLevel = new int[depth * NODE_CAPACITY + 1];
+        int[] stackNode = new int[depth * NODE_CAPACITY + 1];
+        int top = 0;
+        stackLevel[top] = depth - 1;
+        stackNode[top++] = 0;
+        while (top > 0) {
+            int level = stackLevel[--top];
+            int node = stackNode[top];
+            if (!intersects(nodeBoxes[level], node, minX, minY, maxX, maxY)) {
+                continue;
+            }
+            int from = childFrom[level][node];
+            int to = childTo[level][node];
+            if (level == 0) {
+                for (int entry = from; entry < to; entry++) {
+                    if (intersects(boxes, entry, minX, minY, maxX, maxY) && !visitor.visit(objectIDs[entry], boundaries[entry])) {
+                        return false;
+                    }
+                }
+            } else {
+                for (int child = from; child < to; child++) {
+                    stackLevel[top] = level - 1;
+                    stackNode[top++] = child;
+                }
+            }
+        }
+        return true;
+    }
+    
+    static boolean intersects(double[] boxes, int index, double minX, double minY, double maxX, double maxY) {
+        int offset = index * 4;
+        return boxes[offset] <= maxX && boxes[offset + 2] >= minX && boxes[offset + 1] <= maxY && boxes[offset + 3] >= minY;
+    }
+    
+    private static void union(double[] boxes, int from, int to, double[] target, int index) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            minX = Math.min(minX, boxes[i * 4]);
+            minY = Math.min(minY, boxes[i * 4 + 1]);
+            maxX = Math.max(maxX, boxes[i * 4 + 2]);
+            maxY = Math.max(maxY, boxes[i * 4 + 3]);
+        }
+        target[index * 4] = minX;
+        target[index * 4 + 1] = minY;
+        target[index * 4 + 2] = maxX;
+        target[index * 4 + 3] = maxY;
+    }
+    
+    /**
+     * @return The order in which the boxes are packed: sorted by centre x into ceil(sqrt(nodes)) slices, each slice sorted by centre y.
+     */
+    private static int[] strOrder(double[] boxes, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> boxes[i * 4] + boxes[i * 4 + 2]));
+        int nodes = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceSize = (int) Math.ceil(Math.sqrt(nodes)) * NODE_CAPACITY;
+        Comparator<Integer> byCentreY = Comparator.comparingDouble(i -> boxes[i * 4 + 1] + boxes[i * 4 + 3]);
+        for (int from = 0; from < count; from += sliceSize) {
+            Arrays.sort(order, from, Math.min(count, from + sliceSize), byCentreY);
+        }
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package landclan.com.landparcel.repo;
+
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out the change sequence written with every Land Parcel insert, update and tombstone, continuing from the highest
+ * change sequence stored when first used.
+ * <p>
+ * Transactions commit in a different order to the one they were given their change sequences in, so a client which read
+ * up to the highest change sequence visible could miss a lower one committed after it read. The lowest change sequence
+ * of every open transaction is therefore held until the transaction completes and {@link #getCommitted()} only reaches
+ * up to below the lowest of them.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelChangeSequence {
+    
+    /**
+     * Resolved on first use as this is created along with the entity manager factory, before data.sql has been run.
+     */
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    /**
+     * The first change sequence given to each transaction still open, and the last change sequence handed out or -1 until
+     * it has been read from the database, both guarded by the lock.
+     */
+    private final TreeSet<Long> open = new TreeSet<>();
+    private long last = -1;
+
+    public LandParcelChangeSequence(ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * @return The change sequence for the change about to be written, greater than every change sequence handed out before.
+     */
+    public long next() {
+        lock.lock();
+        try {
+            long changeSeq = last() + 1;
+            last = changeSeq;
+            if (TransactionSynchronizationManager.isSynchronizationActive() && !TransactionSynchronizationManager.hasResource(this)) {
+                open.add(changeSeq);
+                TransactionSynchronizationManager.bindResource(this, changeSeq);
+                TransactionSynchronizationManager.registerSynchronization(new OpenTransaction(changeSeq));
+            }
+            return changeSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return The highest change sequence at or below which every change has either been committed or rolled back,
+     * changes up to it which are not yet visible never will be.
+     */
+    public long getCommitted() {
+        lock.lock();
+        try {
+            return open.isEmpty() ? last() : open.first() - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Reads the last change sequence from the database again on next use, after its rows were replaced other than
+     * through the repositories.
+     */
+    public void reset() {
+        lock.lock();
+        try {
+            last = -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long last() {
+        if (last < 0) {
+            last = jdbcTemplate.getObject().queryForObject("select greatest((select coalesce(max(changeSeq), 0) from landParcel), "
+                    + "(select coalesce(max(changeSeq), 0) from landParcelTombstone))", Long.class);
+        }
+        return last;
+    }
+    
+    private class OpenTransaction implements TransactionSynchronization {
+        private final long changeSeq;
+
+        OpenTransaction(long changeSeq) {
+            this.changeSeq = changeSeq;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LandParcelChangeSequence.this);
+            lock.lock();
+            try {
+                open.remove(changeSeq);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
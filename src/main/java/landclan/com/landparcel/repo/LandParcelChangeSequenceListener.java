@@ -0,0 +1,27 @@
+package landclan.com.landparcel.repo;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelTombstone;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Gives every Land Parcel and tombstone a new change sequence as it is inserted or updated, so every write made through
+ * the repositories or the entity manager is picked up. Created by Hibernate through the Spring bean container.
+ */
+public class LandParcelChangeSequenceListener {
+    
+    @Autowired
+    LandParcelChangeSequence changeSequence;
+    
+    @PrePersist
+    @PreUpdate
+    void assignChangeSeq(Object entity) {
+        if (entity instanceof LandParcel landParcel) {
+            landParcel.setChangeSeq(changeSequence.next());
+        } else if (entity instanceof LandParcelTombstone tombstone) {
+            tombstone.setChangeSeq(changeSequence.next());
+        }
+    }
+}
@@ -1,8 +1,75 @@
 package landclan.com.landparcel.repo;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelView;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface LandParcelRepository extends JpaRepository<LandParcel, Long> {
+public interface LandParcelRepository extends JpaRepository<LandParcel, Long>, JpaSpecificationExecutor<LandParcel> {
+    int STREAM_FETCH_SIZE = 500;
     
+    String SELECT_VIEW = "select new landclan.com.landparcel.domain.LandParcelView(l.objectID, l.name, l.status, l.area, "
+            + "l.constraints, l.boundary, l.minX, l.minY, l.maxX, l.maxY, l.version, l.changeSeq) from LandParcel l";
+    
+    /**
+     * Keyset page of Land Parcels, reading forward from the objectID cursor using the primary key index.
+     * @param objectID the last objectID already seen by the client, use 0 for the first page.
+     * @param limit the maximum number of Land Parcels to be returned.
+     * @return Land Parcels with an objectID greater than the cursor in ascending objectID order.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " where l.objectID > :objectID order by l.objectID")
+    List<LandParcelView> findViewsAfter(@Param("objectID") long objectID, Limit limit);
+    
+    /**
+     * @param objectID the objectID of the Land Parcel to be found.
+     * @return The Land Parcel read without loading it into the persistence context.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " where l.objectID = :objectID")
+    Optional<LandParcelView> findViewById(@Param("objectID") long objectID);
+    
+    /**
+     * @param objectIDs the objectIDs of the Land Parcels to be found.
+     * @return The Land Parcels found in ascending objectID order, read without loading them into the persistence context.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " where l.objectID in :objectIDs order by l.objectID")
+    List<LandParcelView> findViewsById(@Param("objectIDs") Collection<Long> objectIDs);
+    
+    /**
+     * Land Parcels created or updated within a range of the change sequence, read by a range scan of idx_landParcel_changeSeq
+     * which stops after limit rows so the cost depends on the number of changes returned and not on the number of Land Parcels.
+     * @param since the change sequence already seen by the client.
+     * @param upTo the highest change sequence to be returned.
+     * @param limit the maximum number of Land Parcels to be returned.
+     * @return Land Parcels last changed after since and up to upTo in ascending change sequence order.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " where l.changeSeq > :since and l.changeSeq <= :upTo order by l.changeSeq")
+    List<LandParcelView> findViewsChangedBetween(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
+    
+    /**
+     * Streams every Land Parcel in objectID order from a forward only cursor, rows are fetched from the database
+     * {@value #STREAM_FETCH_SIZE} at a time and loaded read only so no dirty checking snapshot is kept.
+     * Must be called inside a transaction and the stream must be closed once consumed.
+     * @return A stream of all Land Parcels.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<LandParcel> streamAllByOrderByObjectIDAsc();
 }
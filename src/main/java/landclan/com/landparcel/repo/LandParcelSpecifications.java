@@ -0,0 +1,38 @@
+package landclan.com.landparcel.repo;
+
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelSearchCriteria;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Translates search criteria into a single where clause over the landParcel table.
+ * Area ranges and sorting by area are served by the index idx_landParcel_area created in data.sql, the other filters
+ * are applied to the rows read from it. A composite index on (status, area) is deliberately not used as H2 reads
+ * every row of each status in an IN list from it before applying the area range.
+ */
+public final class LandParcelSpecifications {
+    
+    private LandParcelSpecifications() {}
+    
+    public static Specification<LandParcel> matching(LandParcelSearchCriteria criteria) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getStatuses() != null && !criteria.getStatuses().isEmpty()) {
+                predicates.add(root.get("status").in(criteria.getStatuses()));
+            }
+            if (criteria.getMinArea() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("area"), criteria.getMinArea()));
+            }
+            if (criteria.getMaxArea() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("area"), criteria.getMaxArea()));
+            }
+            if (criteria.getConstraints() != null) {
+                predicates.add(builder.equal(root.get("constraints"), criteria.getConstraints()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,301 @@
+package landclan.com.landparcel.repo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Optional persistent copy of every Land Parcel in a {@link MappedLandParcelStore}, enabled with landparcel.store.enabled.
+ * <p>
+ * The database remains the one queried for searches, pages and deltas and the one written in transactions. Every
+ * committed change is appended to the store and at startup, before the application accepts requests, the Land
+ * Parcels and tombstones of the store replace the rows of the database, so an in-memory database keeps its data
+ * across restarts. A store which is empty is filled from the database instead. Land Parcels read by objectID come
+ * from the store rather than the database.
+ * <p>
+ * The store is not written in the transaction of a change but after it has been committed, so it is not as durable
+ * as the answer to the request suggests. A change committed just before the application stops may never reach the
+ * store and is lost with the in-memory database at the next startup. Without landparcel.store.fsync the changes
+ * appended survive the application stopping but not the machine failing before the operating system writes them to
+ * disk. A change which could not be written is logged and counted by landparcel.store.failed-writes and from then on
+ * Land Parcels read by objectID come from the database, as the store no longer holds every change. Such a change is
+ * lost at the next startup.
+ * <p>
+ * The store is compacted once replaced records take more than landparcel.store.compaction-ratio of it, checked every
+ * landparcel.store.compaction-interval. The number of Land Parcels, the size of the log and of its replaced records
+ * and the number of compactions are published as landparcel.store.* metrics.
+ * <p>
+ * Never initialized lazily, the database has to be restored before the first request.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+@Lazy(false)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LandParcelStore implements LandParcelChangeListener, SmartInitializingSingleton, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(LandParcelStore.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LandParcelChangeSequence changeSequence;
+    private final boolean enabled;
+    private final Path directory;
+    private final DataSize segmentSize;
+    private final boolean fsync;
+    private final double compactionRatio;
+    private final Duration compactionInterval;
+    private final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("landparcel-store-compaction").daemon().factory());
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+
+    /**
+     * Opened once every bean has been created, null while the store is disabled.
+     */
+    private volatile MappedLandParcelStore store;
+
+    public LandParcelStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, LandParcelChangeSequence changeSequence,
+            @Value("${landparcel.store.enabled:false}") boolean enabled,
+            @Value("${landparcel.store.directory:${java.io.tmpdir}/landparcel-store}") Path directory,
+            @Value("${landparcel.store.segment-size:64MB}") DataSize segmentSize,
+            @Value("${landparcel.store.fsync:false}") boolean fsync,
+            @Value("${landparcel.store.compaction-ratio:0.5}") double compactionRatio,
+            @Value("${landparcel.store.compaction-interval:1m}") Duration compactionInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeSequence = changeSequence;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.compactionRatio = compactionRatio;
+        this.compactionInterval = compactionInterval;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Whether Land Parcels can be read from the store, false while it is disabled and once a committed change
+     * could not be written to it.
+     */
+    public boolean isReadable() {
+        return store != null && failedWrites.get() == 0;
+    }
+
+    /**
+     * Opens the store and restores the database from it, or fills it from the database when it is empty.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            store = new MappedLandParcelStore(directory, Math.toIntExact(segmentSize.toBytes()), fsync);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the land parcel store in " + directory, e);
+        }
+        if (store.isEmpty()) {
+            fillStore();
+            log.info("Filled land parcel store {} with {} land parcels from the database in {} ms", directory, store.size(), (System.nanoTime() - start) / 1_000_000);
+        } else {
+            restoreDatabase();
+            log.info("Restored {} land parcels from land parcel store {} in {} ms", store.size(), directory, (System.nanoTime() - start) / 1_000_000);
+        }
+        long interval = compactionInterval.toNanos();
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    private void fillStore() {
+        jdbcTemplate.query("select objectID, name, status, area, constraints, boundary, version, changeSeq from landParcel", row -> {
+            byte[] bytes = row.getBytes("boundary");
+            Polygon boundary = bytes == null ? null : Polygon.fromBytes(bytes);
+            store.put(new LandParcelView(row.getLong("objectID"), row.getString("name"), Status.valueOf(row.getString("status")),
+                    row.getDouble("area"), row.getBoolean("constraints"), boundary,
+                    boundary == null ? null : boundary.getMinX(), boundary == null ? null : boundary.getMinY(),
+                    boundary == null ? null : boundary.getMaxX(), boundary == null ? null : boundary.getMaxY(),
+                    row.getLong("version"), row.getLong("changeSeq")));
+        });
+        jdbcTemplate.query("select objectID, changeSeq from landParcelTombstone", row -> {
+            store.delete(row.getLong("objectID"), row.getLong("changeSeq"));
+        });
+    }
+
+    /**
+     * Replaces the rows of the database with the store in one transaction, then moves the objectID sequence and the
+     * change sequence past the highest values restored.
+     */
+    private void restoreDatabase() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from landParcelTombstone");
+            jdbcTemplate.update("delete from landParcel");
+            List<Object[]> landParcels = new ArrayList<>(BATCH_SIZE);
+            List<Object[]> tombstones = new ArrayList<>(BATCH_SIZE);
+            store.forEach(new MappedLandParcelStore.Visitor() {
+                @Override
+                public void landParcel(LandParcelView landParcel) {
+                    Polygon boundary = landParcel.boundary();
+                    landParcels.add(new Object[] {landParcel.objectID(), landParcel.name(), landParcel.status().name(), landParcel.area(),
+                            landParcel.constraints(), boundary == null ? null : boundary.toBytes(), landParcel.minX(), landParcel.minY(),
+                            landParcel.maxX(), landParcel.maxY(), landParcel.version(), landParcel.changeSeq()});
+                    if (landParcels.size() == BATCH_SIZE) {
+                        insertLandParcels(landParcels);
+                    }
+                }
+
+                @Override
+                public void tombstone(long objectID, long changeSeq) {
+                    tombstones.add(new Object[] {objectID, changeSeq});
+                    if (tombstones.size() == BATCH_SIZE) {
+                        insertTombstones(tombstones);
+                    }
+                }
+            });
+            insertLandParcels(landParcels);
+            insertTombstones(tombstones);
+            long maxObjectID = jdbcTemplate.queryForObject("select greatest((select coalesce(max(objectID), 0) from landParcel), "
+                    + "(select coalesce(max(objectID), 0) from landParcelTombstone))", Long.class);
+            jdbcTemplate.execute("alter sequence landParcel_seq restart with " + (maxObjectID + 1));
+        });
+        changeSequence.reset();
+    }
+
+    private void insertLandParcels(List<Object[]> landParcels) {
+        jdbcTemplate.batchUpdate("insert into landParcel (objectID, name, status, area, constraints, boundary, minX, minY, maxX, maxY, version, changeSeq) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", landParcels);
+        landParcels.clear();
+    }
+
+    private void insertTombstones(List<Object[]> tombstones) {
+        jdbcTemplate.batchUpdate("insert into landParcelTombstone (objectID, changeSeq) values (?, ?)", tombstones);
+        tombstones.clear();
+    }
+
+    /**
+     * @return The Land Parcel as last committed, empty if it does not exist.
+     * @throws IllegalStateException If the store is disabled.
+     */
+    public Optional<LandParcelView> get(long objectID) {
+        MappedLandParcelStore store = this.store;
+        if (store == null) {
+            throw new IllegalStateException("The land parcel store is not enabled.");
+        }
+        return store.get(objectID);
+    }
+
+    @Override
+    public void landParcelSaved(LandParcel landParcel) {
+        MappedLandParcelStore store = this.store;
+        if (store != null) {
+            try {
+                store.put(LandParcelView.of(landParcel));
+            } catch (RuntimeException e) {
+                failedWrites.incrementAndGet();
+                log.error("Land parcel {} was committed but could not be written to the land parcel store, land parcels are read from the database until restarted", landParcel.getObjectID(), e);
+            }
+        }
+    }
+
+    @Override
+    public void landParcelDeleted(long objectID) {
+        // written with the change sequence of its tombstone
+    }
+
+    @Override
+    public void landParcelDeleted(long objectID, long changeSeq) {
+        MappedLandParcelStore store = this.store;
+        if (store != null) {
+            try {
+                store.delete(objectID, changeSeq);
+            } catch (RuntimeException e) {
+                failedWrites.incrementAndGet();
+                log.error("Deletion of land parcel {} was committed but could not be written to the land parcel store, land parcels are read from the database until restarted", objectID, e);
+            }
+        }
+    }
+
+    void compactIfNeeded() {
+        MappedLandParcelStore store = this.store;
+        try {
+            long logBytes = store.getLogBytes();
+            if (logBytes >= store.getSegmentSize() && store.getDeadBytes() > logBytes * compactionRatio) {
+                store.compact();
+                compactions.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Compaction of land parcel store {} failed", directory, e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("landparcel.store.size", this, s -> s.store == null ? 0 : s.store.size())
+                .description("Number of Land Parcels held by the land parcel store")
+                .register(registry);
+        Gauge.builder("landparcel.store.bytes", this, s -> s.store == null ? 0 : s.store.getLogBytes())
+                .description("Bytes taken by the records of the land parcel store")
+                .tag("records", "all")
+                .register(registry);
+        Gauge.builder("landparcel.store.bytes", this, s -> s.store == null ? 0 : s.store.getDeadBytes())
+                .description("Bytes taken by the records of the land parcel store")
+                .tag("records", "replaced")
+                .register(registry);
+        FunctionCounter.builder("landparcel.store.compactions", compactions, AtomicLong::get)
+                .description("Number of compactions of the land parcel store")
+                .register(registry);
+        FunctionCounter.builder("landparcel.store.failed-writes", failedWrites, AtomicLong::get)
+                .description("Number of committed changes which could not be written to the land parcel store")
+                .register(registry);
+    }
+
+    /**
+     * Stops compaction and forces the store to disk. Changes committed later, such as queued updates written at
+     * shutdown, are still appended.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        compactor.shutdown();
+        compactor.awaitTermination(1, TimeUnit.MINUTES);
+        MappedLandParcelStore store = this.store;
+        if (store != null) {
+            store.force();
+        }
+    }
+}
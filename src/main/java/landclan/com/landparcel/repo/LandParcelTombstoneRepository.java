@@ -0,0 +1,24 @@
+package landclan.com.landparcel.repo;
+
+import java.util.List;
+import landclan.com.landparcel.domain.LandParcelTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface LandParcelTombstoneRepository extends JpaRepository<LandParcelTombstone, Long> {
+    
+    /**
+     * Tombstones within a range of the change sequence, read from idx_landParcelTombstone_changeSeq alone as it holds
+     * both columns of the table.
+     * @param since the change sequence already seen by the client.
+     * @param upTo the highest change sequence to be returned.
+     * @param limit the maximum number of tombstones to be returned.
+     * @return Tombstones of Land Parcels deleted after since and up to upTo in ascending change sequence order.
+     */
+    @Transactional(readOnly = true)
+    @Query("select t from LandParcelTombstone t where t.changeSeq > :since and t.changeSeq <= :upTo order by t.changeSeq")
+    List<LandParcelTombstone> findChangedBetween(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
+}
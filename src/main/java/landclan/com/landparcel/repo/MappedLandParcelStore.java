@@ -0,0 +1,545 @@
+package landclan.com.landparcel.repo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.index.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of Land Parcel records held in memory-mapped segment files, with an in-memory index from objectID
+ * to the address of the latest record of each Land Parcel.
+ * <p>
+ * Every record starts with a fixed-width header of {@value #HEADER} bytes followed by the UTF-8 name and the boundary
+ * as packed little endian doubles, and is padded to a multiple of 8 bytes:
+ * <pre>
+ *  0 int    type, PUT or DELETE, 0 marks the end of the log
+ *  4 int    length of the record before padding
+ *  8 int    CRC32C of bytes 12 to length
+ * 12 int    length of the name in bytes
+ * 16 long   objectID
+ * 24 long   version
+ * 32 long   changeSeq
+ * 40 double area
+ * 48 byte   status ordinal
+ * 49 byte   constraints
+ * 52 int    number of boundary vertices, -1 without a boundary
+ * 56        name, then boundary coordinates
+ * </pre>
+ * A record is written before its type, so a record torn by a crash either has no type or fails its checksum. Opening
+ * the store scans every segment, stops at the first such record and zeroes the rest of the log. Deletes are kept as
+ * tombstone records which carry the change sequence of the deletion.
+ * <p>
+ * Replaced records stay in the log until {@link #compact()} copies the latest record of every Land Parcel to the
+ * segments of the next generation. The CURRENT file names the generation in use and is replaced atomically once the
+ * new segments have been forced to disk, so a crash during compaction leaves the previous generation in use.
+ * <p>
+ * Thread safe, reads share a read lock and writes take the write lock. Written records survive a crash of the process
+ * as soon as they are appended since the mapped pages belong to the operating system, they survive a crash of the
+ * machine once forced, on every append when created with fsync or else when the store is closed.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+public class MappedLandParcelStore implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedLandParcelStore.class);
+
+    static final int HEADER = 56;
+    static final int PUT = 0x4C505055;
+    static final int DELETE = 0x4C504445;
+    private static final int MISSING = -1;
+    private static final String CURRENT = "CURRENT";
+    private static final String SUFFIX = ".log";
+
+    /**
+     * Receives every Land Parcel and tombstone of the store in the order they were written.
+     */
+    public interface Visitor {
+        void landParcel(LandParcelView landParcel);
+        void tombstone(long objectID, long changeSeq);
+    }
+
+    private final Path directory;
+    private final int newSegmentSize;
+    private final boolean fsync;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The segment size, generation and segments in use, the index from objectID to the address of its latest record
+     * divided by 8 and the write position in the last segment, all guarded by the lock.
+     */
+    private int segmentSize;
+    private long generation;
+    private List<MappedByteBuffer> segments = new ArrayList<>();
+    private LongIntHashMap index = new LongIntHashMap(1024);
+    private int position;
+    private int landParcels;
+    private long logBytes;
+    private long deadBytes;
+
+    /**
+     * Opens the store in the directory given, creating it if it does not exist and recovering it after a crash.
+     * @param segmentSize the size of new segment files in bytes, a multiple of 8 which must fit the largest record.
+     * Segments of an existing store keep their size until the store is compacted.
+     * @param fsync whether every append is forced to disk before it returns.
+     */
+    public MappedLandParcelStore(Path directory, int segmentSize, boolean fsync) throws IOException {
+        if (segmentSize < HEADER || segmentSize % 8 != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of 8 of at least " + HEADER + " bytes.");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.newSegmentSize = segmentSize;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        open();
+    }
+
+    private void open() throws IOException {
+        Path current = directory.resolve(CURRENT);
+        generation = Files.exists(current) ? Long.parseLong(Files.readString(current).trim()) : 1;
+        String prefix = generation + "-";
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        List<Path> segmentFiles = new ArrayList<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().startsWith(prefix)) {
+                segmentFiles.add(file);
+            } else {
+                // left behind by a compaction which did not finish, or which finished before the old files were deleted
+                Files.delete(file);
+            }
+        }
+        if (!segmentFiles.isEmpty()) {
+            segmentSize = (int) Files.size(segmentFiles.get(0));
+        }
+        for (Path file : segmentFiles) {
+            segments.add(map(file, segmentSize));
+        }
+        recover(segmentFiles);
+    }
+
+    /**
+     * Rebuilds the index from the log, truncating it at the first record which is torn or corrupt.
+     */
+    private void recover(List<Path> segmentFiles) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (int s = 0; s < segments.size(); s++) {
+            MappedByteBuffer segment = segments.get(s);
+            int pos = 0;
+            while (pos + HEADER <= segmentSize) {
+                int type = segment.getInt(pos);
+                if (type == 0) {
+                    break;
+                }
+                int length = segment.getInt(pos + 4);
+                if ((type != PUT && type != DELETE) || length < HEADER || length > segmentSize - pos || checksum(crc, segment, pos, length) != segment.getInt(pos + 8)) {
+                    log.warn("Land parcel store {} truncated at a torn record at offset {} of {}", directory, pos, segmentFiles.get(s).getFileName());
+                    segment.put(pos, new byte[segmentSize - pos]);
+                    segment.force();
+                    for (int later = segments.size() - 1; later > s; later--) {
+                        segments.remove(later);
+                        Files.delete(segmentFiles.get(later));
+                    }
+                    break;
+                }
+                index(segment, pos, (long) s * segmentSize + pos);
+                pos += align(length);
+            }
+            position = pos;
+        }
+    }
+
+    /**
+     * @return The Land Parcel, empty if it was never stored or has been deleted.
+     */
+    public Optional<LandParcelView> get(long objectID) {
+        lock.readLock().lock();
+        try {
+            int slot = index.get(objectID, MISSING);
+            if (slot == MISSING) {
+                return Optional.empty();
+            }
+            long address = (long) slot << 3;
+            MappedByteBuffer segment = segments.get((int) (address / segmentSize));
+            int pos = (int) (address % segmentSize);
+            return segment.getInt(pos) == PUT ? Optional.of(read(segment, pos)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the Land Parcel unless the store already holds a later change of it.
+     * @return Whether the Land Parcel was written.
+     */
+    public boolean put(LandParcelView landParcel) {
+        byte[] name = landParcel.name().getBytes(StandardCharsets.UTF_8);
+        Polygon boundary = landParcel.boundary();
+        int vertices = boundary == null ? 0 : boundary.vertexCount();
+        lock.writeLock().lock();
+        try {
+            long address = append(PUT, landParcel.objectID(), landParcel.changeSeq(), HEADER + name.length + vertices * 2 * Double.BYTES);
+            if (address < 0) {
+                return false;
+            }
+            MappedByteBuffer segment = segments.get(segments.size() - 1);
+            int pos = (int) (address % segmentSize);
+            segment.putInt(pos + 12, name.length);
+            segment.putLong(pos + 24, landParcel.version());
+            segment.putDouble(pos + 40, landParcel.area());
+            segment.put(pos + 48, (byte) landParcel.status().ordinal());
+            segment.put(pos + 49, (byte) (landParcel.constraints() ? 1 : 0));
+            segment.putInt(pos + 52, boundary == null ? -1 : vertices);
+            segment.put(pos + HEADER, name);
+            int coordinates = pos + HEADER + name.length;
+            for (int i = 0; i < vertices; i++) {
+                segment.putDouble(coordinates + i * 16, boundary.getX(i));
+                segment.putDouble(coordinates + i * 16 + 8, boundary.getY(i));
+            }
+            commit(PUT, segment, pos);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a tombstone for the Land Parcel unless the store already holds a later change of it.
+     * @return Whether the tombstone was written.
+     */
+    public boolean delete(long objectID, long changeSeq) {
+        lock.writeLock().lock();
+        try {
+            long address = append(DELETE, objectID, changeSeq, HEADER);
+            if (address < 0) {
+                return false;
+            }
+            MappedByteBuffer segment = segments.get(segments.size() - 1);
+            int pos = (int) (address % segmentSize);
+            segment.putInt(pos + 52, -1);
+            commit(DELETE, segment, pos);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reserves room for a record at the end of the log and writes the key of its header, called with the write lock held.
+     * @return The address of the record, or -1 if the store holds a later change of the Land Parcel.
+     */
+    private long append(int type, long objectID, long changeSeq, int length) {
+        int slot = index.get(objectID, MISSING);
+        if (slot != MISSING && changeSeqAt((long) slot << 3) > changeSeq) {
+            return -1;
+        }
+        int size = align(length);
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Land Parcel " + objectID + " needs " + size + " bytes, more than a segment of " + segmentSize + " bytes.");
+        }
+        try {
+            if (segments.isEmpty() || position + size > segmentSize) {
+                segments.add(map(segmentFile(generation, segments.size()), segmentSize));
+                position = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        MappedByteBuffer segment = segments.get(segments.size() - 1);
+        int pos = position;
+        for (int i = 0; i < HEADER; i += Long.BYTES) {
+            segment.putLong(pos + i, 0);
+        }
+        segment.putInt(pos + 4, length);
+        segment.putLong(pos + 16, objectID);
+        segment.putLong(pos + 32, changeSeq);
+        position += size;
+        return (long) (segments.size() - 1) * segmentSize + pos;
+    }
+
+    /**
+     * Completes a record with its checksum and type, the type last so recovery never sees a partly written record
+     * as complete, and points the index at it.
+     */
+    private void commit(int type, MappedByteBuffer segment, int pos) {
+        int length = segment.getInt(pos + 4);
+        segment.putInt(pos + 8, checksum(new CRC32C(), segment, pos, length));
+        segment.putInt(pos, type);
+        if (fsync) {
+            segment.force(pos, align(length));
+        }
+        index(segment, pos, (long) (segments.size() - 1) * segmentSize + pos);
+    }
+
+    private void index(MappedByteBuffer segment, int pos, long address) {
+        long objectID = segment.getLong(pos + 16);
+        int previous = index.get(objectID, MISSING);
+        if (previous != MISSING) {
+            long previousAddress = (long) previous << 3;
+            deadBytes += align(recordAt(previousAddress).getInt((int) (previousAddress % segmentSize) + 4));
+            if (typeAt(previousAddress) == PUT) {
+                landParcels--;
+            }
+        }
+        if (segment.getInt(pos) == PUT) {
+            landParcels++;
+        }
+        if (address >>> 3 > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Land parcel store " + directory + " is full, it must be compacted.");
+        }
+        index.put(objectID, (int) (address >>> 3));
+        logBytes += align(segment.getInt(pos + 4));
+    }
+
+    /**
+     * Passes every Land Parcel and tombstone to the visitor in the order they were written, under the read lock.
+     */
+    public void forEach(Visitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (int slot : sortedSlots()) {
+                long address = (long) slot << 3;
+                MappedByteBuffer segment = recordAt(address);
+                int pos = (int) (address % segmentSize);
+                if (segment.getInt(pos) == PUT) {
+                    visitor.landParcel(read(segment, pos));
+                } else {
+                    visitor.tombstone(segment.getLong(pos + 16), segment.getLong(pos + 32));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the latest record of every Land Parcel to the segments of the next generation and switches to them,
+     * blocking reads and writes meanwhile.
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            long previousBytes = logBytes;
+            long next = generation + 1;
+            int nextSegmentSize = newSegmentSize;
+            List<MappedByteBuffer> copies = new ArrayList<>();
+            LongIntHashMap copyIndex = new LongIntHashMap(index.size());
+            int pos = 0;
+            long bytes = 0;
+            for (int slot : sortedSlots()) {
+                long address = (long) slot << 3;
+                MappedByteBuffer segment = recordAt(address);
+                int from = (int) (address % segmentSize);
+                int size = align(segment.getInt(from + 4));
+                if (copies.isEmpty() || pos + size > nextSegmentSize) {
+                    Path file = segmentFile(next, copies.size());
+                    Files.deleteIfExists(file);
+                    copies.add(map(file, nextSegmentSize));
+                    pos = 0;
+                }
+                copies.get(copies.size() - 1).put(pos, segment, from, size);
+                copyIndex.put(segment.getLong(from + 16), (int) (((long) (copies.size() - 1) * nextSegmentSize + pos) >>> 3));
+                pos += size;
+                bytes += size;
+            }
+            for (MappedByteBuffer copy : copies) {
+                copy.force();
+            }
+            Path current = directory.resolve(CURRENT);
+            Path written = directory.resolve(CURRENT + ".tmp");
+            Files.writeString(written, Long.toString(next));
+            try (FileChannel channel = FileChannel.open(written, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(written, current, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            for (int s = 0; s < segments.size(); s++) {
+                Files.deleteIfExists(segmentFile(generation, s));
+            }
+            generation = next;
+            segmentSize = nextSegmentSize;
+            segments = copies;
+            index = copyIndex;
+            position = pos;
+            logBytes = bytes;
+            deadBytes = 0;
+            log.info("Compacted land parcel store {} from {} KB to {} KB in {} ms", directory, previousBytes >> 10, bytes >> 10, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of Land Parcels stored, not counting tombstones.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return landParcels;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Whether the store holds neither Land Parcels nor tombstones.
+     */
+    public boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            return index.size() == 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The bytes taken by the records of the log, including the replaced ones.
+     */
+    public long getLogBytes() {
+        lock.readLock().lock();
+        try {
+            return logBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The bytes taken by replaced records, which are freed by {@link #compact()}.
+     */
+    public long getDeadBytes() {
+        lock.readLock().lock();
+        try {
+            return deadBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getSegmentSize() {
+        lock.readLock().lock();
+        try {
+            return segmentSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forces every segment to disk, so the records appended survive a crash of the machine.
+     */
+    public void force() {
+        lock.readLock().lock();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forces every segment to disk, the store must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            segments = List.of();
+            index = new LongIntHashMap(8);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private LandParcelView read(MappedByteBuffer segment, int pos) {
+        byte[] name = new byte[segment.getInt(pos + 12)];
+        segment.get(pos + HEADER, name);
+        int vertices = segment.getInt(pos + 52);
+        Polygon boundary = null;
+        if (vertices >= 0) {
+            double[] coordinates = new double[vertices * 2];
+            int offset = pos + HEADER + name.length;
+            for (int i = 0; i < coordinates.length; i++) {
+                coordinates[i] = segment.getDouble(offset + i * Double.BYTES);
+            }
+            boundary = new Polygon(coordinates);
+        }
+        return new LandParcelView(segment.getLong(pos + 16), new String(name, StandardCharsets.UTF_8), Status.values()[segment.get(pos + 48)],
+                segment.getDouble(pos + 40), segment.get(pos + 49) != 0, boundary,
+                boundary == null ? null : boundary.getMinX(), boundary == null ? null : boundary.getMinY(),
+                boundary == null ? null : boundary.getMaxX(), boundary == null ? null : boundary.getMaxY(),
+                segment.getLong(pos + 24), segment.getLong(pos + 32));
+    }
+
+    /**
+     * @return The index entries sorted by address, so records are visited in the order they were written.
+     */
+    private int[] sortedSlots() {
+        int[] slots = index.values();
+        Arrays.sort(slots);
+        return slots;
+    }
+
+    private MappedByteBuffer recordAt(long address) {
+        return segments.get((int) (address / segmentSize));
+    }
+
+    private int typeAt(long address) {
+        return recordAt(address).getInt((int) (address % segmentSize));
+    }
+
+    private long changeSeqAt(long address) {
+        return recordAt(address).getLong((int) (address % segmentSize) + 32);
+    }
+
+    private Path segmentFile(long generation, int sequence) {
+        return directory.resolve(String.format("%d-%06d%s", generation, sequence, SUFFIX));
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            return segment;
+        }
+    }
+
+    private static int checksum(CRC32C crc, ByteBuffer segment, int pos, int length) {
+        crc.reset();
+        crc.update(segment.slice(pos + 12, length - 12));
+        return (int) crc.getValue();
+    }
+
+    private static int align(int length) {
+        return (length + 7) & ~7;
+    }
+}
@@ -0,0 +1,70 @@
+package landclan.com.landparcel.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelCacheStats;
+import landclan.com.landparcel.domain.LandParcelView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded read-through cache of Land Parcels by objectID, entries are evicted once the maximum size is reached
+ * or once they are older than the time to live.
+ * <p>
+ * Entries are invalidated after a change to the Land Parcel has been committed. A lookup which misses loads the
+ * Land Parcel while holding the lock on its key and an invalidation of the same key waits for that load to finish
+ * before removing it, so a value read before a commit can never be left in the cache after the commit.
+ * The size, hits, misses and evictions are published as the cache metrics of the cache named landParcels.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelCache implements LandParcelChangeListener, MeterBinder {
+    
+    private final Cache<Long, LandParcelView> cache;
+
+    public LandParcelCache(@Value("${landparcel.cache.maximum-size:10000}") long maximumSize,
+            @Value("${landparcel.cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * @param objectID the objectID of the Land Parcel to be found.
+     * @param loader reads the Land Parcel from the database when it is not cached, Land Parcels which are not found are not cached.
+     * @return The cached or loaded Land Parcel.
+     */
+    public Optional<LandParcelView> get(long objectID, Function<Long, Optional<LandParcelView>> loader) {
+        return Optional.ofNullable(cache.get(objectID, id -> loader.apply(id).orElse(null)));
+    }
+    
+    public LandParcelCacheStats getStats() {
+        var stats = cache.stats();
+        return new LandParcelCacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "landParcels");
+    }
+    
+    @Override
+    public void landParcelSaved(LandParcel landParcel) {
+        cache.invalidate(landParcel.getObjectID());
+    }
+
+    @Override
+    public void landParcelDeleted(long objectID) {
+        cache.invalidate(objectID);
+    }
+}
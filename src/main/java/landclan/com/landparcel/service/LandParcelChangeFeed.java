@@ -0,0 +1,223 @@
+package landclan.com.landparcel.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelChange;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.OperationType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the most recent committed Land Parcel changes in a ring buffer of landparcel.feed.history entries which every
+ * subscriber reads from at its own position. Writers only append to the ring and never wait for subscribers, a subscriber
+ * which falls so far behind that changes it has not read are overwritten is told to reset instead.
+ * <p>
+ * Change ids are the time the application started followed by the position of the change, a subscriber can resume
+ * after any id still held in the ring. Ids from before a restart or which have been overwritten cannot be resumed.
+ * <p>
+ * Changes are appended as each transaction's commit is passed on, which for concurrent transactions is not always the
+ * order they committed in. Changes of different Land Parcels may therefore be appended in either order, while a change
+ * older by change sequence than one of the same Land Parcel still in the ring is left out, as it has been superseded,
+ * so the changes of one Land Parcel never go backwards.
+ * The number of subscribers and of subscribers reset for falling behind are published as the landparcel.feed.subscribers
+ * gauge and the landparcel.feed.overruns counter.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelChangeFeed implements LandParcelChangeListener, MeterBinder {
+
+    private final long epoch = System.currentTimeMillis();
+    private final LandParcelChange[] history;
+    private final long[] changeSeqs;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong overruns = new AtomicLong();
+
+    /**
+     * The position of the next change to be appended, guarded by the lock.
+     */
+    private long next;
+    
+    /**
+     * The change sequence of the latest change of each Land Parcel still held in the ring, guarded by the lock.
+     */
+    private final Map<Long, Long> latestChangeSeqs = new HashMap<>();
+
+    public LandParcelChangeFeed(@Value("${landparcel.feed.history:10000}") int history) {
+        this.history = new LandParcelChange[history];
+        this.changeSeqs = new long[history];
+    }
+
+    /**
+     * @param lastEventId the id of the last change the subscriber received, null to receive only changes committed from now on.
+     * @return A subscription positioned after the change with the id provided, or after the latest change when that id
+     * cannot be resumed in which case {@link Subscription#isReset()} is set.
+     */
+    public Subscription subscribe(String lastEventId) {
+        lock.lock();
+        try {
+            long position = lastEventId == null ? next : resumePosition(lastEventId);
+            subscribers.incrementAndGet();
+            return position < 0 ? new Subscription(next, true) : new Subscription(position, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long resumePosition(String lastEventId) {
+        int separator = lastEventId.indexOf('-');
+        try {
+            if (separator < 0 || Long.parseLong(lastEventId.substring(0, separator)) != epoch) {
+                return -1;
+            }
+            long position = Long.parseLong(lastEventId.substring(separator + 1)) + 1;
+            return position <= next && position >= next - history.length ? position : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public int getSubscribers() {
+        return subscribers.get();
+    }
+
+    @Override
+    public void landParcelSaved(LandParcel landParcel) {
+        OperationType type = landParcel.getVersion() == 0 ? OperationType.CREATE : OperationType.UPDATE;
+        append(type, landParcel.getObjectID(), landParcel.getChangeSeq(), LandParcelView.of(landParcel));
+    }
+
+    @Override
+    public void landParcelDeleted(long objectID) {
+        append(OperationType.DELETE, objectID, 0, null);
+    }
+
+    @Override
+    public void landParcelDeleted(long objectID, long changeSeq) {
+        append(OperationType.DELETE, objectID, changeSeq, null);
+    }
+
+    /**
+     * @param changeSeq the change sequence of the change, 0 when not known in which case it is always appended.
+     */
+    private void append(OperationType type, long objectID, long changeSeq, LandParcelView landParcel) {
+        lock.lock();
+        try {
+            Long latest = latestChangeSeqs.get(objectID);
+            if (changeSeq > 0 && latest != null && latest > changeSeq) {
+                return;
+            }
+            int slot = (int) (next % history.length);
+            LandParcelChange overwritten = history[slot];
+            if (overwritten != null) {
+                latestChangeSeqs.remove(overwritten.getObjectID(), changeSeqs[slot]);
+            }
+            history[slot] = new LandParcelChange(epoch + "-" + next, type, objectID, landParcel);
+            changeSeqs[slot] = changeSeq;
+            if (changeSeq > 0) {
+                latestChangeSeqs.put(objectID, changeSeq);
+            }
+            next++;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("landparcel.feed.subscribers", subscribers, AtomicInteger::get)
+                .description("Number of clients subscribed to the Land Parcel change feed")
+                .register(registry);
+        FunctionCounter.builder("landparcel.feed.overruns", overruns, AtomicLong::get)
+                .description("Number of change feed subscribers reset for falling behind by more than the history held")
+                .register(registry);
+    }
+
+    /**
+     * The position of a single subscriber in the feed, to be used by one thread at a time and closed once the subscriber has gone.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private long position;
+        private boolean reset;
+        private boolean closed;
+
+        private Subscription(long position, boolean reset) {
+            this.position = position;
+            this.reset = reset;
+        }
+
+        /**
+         * @return Whether changes have been missed since the Last-Event-ID the subscription was created with, the subscriber
+         * should read the Land Parcels again before applying further changes.
+         */
+        public boolean isReset() {
+            return reset;
+        }
+
+        /**
+         * Waits until a change after those already returned has been committed.
+         * @param max the maximum number of changes to be returned.
+         * @param timeout how long to wait for a change.
+         * @param unit the unit of the timeout.
+         * @return Up to max changes in the order they were committed, empty if there was no change within the timeout,
+         * null if changes not yet returned have been overwritten in which case the subscription has moved on to the latest change.
+         * @throws InterruptedException If the thread is interrupted while waiting.
+         */
+        public List<LandParcelChange> poll(int max, long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (position == next && nanos > 0) {
+                    nanos = appended.awaitNanos(nanos);
+                }
+                if (position < next - history.length) {
+                    position = next;
+                    reset = true;
+                    overruns.incrementAndGet();
+                    return null;
+                }
+
+                int count = (int) Math.min(max, next - position);
+                List<LandParcelChange> changes = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    changes.add(history[(int) (position++ % history.length)]);
+                }
+                return changes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return The id of the latest change before the position of the subscription, null if there has been no change.
+         */
+        public String getLastEventId() {
+            return position == 0 ? null : epoch + "-" + (position - 1);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                subscribers.decrementAndGet();
+            }
+        }
+    }
+}
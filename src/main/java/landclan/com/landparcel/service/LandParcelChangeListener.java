@@ -0,0 +1,19 @@
+package landclan.com.landparcel.service;
+
+import landclan.com.landparcel.domain.LandParcel;
+
+/**
+ * Notified of every Land Parcel written through {@link LandParcelService}, only once the change has been committed.
+ * Listeners are called on the writing thread so they must not block.
+ */
+public interface LandParcelChangeListener {
+    void landParcelSaved(LandParcel landParcel);
+    void landParcelDeleted(long objectID);
+    
+    /**
+     * @param changeSeq the change sequence of the tombstone left by the deletion.
+     */
+    default void landParcelDeleted(long objectID, long changeSeq) {
+        landParcelDeleted(objectID);
+    }
+}
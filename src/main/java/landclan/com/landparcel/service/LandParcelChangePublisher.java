@@ -0,0 +1,90 @@
+package landclan.com.landparcel.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelTombstone;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Passes Land Parcel changes on to every {@link LandParcelChangeListener}.
+ * Changes made inside a transaction are held back until it commits and dropped if it rolls back,
+ * changes made outside of a transaction have already been committed and are passed on immediately.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelChangePublisher {
+    
+    private final ObjectProvider<LandParcelChangeListener> listenerProvider;
+    
+    /**
+     * Resolved on first use as listeners may themselves depend on the service which writes through this publisher.
+     */
+    private volatile List<LandParcelChangeListener> listeners;
+
+    public LandParcelChangePublisher(ObjectProvider<LandParcelChangeListener> listenerProvider) {
+        this.listenerProvider = listenerProvider;
+    }
+    
+    public void saved(LandParcel landParcel) {
+        publish(new Change(landParcel, landParcel.getObjectID(), landParcel.getChangeSeq()));
+    }
+    
+    /**
+     * Passes on the deletion with the change sequence of its tombstone, which must have been persisted.
+     */
+    public void deleted(LandParcelTombstone tombstone) {
+        publish(new Change(null, tombstone.getObjectID(), tombstone.getChangeSeq()));
+    }
+    
+    private void publish(Change change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(change);
+            return;
+        }
+        
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(change);
+    }
+    
+    private void dispatch(Change change) {
+        List<LandParcelChangeListener> listeners = this.listeners;
+        if (listeners == null) {
+            listeners = listenerProvider.orderedStream().toList();
+            this.listeners = listeners;
+        }
+        
+        for (LandParcelChangeListener listener : listeners) {
+            if (change.landParcel() == null) {
+                listener.landParcelDeleted(change.objectID(), change.changeSeq());
+            } else {
+                listener.landParcelSaved(change.landParcel());
+            }
+        }
+    }
+    
+    private record Change(LandParcel landParcel, long objectID, long changeSeq) {}
+    
+    private class PendingChanges implements TransactionSynchronization {
+        private final List<Change> changes = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            changes.forEach(LandParcelChangePublisher.this::dispatch);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LandParcelChangePublisher.this);
+        }
+    }
+}
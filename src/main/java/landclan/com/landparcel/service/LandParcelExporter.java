@@ -0,0 +1,304 @@
+package landclan.com.landparcel.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import landclan.com.landparcel.domain.FileFormat;
+import landclan.com.landparcel.domain.JobState;
+import landclan.com.landparcel.domain.LandParcelExportStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports every Land Parcel to a gzip compressed CSV or GeoJSON file in landparcel.export.directory as a background job,
+ * exports run one at a time in the order requested.
+ * <p>
+ * Each instance writes to a subdirectory of its own named after its process id, as several instances on one host or
+ * several application contexts in one JVM may share landparcel.export.directory. The subdirectory is deleted on shutdown
+ * and subdirectories left by processes no longer running are deleted at startup.
+ * <p>
+ * The Land Parcels are read with {@link LandParcelService#streamLandParcels} from a database cursor and written straight
+ * to the compressed file, so the heap used does not depend on the number of Land Parcels. The file is written under a
+ * temporary name and renamed once complete, a file which can be downloaded is always whole.
+ * <p>
+ * Each export is tagged with the {@link LandParcelGeneration} at the time it was requested. A request for a format whose
+ * latest export has the current tag is given that export rather than a new one, so repeated downloads of an unchanged
+ * snapshot never query the database again. The latest landparcel.export.retained-files completed exports of each format
+ * are kept. An older export is no longer given to new export requests but can still be downloaded for
+ * landparcel.export.replaced-retention before its file is deleted, so a download which has started, which Tomcat may
+ * still have to open after the request has been handled, or which is resumed with a byte range can finish.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelExporter {
+
+    private static final String FILE_PREFIX = "landparcels-";
+    private static final Logger log = LoggerFactory.getLogger(LandParcelExporter.class);
+
+    private final LandParcelService landParcelService;
+    private final LandParcelGeneration landParcelGeneration;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int retainedFiles;
+    private final Duration replacedRetention;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("landparcel-export").daemon().factory());
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("landparcel-export-cleanup").daemon().factory());
+
+    /**
+     * Every export still held in the order requested, guarded by this.
+     */
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    
+    /**
+     * Completed exports replaced by later ones whose file is kept until replacedRetention has passed, guarded by this.
+     */
+    private final Map<String, Job> replaced = new HashMap<>();
+
+    public LandParcelExporter(LandParcelService landParcelService, LandParcelGeneration landParcelGeneration, ObjectMapper objectMapper,
+            @Value("${landparcel.export.directory:${java.io.tmpdir}/landparcel-exports}") Path directory,
+            @Value("${landparcel.export.retained-files:2}") int retainedFiles,
+            @Value("${landparcel.export.replaced-retention:10m}") Duration replacedRetention) throws IOException {
+        this.landParcelService = landParcelService;
+        this.landParcelGeneration = landParcelGeneration;
+        this.objectMapper = objectMapper;
+        this.retainedFiles = retainedFiles;
+        this.replacedRetention = replacedRetention;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> instances = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path instance : instances) {
+                if (!isRunning(instance)) {
+                    deleteDirectory(instance);
+                }
+            }
+        }
+        this.directory = Files.createDirectory(directory.resolve(ProcessHandle.current().pid() + "-" + UUID.randomUUID()));
+    }
+    
+    /**
+     * @return Whether the directory belongs to a process still running, or was not created by an exporter at all.
+     */
+    private static boolean isRunning(Path instance) {
+        String name = instance.getFileName().toString();
+        int separator = name.indexOf('-');
+        try {
+            return separator < 0 || ProcessHandle.of(Long.parseLong(name.substring(0, separator))).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+    
+    private static void deleteDirectory(Path instance) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(instance, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(instance);
+        } catch (IOException e) {
+            log.warn("Could not delete export directory {}", instance, e);
+        }
+    }
+
+    /**
+     * @param format the format of the file.
+     * @return The export of the Land Parcels as they are now, either one already queued, running or completed for the
+     * current snapshot or a new one queued.
+     */
+    public synchronized LandParcelExportStatus export(FileFormat format) {
+        String snapshot = landParcelGeneration.current();
+        for (Job job : jobs.values()) {
+            if (job.format == format && job.snapshot.equals(snapshot) && job.state != JobState.FAILED) {
+                return job.status();
+            }
+        }
+
+        String id = UUID.randomUUID().toString();
+        String extension = format == FileFormat.CSV ? ".csv.gz" : ".geojson.gz";
+        Job job = new Job(id, format, snapshot, directory.resolve(FILE_PREFIX + id + extension));
+        jobs.put(id, job);
+        executor.execute(() -> run(job));
+        return job.status();
+    }
+
+    public synchronized Optional<LandParcelExportStatus> getStatus(String id) {
+        return find(id).map(Job::status);
+    }
+
+    /**
+     * @param id the id of the export.
+     * @return The compressed file of a completed export, including one replaced within the retention, empty if the export
+     * is unknown or has not completed.
+     */
+    public synchronized Optional<Path> getFile(String id) {
+        return find(id).filter(job -> job.state == JobState.COMPLETED).map(job -> job.file);
+    }
+    
+    private Optional<Job> find(String id) {
+        Job job = jobs.get(id);
+        return Optional.ofNullable(job != null ? job : replaced.get(id));
+    }
+
+    private void run(Job job) {
+        job.startedAt = Instant.now();
+        job.state = JobState.RUNNING;
+        Path part = job.file.resolveSibling(job.file.getFileName() + ".part");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(part), 1 << 16)) {
+                if (job.format == FileFormat.CSV) {
+                    writeCsv(job, out);
+                } else {
+                    writeGeoJson(job, out);
+                }
+            }
+            Files.move(part, job.file, StandardCopyOption.ATOMIC_MOVE);
+            job.sizeBytes = Files.size(job.file);
+            finish(job, JobState.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            job.failure = "The export could not be written: "+NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            finish(job, JobState.FAILED);
+        } finally {
+            deleteQuietly(part);
+        }
+    }
+
+    /**
+     * Records the outcome of an export and removes the exports it replaces in one step, so an export is never seen
+     * completed while the one before it is still kept.
+     */
+    private synchronized void finish(Job job, JobState state) {
+        job.finishedAt = Instant.now();
+        job.state = state;
+        removeOldExports(job.format);
+    }
+
+    private void writeCsv(Job job, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        writer.write(LandParcelRowWriter.CSV_HEADER);
+        landParcelService.streamLandParcels(landParcel -> {
+            try {
+                LandParcelRowWriter.writeCsv(writer, landParcel);
+                job.rowsWritten.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeGeoJson(Job job, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("type", "FeatureCollection");
+            generator.writeArrayFieldStart("features");
+            landParcelService.streamLandParcels(landParcel -> {
+                try {
+                    LandParcelRowWriter.writeFeature(generator, landParcel);
+                    job.rowsWritten.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Keeps the latest retained completed exports of the format, a failed export is forgotten once a later one has
+     * completed. Called holding the lock of this.
+     */
+    private void removeOldExports(FileFormat format) {
+        List<Job> exports = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            if (job.format == format && (job.state == JobState.COMPLETED || job.state == JobState.FAILED)) {
+                exports.add(job);
+            }
+        }
+        int completed = 0;
+        for (int i = exports.size() - 1; i >= 0; i--) {
+            Job job = exports.get(i);
+            if (job.state == JobState.COMPLETED ? ++completed > retainedFiles : completed > 0) {
+                jobs.remove(job.id);
+                if (job.state == JobState.COMPLETED) {
+                    replaced.put(job.id, job);
+                    cleaner.schedule(() -> expire(job), replacedRetention.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+    
+    private synchronized void expire(Job job) {
+        replaced.remove(job.id);
+        deleteQuietly(job.file);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        cleaner.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        deleteDirectory(directory);
+    }
+
+    private static final class Job {
+        private final String id;
+        private final FileFormat format;
+        private final String snapshot;
+        private final Path file;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicLong rowsWritten = new AtomicLong();
+        private volatile JobState state = JobState.QUEUED;
+        private volatile long sizeBytes;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String failure;
+
+        Job(String id, FileFormat format, String snapshot, Path file) {
+            this.id = id;
+            this.format = format;
+            this.snapshot = snapshot;
+            this.file = file;
+        }
+
+        LandParcelExportStatus status() {
+            return new LandParcelExportStatus(id, format, state, snapshot, rowsWritten.get(), sizeBytes, submittedAt, startedAt, finishedAt, failure);
+        }
+    }
+}
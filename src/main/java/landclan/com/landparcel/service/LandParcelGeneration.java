@@ -0,0 +1,38 @@
+package landclan.com.landparcel.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import landclan.com.landparcel.domain.LandParcel;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the changes committed to the Land Parcels so a collection can be given an ETag without reading it.
+ * The tag starts with the time the application started so tags handed out before a restart never match afterwards.
+ * <p>
+ * The count is read before the collection is queried and only incremented after a commit, so a response is never
+ * tagged with a count newer than the data it holds.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelGeneration implements LandParcelChangeListener {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @return The value identifying the Land Parcels as they are now, changed by every committed write.
+     */
+    public String current() {
+        return epoch + "-" + generation.get();
+    }
+
+    @Override
+    public void landParcelSaved(LandParcel landParcel) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void landParcelDeleted(long objectID) {
+        generation.incrementAndGet();
+    }
+}
@@ -0,0 +1,372 @@
+package landclan.com.landparcel.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import landclan.com.landparcel.domain.FileFormat;
+import landclan.com.landparcel.domain.JobState;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelImportStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports Land Parcels from CSV or GeoJSON files as background jobs which run one at a time in the order submitted.
+ * <p>
+ * The upload is copied to a temporary file as it is received so the request is answered as soon as the upload ends
+ * and the heap used does not depend on the size of the file. Each job then runs as a pipeline of three stages:
+ * the job thread reads the file and cuts it into chunks of landparcel.import.chunk-size rows, a pool of
+ * landparcel.import.parallelism threads parses and validates the chunks and a writer thread saves each chunk with
+ * {@link LandParcelService#saveLandParcels(List)}, in the order of the file, as one transaction of JDBC batches, after
+ * waiting for updates queued by {@link LandParcelWriteBehind} where its ordering requires.
+ * No more than two chunks per parsing thread are held between the reader and the writer, when the database falls behind
+ * the reader waits for it instead of the file piling up in memory.
+ * <p>
+ * A row which cannot be imported is written with the reason to the error report of the job and the remaining rows are
+ * still imported. When the database rejects a chunk its rows are saved one at a time to find the rows at fault.
+ * The last landparcel.import.retained-jobs jobs can be looked up, rows imported and rejected by all jobs are counted
+ * by the landparcel.import.rows counter.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelImporter implements MeterBinder {
+
+    private static final Future<Batch> END = CompletableFuture.completedFuture(null);
+
+    private final LandParcelService landParcelService;
+    private final LandParcelWriteBehind landParcelWriteBehind;
+    private final ObjectMapper objectMapper;
+    private final int parallelism;
+    private final int chunkSize;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("landparcel-import").daemon().factory());
+    private final ExecutorService parsers;
+    private final Map<String, Job> jobs;
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    public LandParcelImporter(LandParcelService landParcelService, LandParcelWriteBehind landParcelWriteBehind, ObjectMapper objectMapper,
+            @Value("${landparcel.import.parallelism:0}") int parallelism,
+            @Value("${landparcel.import.chunk-size:1000}") int chunkSize,
+            @Value("${landparcel.import.retained-jobs:100}") int retainedJobs) {
+        this.landParcelService = landParcelService;
+        this.landParcelWriteBehind = landParcelWriteBehind;
+        this.objectMapper = objectMapper;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+        this.parsers = Executors.newFixedThreadPool(this.parallelism, Thread.ofPlatform().name("landparcel-import-parser-", 0).daemon().factory());
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+                if (size() <= retainedJobs || !eldest.getValue().isFinished()) {
+                    return false;
+                }
+                deleteQuietly(eldest.getValue().errorReport);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Copies the upload to a temporary file and queues a job to import it.
+     * @param format the format of the upload.
+     * @param upload the file being uploaded, read to the end but not closed.
+     * @return The status of the job queued.
+     * @throws IOException If the upload could not be read or stored.
+     */
+    public LandParcelImportStatus submit(FileFormat format, InputStream upload) throws IOException {
+        Path file = Files.createTempFile("landparcel-import-", ".upload");
+        try {
+            Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+            Job job = new Job(UUID.randomUUID().toString(), format, file, Files.createTempFile("landparcel-import-", ".errors.csv"));
+            jobs.put(job.id, job);
+            jobExecutor.execute(() -> run(job));
+            return job.status();
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    public Optional<LandParcelImportStatus> getStatus(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::status);
+    }
+
+    /**
+     * @param id the id of the job.
+     * @return A CSV file of the row number and reason for every row rejected, complete once the job has finished.
+     */
+    public Optional<Path> getErrorReport(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(job -> job.errorReport);
+    }
+
+    private void run(Job job) {
+        job.startedAt = Instant.now();
+        job.state = JobState.RUNNING;
+        BlockingQueue<Future<Batch>> parsed = new ArrayBlockingQueue<>(parallelism * 2);
+        Thread reader = Thread.currentThread();
+        Thread writer = Thread.ofPlatform().name("landparcel-import-writer").start(() -> write(job, parsed, reader));
+        try {
+            try (InputStream in = Files.newInputStream(job.upload)) {
+                if (job.format == FileFormat.CSV) {
+                    readCsv(job, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16), parsed);
+                } else {
+                    readGeoJson(job, in, parsed);
+                }
+            } catch (IOException | RuntimeException e) {
+                job.fail("The file could not be read: "+e.getMessage());
+            }
+            parsed.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            job.fail("The import was interrupted.");
+            writer.interrupt();
+            joinQuietly(writer);
+        } finally {
+            deleteQuietly(job.upload);
+            job.finishedAt = Instant.now();
+            job.state = job.failure == null ? JobState.COMPLETED : JobState.FAILED;
+        }
+    }
+
+    private void readCsv(Job job, BufferedReader reader, BlockingQueue<Future<Batch>> parsed) throws IOException, InterruptedException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        int[] columns = LandParcelRowParser.csvColumns(header);
+
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 1;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(new Row(lineNumber, line));
+            job.rowsRead.incrementAndGet();
+            if (chunk.size() == chunkSize) {
+                parse(chunk, row -> LandParcelRowParser.fromCsv((String) row.source(), columns), parsed);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        parse(chunk, row -> LandParcelRowParser.fromCsv((String) row.source(), columns), parsed);
+    }
+
+    /**
+     * Only the features array is read, as a tree per feature, the conversion of each tree is left to the parsing threads.
+     */
+    private void readGeoJson(Job job, InputStream in, BlockingQueue<Future<Batch>> parsed) throws IOException, InterruptedException {
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("A GeoJSON FeatureCollection object was expected.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"features".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value != JsonToken.START_ARRAY) {
+                    throw new IOException("The features of the FeatureCollection are not an array.");
+                }
+
+                List<Row> chunk = new ArrayList<>(chunkSize);
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    JsonNode feature = objectMapper.readTree(parser);
+                    chunk.add(new Row(job.rowsRead.incrementAndGet(), feature));
+                    if (chunk.size() == chunkSize) {
+                        parse(chunk, row -> LandParcelRowParser.fromFeature((JsonNode) row.source()), parsed);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                parse(chunk, row -> LandParcelRowParser.fromFeature((JsonNode) row.source()), parsed);
+            }
+        }
+    }
+
+    /**
+     * Hands the chunk to the parsing threads, waiting while the writer is too far behind.
+     */
+    private void parse(List<Row> chunk, RowParser rowParser, BlockingQueue<Future<Batch>> parsed) throws InterruptedException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        parsed.put(parsers.submit(() -> {
+            Batch batch = new Batch(new ArrayList<>(chunk.size()), new ArrayList<>(chunk.size()), new ArrayList<>());
+            for (Row row : chunk) {
+                try {
+                    batch.landParcels().add(rowParser.parse(row));
+                    batch.rowNumbers().add(row.number());
+                } catch (IllegalArgumentException e) {
+                    batch.errors().add(new RowError(row.number(), e.getMessage()));
+                }
+            }
+            return batch;
+        }));
+    }
+
+    private void write(Job job, BlockingQueue<Future<Batch>> parsed, Thread reader) {
+        try (Writer report = Files.newBufferedWriter(job.errorReport, StandardCharsets.UTF_8)) {
+            report.write("row,message\n");
+            for (Future<Batch> next = parsed.take(); next != END; next = parsed.take()) {
+                Batch batch = next.get();
+                for (RowError error : batch.errors()) {
+                    reject(job, report, error);
+                }
+                save(job, report, batch);
+                report.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | IOException | RuntimeException e) {
+            job.fail("The Land Parcels could not be saved: "+NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            reader.interrupt();
+        }
+    }
+
+    private void save(Job job, Writer report, Batch batch) throws IOException, InterruptedException {
+        if (batch.landParcels().isEmpty()) {
+            return;
+        }
+        landParcelWriteBehind.awaitQueuedUpdates(List.of());
+        try {
+            landParcelService.saveLandParcels(batch.landParcels());
+            job.rowsImported.addAndGet(batch.landParcels().size());
+            rowsImported.addAndGet(batch.landParcels().size());
+        } catch (RuntimeException e) {
+            for (int i = 0; i < batch.landParcels().size(); i++) {
+                try {
+                    landParcelService.saveLandParcel(batch.landParcels().get(i));
+                    job.rowsImported.incrementAndGet();
+                    rowsImported.incrementAndGet();
+                } catch (RuntimeException rowFailure) {
+                    reject(job, report, new RowError(batch.rowNumbers().get(i),
+                            "The database rejected the row: "+NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage()));
+                }
+            }
+        }
+    }
+
+    private void reject(Job job, Writer report, RowError error) throws IOException {
+        report.write(error.number()+",\""+String.valueOf(error.message()).replace("\"", "\"\"").replace('\n', ' ')+"\"\n");
+        job.rowsRejected.incrementAndGet();
+        rowsRejected.incrementAndGet();
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("landparcel.import.rows", rowsImported, AtomicLong::get)
+                .description("Number of rows read by imports")
+                .tag("outcome", "imported")
+                .register(registry);
+        FunctionCounter.builder("landparcel.import.rows", rowsRejected, AtomicLong::get)
+                .description("Number of rows read by imports")
+                .tag("outcome", "rejected")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        parsers.shutdownNow();
+    }
+
+    private interface RowParser {
+        LandParcel parse(Row row);
+    }
+
+    private record Row(long number, Object source) {}
+
+    private record RowError(long number, String message) {}
+
+    private record Batch(List<LandParcel> landParcels, List<Long> rowNumbers, List<RowError> errors) {}
+
+    private static final class Job {
+        private final String id;
+        private final FileFormat format;
+        private final Path upload;
+        private final Path errorReport;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private volatile JobState state = JobState.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String failure;
+
+        Job(String id, FileFormat format, Path upload, Path errorReport) {
+            this.id = id;
+            this.format = format;
+            this.upload = upload;
+            this.errorReport = errorReport;
+        }
+
+        /**
+         * Keeps the first failure, later ones are caused by it.
+         */
+        synchronized void fail(String failure) {
+            if (this.failure == null) {
+                this.failure = failure;
+            }
+        }
+
+        boolean isFinished() {
+            return state == JobState.COMPLETED || state == JobState.FAILED;
+        }
+
+        LandParcelImportStatus status() {
+            return new LandParcelImportStatus(id, format, state, rowsRead.get(), rowsImported.get(), rowsRejected.get(),
+                    submittedAt, startedAt, finishedAt, failure);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package landclan.com.landparcel.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets concurrent identical reads share one read of the database, enabled with landparcel.coalescing.enabled.
+ * <p>
+ * The first read of a Land Parcel by objectID or of a page of Land Parcels runs the read, every identical read
+ * arriving while it is in flight waits for it and is handed the same result, or the same exception. Results are
+ * shared and must not be modified.
+ * <p>
+ * Once a change to a Land Parcel has been committed the reads in flight of that Land Parcel and of every page are
+ * forgotten, they still answer the reads which joined them but a read arriving after the change runs a read of its
+ * own, so no read is handed a result read before a change which it followed.
+ * <p>
+ * The reads run and shared are published as the landparcel.coalescing.reads counter tagged with the read,
+ * landParcel or page, and the outcome, executed or shared, and the share of reads which were shared as the
+ * landparcel.coalescing.ratio gauge.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelReadCoalescer implements LandParcelChangeListener, MeterBinder {
+
+    private final boolean enabled;
+    private final ConcurrentMap<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong landParcelsExecuted = new AtomicLong();
+    private final AtomicLong landParcelsShared = new AtomicLong();
+    private final AtomicLong pagesExecuted = new AtomicLong();
+    private final AtomicLong pagesShared = new AtomicLong();
+
+    public LandParcelReadCoalescer(@Value("${landparcel.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param read reads the Land Parcel, run unless the same Land Parcel is already being read.
+     * @return The result of the read in flight or of the read given.
+     */
+    public Optional<LandParcelView> getLandParcel(long objectID, Supplier<Optional<LandParcelView>> read) {
+        return coalesce(new LandParcelKey(objectID), read, landParcelsExecuted, landParcelsShared);
+    }
+
+    /**
+     * @param read reads the page, run unless the same page is already being read.
+     * @return The result of the read in flight or of the read given.
+     */
+    public LandParcelResponse getLandParcels(long after, int pageSize, Supplier<LandParcelResponse> read) {
+        return coalesce(new PageKey(after, pageSize), read, pagesExecuted, pagesShared);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(Object key, Supplier<T> read, AtomicLong executed, AtomicLong shared) {
+        if (!enabled) {
+            return read.get();
+        }
+
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> leader = (CompletableFuture<T>) inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            shared.incrementAndGet();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        executed.incrementAndGet();
+        try {
+            T result = read.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    @Override
+    public void landParcelSaved(LandParcel landParcel) {
+        invalidate(landParcel.getObjectID());
+    }
+
+    @Override
+    public void landParcelDeleted(long objectID) {
+        invalidate(objectID);
+    }
+
+    /**
+     * Forgets the reads in flight of the Land Parcel and of every page, as any page may list it or count it.
+     */
+    private void invalidate(long objectID) {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        inFlight.remove(new LandParcelKey(objectID));
+        inFlight.keySet().removeIf(PageKey.class::isInstance);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "landParcel", "executed", landParcelsExecuted);
+        bind(registry, "landParcel", "shared", landParcelsShared);
+        bind(registry, "page", "executed", pagesExecuted);
+        bind(registry, "page", "shared", pagesShared);
+        Gauge.builder("landparcel.coalescing.ratio", this, LandParcelReadCoalescer::getSharedRatio)
+                .description("Share of reads handed the result of an identical read in flight")
+                .register(registry);
+    }
+
+    private static void bind(MeterRegistry registry, String read, String outcome, AtomicLong count) {
+        FunctionCounter.builder("landparcel.coalescing.reads", count, AtomicLong::get)
+                .description("Number of reads run and of reads handed the result of an identical read in flight")
+                .tag("read", read)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * @return The share of reads which were handed the result of an identical read in flight, 0 before any read.
+     */
+    public double getSharedRatio() {
+        long shared = landParcelsShared.get() + pagesShared.get();
+        long total = shared + landParcelsExecuted.get() + pagesExecuted.get();
+        return total == 0 ? 0 : (double) shared / total;
+    }
+
+    private record LandParcelKey(long objectID) {}
+
+    private record PageKey(long after, int pageSize) {}
+}
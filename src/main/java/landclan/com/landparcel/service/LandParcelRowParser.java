@@ -0,0 +1,241 @@
+package landclan.com.landparcel.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+
+/**
+ * Turns a single CSV line or GeoJSON feature into a Land Parcel which the database will accept, used by the parsing stage
+ * of {@link LandParcelImporter}. Every method throws IllegalArgumentException with a message fit for the error report
+ * when the row cannot be imported.
+ * <p>
+ * CSV files need a header naming the columns name, status and area, optionally constraints and boundary in any order,
+ * with the boundary as a WKT POLYGON. GeoJSON files hold a FeatureCollection whose features have those properties and
+ * an optional Polygon geometry. Holes are not supported and the closing vertex of a ring is dropped.
+ */
+final class LandParcelRowParser {
+
+    static final int MAX_NAME_LENGTH = 100;
+
+    /**
+     * The boundary column holds at most 1MB of packed x,y doubles.
+     */
+    static final int MAX_VERTICES = 1048576 / (2 * Double.BYTES);
+
+    private static final String[] CSV_COLUMNS = {"name", "status", "area", "constraints", "boundary"};
+
+    private LandParcelRowParser() {}
+
+    /**
+     * @param header the first line of a CSV file.
+     * @return The position of the name, status, area, constraints and boundary columns in that order, -1 for optional columns not present.
+     * @throws IllegalArgumentException If the header does not name the columns name, status and area.
+     */
+    static int[] csvColumns(String header) {
+        List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            positions.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        int[] columns = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = positions.getOrDefault(CSV_COLUMNS[i], -1);
+        }
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new IllegalArgumentException("The CSV header must name the columns name, status and area.");
+        }
+        return columns;
+    }
+
+    static LandParcel fromCsv(String line, int[] columns) {
+        List<String> fields = splitCsv(line);
+        LandParcel landParcel = new LandParcel();
+        landParcel.setName(field(fields, columns[0]));
+        landParcel.setStatus(status(field(fields, columns[1])));
+        landParcel.setArea(area(field(fields, columns[2])));
+        landParcel.setConstraints(constraints(field(fields, columns[3])));
+        String boundary = field(fields, columns[4]);
+        landParcel.setBoundary(boundary == null || boundary.isBlank() ? null : fromWkt(boundary));
+        return validate(landParcel);
+    }
+
+    static LandParcel fromFeature(JsonNode feature) {
+        JsonNode properties = feature.path("properties");
+        if (!properties.isObject()) {
+            throw new IllegalArgumentException("The feature has no properties.");
+        }
+
+        LandParcel landParcel = new LandParcel();
+        landParcel.setName(properties.hasNonNull("name") ? properties.get("name").asText() : null);
+        landParcel.setStatus(status(properties.hasNonNull("status") ? properties.get("status").asText() : null));
+        JsonNode area = properties.path("area");
+        landParcel.setArea(area.isNumber() ? area.doubleValue() : area(area.isTextual() ? area.asText() : null));
+        JsonNode constraints = properties.path("constraints");
+        landParcel.setConstraints(constraints.isBoolean() ? constraints.booleanValue() : constraints(constraints.isTextual() ? constraints.asText() : null));
+        landParcel.setBoundary(fromGeometry(feature.path("geometry")));
+        return validate(landParcel);
+    }
+
+    private static LandParcel validate(LandParcel landParcel) {
+        if (landParcel.getName() == null || landParcel.getName().isBlank()) {
+            throw new IllegalArgumentException("The name is missing.");
+        }
+        if (landParcel.getName().length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("The name is longer than "+MAX_NAME_LENGTH+" characters.");
+        }
+        if (!Double.isFinite(landParcel.getArea()) || landParcel.getArea() < 0) {
+            throw new IllegalArgumentException("The area "+landParcel.getArea()+" is not a positive number.");
+        }
+        if (landParcel.getBoundary() != null && landParcel.getBoundary().vertexCount() > MAX_VERTICES) {
+            throw new IllegalArgumentException("The boundary has more than "+MAX_VERTICES+" vertices.");
+        }
+        return landParcel;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        return fields.get(column);
+    }
+
+    private static Status status(String status) {
+        if (status == null || status.isBlank()) {
+            throw new IllegalArgumentException("The status is missing.");
+        }
+        try {
+            return Status.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The status "+status+" is not one of "+Arrays.toString(Status.values())+".");
+        }
+    }
+
+    private static double area(String area) {
+        if (area == null || area.isBlank()) {
+            throw new IllegalArgumentException("The area is missing.");
+        }
+        try {
+            return Double.parseDouble(area.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The area "+area+" is not a number.");
+        }
+    }
+
+    private static boolean constraints(String constraints) {
+        if (constraints == null || constraints.isBlank()) {
+            return false;
+        }
+        return switch (constraints.trim().toLowerCase(Locale.ROOT)) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("The constraints "+constraints+" is not true or false.");
+        };
+    }
+
+    /**
+     * @param wkt a polygon such as POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0)).
+     */
+    static Polygon fromWkt(String wkt) {
+        String text = wkt.trim();
+        int open = text.indexOf("((");
+        int close = text.lastIndexOf("))");
+        if (!text.regionMatches(true, 0, "POLYGON", 0, 7) || open < 0 || close < open) {
+            throw new IllegalArgumentException("The boundary is not a WKT POLYGON.");
+        }
+        String ring = text.substring(open + 2, close);
+        if (ring.contains("(") || ring.contains(")")) {
+            throw new IllegalArgumentException("Boundaries with holes are not supported.");
+        }
+
+        String[] vertices = ring.split(",");
+        double[] coordinates = new double[vertices.length * 2];
+        for (int i = 0; i < vertices.length; i++) {
+            String[] xy = vertices[i].trim().split("\\s+");
+            if (xy.length < 2) {
+                throw new IllegalArgumentException("The boundary vertex "+vertices[i].trim()+" is not an x y pair.");
+            }
+            try {
+                coordinates[i * 2] = Double.parseDouble(xy[0]);
+                coordinates[i * 2 + 1] = Double.parseDouble(xy[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The boundary vertex "+vertices[i].trim()+" is not an x y pair.");
+            }
+        }
+        return polygon(coordinates);
+    }
+
+    private static Polygon fromGeometry(JsonNode geometry) {
+        if (geometry.isMissingNode() || geometry.isNull()) {
+            return null;
+        }
+        if (!"Polygon".equals(geometry.path("type").asText())) {
+            throw new IllegalArgumentException("The geometry "+geometry.path("type").asText()+" is not a Polygon.");
+        }
+        JsonNode rings = geometry.path("coordinates");
+        if (rings.size() != 1) {
+            throw new IllegalArgumentException(rings.size() == 0 ? "The Polygon has no coordinates." : "Boundaries with holes are not supported.");
+        }
+
+        JsonNode ring = rings.get(0);
+        double[] coordinates = new double[ring.size() * 2];
+        for (int i = 0; i < ring.size(); i++) {
+            JsonNode position = ring.get(i);
+            if (position.size() < 2 || !position.get(0).isNumber() || !position.get(1).isNumber()) {
+                throw new IllegalArgumentException("The Polygon position "+position+" is not an [x, y] pair.");
+            }
+            coordinates[i * 2] = position.get(0).doubleValue();
+            coordinates[i * 2 + 1] = position.get(1).doubleValue();
+        }
+        return polygon(coordinates);
+    }
+
+    private static Polygon polygon(double[] coordinates) {
+        int length = coordinates.length;
+        if (length > 6 && coordinates[0] == coordinates[length - 2] && coordinates[1] == coordinates[length - 1]) {
+            coordinates = Arrays.copyOf(coordinates, length - 2);
+        }
+        return new Polygon(coordinates);
+    }
+
+    /**
+     * Splits a line of RFC 4180 CSV, quoted fields may contain commas and doubled quotes but not line breaks.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("A quoted field is not closed, quoted fields cannot span lines.");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,97 @@
+package landclan.com.landparcel.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.Writer;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Polygon;
+
+/**
+ * Writes Land Parcels as CSV lines or GeoJSON features for {@link LandParcelExporter}, in the forms read back by
+ * {@link LandParcelRowParser} so an export can be imported again. Both forms close the boundary ring by repeating its
+ * first vertex as WKT and GeoJSON expect.
+ */
+final class LandParcelRowWriter {
+
+    static final String CSV_HEADER = "objectID,name,status,area,constraints,boundary,version,changeSeq\n";
+
+    private LandParcelRowWriter() {}
+
+    static void writeCsv(Writer out, LandParcel landParcel) throws IOException {
+        out.write(Long.toString(landParcel.getObjectID()));
+        out.write(',');
+        writeCsvField(out, landParcel.getName());
+        out.write(',');
+        out.write(landParcel.getStatus().name());
+        out.write(',');
+        out.write(Double.toString(landParcel.getArea()));
+        out.write(',');
+        out.write(Boolean.toString(landParcel.isConstraints()));
+        out.write(',');
+        Polygon boundary = landParcel.getBoundary();
+        if (boundary != null) {
+            out.write("\"POLYGON ((");
+            for (int i = 0; i <= boundary.vertexCount(); i++) {
+                int vertex = i % boundary.vertexCount();
+                if (i > 0) {
+                    out.write(", ");
+                }
+                out.write(Double.toString(boundary.getX(vertex)));
+                out.write(' ');
+                out.write(Double.toString(boundary.getY(vertex)));
+            }
+            out.write("))\"");
+        }
+        out.write(',');
+        out.write(Long.toString(landParcel.getVersion()));
+        out.write(',');
+        out.write(Long.toString(landParcel.getChangeSeq()));
+        out.write('\n');
+    }
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    static void writeFeature(JsonGenerator generator, LandParcel landParcel) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "Feature");
+        generator.writeNumberField("id", landParcel.getObjectID());
+        generator.writeObjectFieldStart("properties");
+        generator.writeNumberField("objectID", landParcel.getObjectID());
+        generator.writeStringField("name", landParcel.getName());
+        generator.writeStringField("status", landParcel.getStatus().name());
+        generator.writeNumberField("area", landParcel.getArea());
+        generator.writeBooleanField("constraints", landParcel.isConstraints());
+        generator.writeNumberField("version", landParcel.getVersion());
+        generator.writeNumberField("changeSeq", landParcel.getChangeSeq());
+        generator.writeEndObject();
+
+        Polygon boundary = landParcel.getBoundary();
+        if (boundary == null) {
+            generator.writeNullField("geometry");
+        } else {
+            generator.writeObjectFieldStart("geometry");
+            generator.writeStringField("type", "Polygon");
+            generator.writeArrayFieldStart("coordinates");
+            generator.writeStartArray();
+            for (int i = 0; i <= boundary.vertexCount(); i++) {
+                int vertex = i % boundary.vertexCount();
+                generator.writeStartArray();
+                generator.writeNumber(boundary.getX(vertex));
+                generator.writeNumber(boundary.getY(vertex));
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+}
@@ -1,13 +1,33 @@
 package landclan.com.landparcel.service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelDelta;
+import landclan.com.landparcel.domain.LandParcelOperation;
+import landclan.com.landparcel.domain.LandParcelOperationResult;
 import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelSearchCriteria;
+import landclan.com.landparcel.domain.LandParcelSearchResponse;
+import landclan.com.landparcel.domain.LandParcelView;
 
 public interface LandParcelService {
-    LandParcelResponse getLandParcels();
-    Optional<LandParcel> getLandParcel(Long id);
+    int DEFAULT_PAGE_SIZE = 100;
+    int MAX_PAGE_SIZE = 1000;
+    
+    LandParcelResponse getLandParcels(Long after, int limit);
+    void streamLandParcels(Consumer<LandParcel> consumer);
+    LandParcelSearchResponse searchLandParcels(LandParcelSearchCriteria criteria, String after, int limit);
+    Optional<LandParcelView> getLandParcel(Long id);
+    List<LandParcelView> getLandParcels(Collection<Long> ids);
+    LandParcelDelta getLandParcelChanges(long since, int limit);
     LandParcel saveLandParcel(LandParcel landParcel);
+    List<LandParcel> saveLandParcels(List<LandParcel> landParcels);
     LandParcel updateLandParcel(LandParcel landParcel);
+    LandParcel updateLandParcel(LandParcel landParcel, Long expectedVersion);
+    List<LandParcel> updateLandParcels(List<LandParcel> landParcels);
     void deleteLandParcel(Long id);
+    List<LandParcelOperationResult> applyLandParcelOperations(List<LandParcelOperation> operations);
 }
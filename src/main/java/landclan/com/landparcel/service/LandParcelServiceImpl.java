@@ -1,35 +1,253 @@
 package landclan.com.landparcel.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelDelta;
+import landclan.com.landparcel.domain.LandParcelOperation;
+import landclan.com.landparcel.domain.LandParcelOperationResult;
 import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelSearchCriteria;
+import landclan.com.landparcel.domain.LandParcelSearchResponse;
+import landclan.com.landparcel.domain.LandParcelTombstone;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.OperationType;
 import landclan.com.landparcel.exception.LandParcelNotFoundException;
+import landclan.com.landparcel.exception.LandParcelVersionMismatchException;
+import landclan.com.landparcel.repo.LandParcelChangeSequence;
 import landclan.com.landparcel.repo.LandParcelRepository;
+import landclan.com.landparcel.repo.LandParcelSpecifications;
+import landclan.com.landparcel.repo.LandParcelStore;
+import landclan.com.landparcel.repo.LandParcelTombstoneRepository;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Methods for CRUD operations for Land Parcels.
+ * Every method is timed by the landparcel.service timer tagged with the method name and any exception thrown.
  * @author Stefanos Vafiadis
  * @since 1.0
  */
 @Service
+@Timed(value = "landparcel.service", description = "Time spent in LandParcelService methods")
 public class LandParcelServiceImpl implements LandParcelService {
     
     @Autowired
     LandParcelRepository landParcelRepository;
     
+    @Autowired
+    LandParcelTombstoneRepository tombstoneRepository;
+    
+    @Autowired
+    LandParcelChangeSequence changeSequence;
+    
+    @PersistenceContext
+    EntityManager entityManager;
+    
+    @Autowired
+    LandParcelCache landParcelCache;
+    
+    @Autowired
+    LandParcelStore landParcelStore;
+    
+    @Autowired
+    LandParcelChangePublisher changePublisher;
+    
+    @Autowired
+    LandParcelReadCoalescer readCoalescer;
+    
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    
+    @Value("${landparcel.bulk.batch-size:50}")
+    int batchSize;
+    
+    /**
+     * @throws IllegalArgumentException If landparcel.bulk.batch-size is not positive, found at startup rather than by the first bulk insert.
+     */
+    @PostConstruct
+    void checkBatchSize() {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("landparcel.bulk.batch-size must be at least 1 but is " + batchSize + ".");
+        }
+    }
+    
+    /**
+     * Returns a single keyset page of Land Parcels ordered by objectID.
+     * One extra row is read to find out whether a further page exists without a second query.
+     * The page and the total are read in one read only transaction as {@link LandParcelView} projections, concurrent
+     * requests for the same page share one read through {@link LandParcelReadCoalescer} and only that read opens a
+     * transaction.
+     * @param after the objectID of the last Land Parcel of the previous page, null for the first page.
+     * @param limit the page size requested, capped at {@value #MAX_PAGE_SIZE}.
+     * @return The page of Land Parcels, the cursor for the next page and the total number of Land Parcels.
+     */
     @Override
-    public LandParcelResponse getLandParcels() {
-        LandParcelResponse response = new LandParcelResponse();
-        response.setLandParcels(landParcelRepository.findAll());
-        return response;
+    public LandParcelResponse getLandParcels(Long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        long cursor = after == null ? 0L : after;
+        
+        return readCoalescer.getLandParcels(cursor, pageSize, () -> readOnlyTransaction().execute(status -> {
+            List<LandParcelView> landParcels = landParcelRepository.findViewsAfter(cursor, Limit.of(pageSize + 1));
+            Long nextCursor = null;
+            if (landParcels.size() > pageSize) {
+                landParcels = landParcels.subList(0, pageSize);
+                nextCursor = landParcels.get(pageSize - 1).objectID();
+            }
+            
+            return new LandParcelResponse(landParcels, nextCursor, landParcelRepository.count());
+        }));
     }
     
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+    
+    /**
+     * Passes every Land Parcel to the consumer in objectID order as it is read from the database cursor.
+     * Each Land Parcel is detached once consumed so the persistence context, and therefore the heap used, stays constant.
+     * @param consumer called once for each Land Parcel, it must not keep hold of the Land Parcels passed to it.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamLandParcels(Consumer<LandParcel> consumer) {
+        try (Stream<LandParcel> landParcels = landParcelRepository.streamAllByOrderByObjectIDAsc()) {
+            landParcels.forEach(landParcel -> {
+                consumer.accept(landParcel);
+                entityManager.detach(landParcel);
+            });
+        }
+    }
+    
+    /**
+     * Returns a single page of the Land Parcels matching all the filters provided, read with one SQL query.
+     * Pages are read by keyset on the sort field followed by objectID so that later pages cost the same as the first.
+     * The read only transaction loads the Land Parcels without keeping a dirty checking snapshot of them.
+     * @param criteria the filters and sort order, the sort field may be one of objectID, name, status or area and defaults to objectID.
+     * @param after the cursor returned with the previous page, null for the first page.
+     * @param limit the page size requested, capped at {@value #MAX_PAGE_SIZE}.
+     * @return The page of Land Parcels and the cursor for the next page.
+     * @throws IllegalArgumentException If the sort order or cursor is not valid.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public LandParcelSearchResponse searchLandParcels(LandParcelSearchCriteria criteria, String after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        Sort sort = parseSort(criteria.getSort());
+        ScrollPosition position = after == null ? ScrollPosition.keyset() : SearchCursor.decode(after);
+        
+        Window<LandParcel> window = landParcelRepository.findBy(LandParcelSpecifications.matching(criteria),
+                query -> query.sortBy(sort).limit(pageSize).scroll(position));
+        
+        String nextCursor = window.hasNext() && !window.isEmpty() ? SearchCursor.encode(window.positionAt(window.size() - 1)) : null;
+        return new LandParcelSearchResponse(window.getContent(), nextCursor);
+    }
+    
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("objectID");
+        }
+        
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!List.of("objectID", "name", "status", "area").contains(property) || parts.length > 2) {
+            throw new IllegalArgumentException("Sort "+sort+" is not valid.");
+        }
+        
+        Sort.Direction direction = parts.length == 2 ? Sort.Direction.fromString(parts[1].trim().toUpperCase(Locale.ROOT)) : Sort.Direction.ASC;
+        return Sort.by(direction, property);
+    }
+    
+    /**
+     * Land Parcels are served from {@link LandParcelCache} and only read when not cached, from {@link LandParcelStore}
+     * when it is enabled or else from the database. Concurrent requests for the same Land Parcel share one lookup
+     * through {@link LandParcelReadCoalescer}.
+     * @param id the objectID of the Land Parcel to be found.
+     * @return The Land Parcel found.
+     */
     @Override
-    public Optional<LandParcel> getLandParcel(Long id) {
-        return landParcelRepository.findById(id);
+    public Optional<LandParcelView> getLandParcel(Long id) {
+        return readCoalescer.getLandParcel(id, () -> landParcelCache.get(id, landParcelStore.isReadable() ? landParcelStore::get : landParcelRepository::findViewById));
+    }
+    
+    /**
+     * Reads the Land Parcels in one query, used for the objectIDs found by the in-memory indexes.
+     * @param ids the objectIDs of the Land Parcels to be found.
+     * @return The Land Parcels found in ascending objectID order, objectIDs not found are left out.
+     */
+    @Override
+    public List<LandParcelView> getLandParcels(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return landParcelRepository.findViewsById(ids);
+    }
+    
+    /**
+     * Returns the Land Parcels created, updated and deleted after a change sequence, oldest change first.
+     * Land Parcels and tombstones are each read by a range scan of their change sequence index limited to one more than
+     * the page, the two are then merged by change sequence so a page ends at the same change sequence for both.
+     * Only changes up to {@link LandParcelChangeSequence#getCommitted()} are read so a change committed later can never
+     * have a lower change sequence than the nextSince returned.
+     * @param since the nextSince of the previous response, 0 for every Land Parcel.
+     * @param limit the maximum number of changes requested, capped at {@value #MAX_PAGE_SIZE}.
+     * @return The changes, the change sequence to read the following changes from and whether more are waiting.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public LandParcelDelta getLandParcelChanges(long since, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        long committed = changeSequence.getCommitted();
+        boolean reset = since > committed;
+        long from = reset ? 0L : since;
+        
+        List<LandParcelView> changed = landParcelRepository.findViewsChangedBetween(from, committed, Limit.of(pageSize + 1));
+        List<LandParcelTombstone> tombstones = tombstoneRepository.findChangedBetween(from, committed, Limit.of(pageSize + 1));
+        
+        List<LandParcelView> landParcels = new ArrayList<>();
+        List<Long> deletedObjectIDs = new ArrayList<>();
+        int c = 0, t = 0;
+        long last = from;
+        while (c + t < pageSize && (c < changed.size() || t < tombstones.size())) {
+            if (t == tombstones.size() || (c < changed.size() && changed.get(c).changeSeq() < tombstones.get(t).getChangeSeq())) {
+                LandParcelView landParcel = changed.get(c++);
+                landParcels.add(landParcel);
+                last = landParcel.changeSeq();
+            } else {
+                LandParcelTombstone tombstone = tombstones.get(t++);
+                deletedObjectIDs.add(tombstone.getObjectID());
+                last = tombstone.getChangeSeq();
+            }
+        }
+        
+        boolean hasMore = c < changed.size() || t < tombstones.size();
+        return new LandParcelDelta(landParcels, deletedObjectIDs, hasMore ? last : committed, hasMore, reset);
     }
     
     /**
@@ -41,7 +259,37 @@ public class LandParcelServiceImpl implements LandParcelService {
     public LandParcel saveLandParcel(LandParcel newLandParcel) {
         LandParcel landParcel = new LandParcel();
         BeanUtils.copyProperties(newLandParcel, landParcel);
-        return landParcelRepository.save(landParcel);
+        landParcel = landParcelRepository.save(landParcel);
+        changePublisher.saved(landParcel);
+        return landParcel;
+    }
+    
+    /**
+     * Creates all the Land Parcels provided in a single transaction.
+     * The persistence context is flushed and cleared every landparcel.bulk.batch-size Land Parcels so the inserts are
+     * sent as JDBC batches of that size and the memory used does not grow with the number of Land Parcels.
+     * @param newLandParcels should each have all properties assigned as all the db table has been set to NOT NULL for all fields.
+     * @return The Land Parcels created in the database in the order provided.
+     */
+    @Override
+    @Transactional
+    public List<LandParcel> saveLandParcels(List<LandParcel> newLandParcels) {
+        List<LandParcel> landParcels = new ArrayList<>(newLandParcels.size());
+        
+        for (LandParcel newLandParcel : newLandParcels) {
+            LandParcel landParcel = new LandParcel();
+            BeanUtils.copyProperties(newLandParcel, landParcel);
+            entityManager.persist(landParcel);
+            landParcels.add(landParcel);
+            changePublisher.saved(landParcel);
+            
+            if (landParcels.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        
+        return landParcels;
     }
     
     /**
@@ -49,36 +297,170 @@ public class LandParcelServiceImpl implements LandParcelService {
      * @param updatedLandParcel should have all properties assigned.
      * @return The Land Parcel updated in the database.
      * @throws LandParcelNotFoundException If the objectID is not found in the database.
+     * @throws OptimisticLockingFailureException If the Land Parcel was updated by another request while this update was applied.
      */
     @Override
     public LandParcel updateLandParcel(LandParcel updatedLandParcel) {
-        Optional<LandParcel> existingLandParcel = getLandParcel(updatedLandParcel.getObjectID());
+        return updateLandParcel(updatedLandParcel, null);
+    }
+    
+    /**
+     * The stored version is compared before any change is made and Hibernate compares it again as the update is written,
+     * so an update committed by another request in between also fails.
+     * @param updatedLandParcel should have all properties assigned.
+     * @param expectedVersion the version of the Land Parcel the changes were made to, null to update whichever version is stored.
+     * @return The Land Parcel updated in the database.
+     * @throws LandParcelNotFoundException If the objectID is not found in the database.
+     * @throws LandParcelVersionMismatchException If the Land Parcel is not at the version expected.
+     * @throws OptimisticLockingFailureException If no version was expected and the Land Parcel was updated by another request while this update was applied.
+     */
+    @Override
+    public LandParcel updateLandParcel(LandParcel updatedLandParcel, Long expectedVersion) {
+        Optional<LandParcel> existingLandParcel = landParcelRepository.findById(updatedLandParcel.getObjectID());
         
         if (existingLandParcel.isPresent()) {
             LandParcel landParcel = existingLandParcel.get();
-            landParcel.setName(updatedLandParcel.getName());
-            landParcel.setStatus(updatedLandParcel.getStatus());
-            landParcel.setArea(updatedLandParcel.getArea());
-            landParcel.setConstraints(updatedLandParcel.isConstraints());
-            return landParcelRepository.save(landParcel);
+            if (expectedVersion != null && landParcel.getVersion() != expectedVersion) {
+                throw new LandParcelVersionMismatchException("Land Parcel with object ID:"+landParcel.getObjectID()+" is at version "+landParcel.getVersion()+" not "+expectedVersion+".");
+            }
+            applyChanges(updatedLandParcel, landParcel);
+            try {
+                landParcel = landParcelRepository.save(landParcel);
+            } catch (OptimisticLockingFailureException e) {
+                if (expectedVersion == null) {
+                    throw e;
+                }
+                throw new LandParcelVersionMismatchException("Land Parcel with object ID:"+landParcel.getObjectID()+" was updated by another request.");
+            }
+            changePublisher.saved(landParcel);
+            return landParcel;
         } else {
             throw new LandParcelNotFoundException("Land Parcel with object ID:"+updatedLandParcel.getObjectID()+" not found.");
         }
     }
     
     /**
-     * 
+     * Applies the changes to every Land Parcel provided in a single transaction, the group commit of {@link LandParcelWriteBehind}.
+     * The Land Parcels are loaded with one IN query and the updates are written by Hibernate in JDBC batches when the
+     * transaction commits.
+     * @param updatedLandParcels should each have all properties assigned, with at most one per objectID.
+     * @return The Land Parcels updated, an objectID which is not found in the database is left out.
+     * @throws OptimisticLockingFailureException If one of the Land Parcels was updated by another request meanwhile, none of the updates are applied.
+     */
+    @Override
+    @Transactional
+    public List<LandParcel> updateLandParcels(List<LandParcel> updatedLandParcels) {
+        Map<Long, LandParcel> changes = new HashMap<>();
+        for (LandParcel updatedLandParcel : updatedLandParcels) {
+            changes.put(updatedLandParcel.getObjectID(), updatedLandParcel);
+        }
+        
+        List<LandParcel> landParcels = landParcelRepository.findAllById(changes.keySet());
+        for (LandParcel landParcel : landParcels) {
+            applyChanges(changes.get(landParcel.getObjectID()), landParcel);
+            changePublisher.saved(landParcel);
+        }
+        return landParcels;
+    }
+    
+    /**
+     * The Land Parcel is replaced by a {@link LandParcelTombstone} in the same transaction.
      * @param id should be set to the objectID of the Land Parcel to be deleted.
      * @throws LandParcelNotFoundException If the objectID is not found in the database.
      */
     @Override
+    @Transactional
     public void deleteLandParcel(Long id) {
-        Optional<LandParcel> existingLandParcel = getLandParcel(id);
+        Optional<LandParcel> existingLandParcel = landParcelRepository.findById(id);
         
         if (existingLandParcel.isPresent()) {
             landParcelRepository.deleteById(id);
+            LandParcelTombstone tombstone = new LandParcelTombstone(id);
+            entityManager.persist(tombstone);
+            changePublisher.deleted(tombstone);
         } else {
             throw new LandParcelNotFoundException("Land Parcel with object ID:"+id+" not found for deletion.");
         }
     };
+    
+    /**
+     * Applies an ordered list of create, update and delete operations in a single transaction.
+     * Every Land Parcel referenced by an update or delete is loaded with one IN query up front, the changes are then
+     * written by Hibernate in JDBC batches when the transaction commits.
+     * Operations which cannot be applied, such as an update of an objectID which does not exist, are reported in their
+     * result and do not stop the remaining operations. If the database rejects the changes none of them are applied.
+     * @param operations the operations in the order they should be applied.
+     * @return One result per operation in the same order, holding the http code the equivalent single request would have returned.
+     */
+    @Override
+    @Transactional
+    public List<LandParcelOperationResult> applyLandParcelOperations(List<LandParcelOperation> operations) {
+        Set<Long> ids = new HashSet<>();
+        for (LandParcelOperation operation : operations) {
+            Long id = operation.getTargetObjectID();
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        
+        Map<Long, LandParcel> existingLandParcels = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (LandParcel landParcel : landParcelRepository.findAllById(ids)) {
+                existingLandParcels.put(landParcel.getObjectID(), landParcel);
+            }
+        }
+        
+        List<LandParcelOperationResult> results = new ArrayList<>(operations.size());
+        for (int index = 0; index < operations.size(); index++) {
+            results.add(applyLandParcelOperation(index, operations.get(index), existingLandParcels));
+        }
+        return results;
+    }
+    
+    private LandParcelOperationResult applyLandParcelOperation(int index, LandParcelOperation operation, Map<Long, LandParcel> existingLandParcels) {
+        OperationType type = operation.getType();
+        Long id = operation.getTargetObjectID();
+        
+        if (type == null || (type != OperationType.DELETE && operation.getLandParcel() == null) || (type == OperationType.DELETE && id == null)) {
+            return new LandParcelOperationResult(index, type, id, HttpStatus.BAD_REQUEST.value(), "Operation "+index+" is missing its type, land parcel or objectID.", null);
+        }
+        
+        switch (type) {
+            case CREATE -> {
+                LandParcel landParcel = new LandParcel();
+                BeanUtils.copyProperties(operation.getLandParcel(), landParcel);
+                entityManager.persist(landParcel);
+                changePublisher.saved(landParcel);
+                return new LandParcelOperationResult(index, type, landParcel.getObjectID(), HttpStatus.CREATED.value(), null, landParcel);
+            }
+            case UPDATE -> {
+                LandParcel landParcel = existingLandParcels.get(id);
+                if (landParcel == null) {
+                    return new LandParcelOperationResult(index, type, id, HttpStatus.NOT_FOUND.value(), "Land Parcel with object ID:"+id+" not found.", null);
+                }
+                applyChanges(operation.getLandParcel(), landParcel);
+                changePublisher.saved(landParcel);
+                return new LandParcelOperationResult(index, type, id, HttpStatus.OK.value(), null, landParcel);
+            }
+            default -> {
+                LandParcel landParcel = existingLandParcels.remove(id);
+                if (landParcel == null) {
+                    return new LandParcelOperationResult(index, type, id, HttpStatus.NOT_FOUND.value(), "Land Parcel with object ID:"+id+" not found for deletion.", null);
+                }
+                entityManager.remove(landParcel);
+                LandParcelTombstone tombstone = new LandParcelTombstone(id);
+                entityManager.persist(tombstone);
+                changePublisher.deleted(tombstone);
+                return new LandParcelOperationResult(index, type, id, HttpStatus.OK.value(), null, null);
+            }
+        }
+    }
+    
+    private static void applyChanges(LandParcel source, LandParcel landParcel) {
+        landParcel.setName(source.getName());
+        landParcel.setStatus(source.getStatus());
+        landParcel.setArea(source.getArea());
+        landParcel.setConstraints(source.isConstraints());
+        landParcel.setBoundary(source.getBoundary());
+    }
 }
@@ -0,0 +1,346 @@
+package landclan.com.landparcel.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.exception.LandParcelNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional write-behind for updates of Land Parcels, enabled with landparcel.write-behind.enabled.
+ * <p>
+ * Updates are held in a queue of at most landparcel.write-behind.capacity Land Parcels in which a later update of a
+ * Land Parcel replaces the queued one, last write wins. The queue is written every landparcel.write-behind.flush-interval,
+ * or as soon as it holds landparcel.write-behind.flush-size Land Parcels, as a group commit: one transaction which loads
+ * every queued Land Parcel with a single query and writes the updates in JDBC batches, see
+ * {@link LandParcelService#updateLandParcels}. A caller finding the queue full waits until it has been taken for writing.
+ * If the group commit fails, for example because a Land Parcel was updated by another request meanwhile, its updates
+ * are applied one at a time so only the conflicting ones fail.
+ * <p>
+ * landparcel.write-behind.durability decides when an update is answered, see {@link Durability}, and
+ * landparcel.write-behind.ordering how other writes are ordered against the queue, see {@link Ordering}. The queue is
+ * written in full when the application shuts down and later updates are applied directly.
+ * @author Stefanos Vafiadis
+ * @since 1.0
+ */
+@Component
+public class LandParcelWriteBehind implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(LandParcelWriteBehind.class);
+
+    /**
+     * When an update given to {@link #update} counts as done.
+     */
+    public enum Durability {
+        /**
+         * Once it has been queued, an update queued but not yet written is lost if the process stops abruptly and an
+         * update of a Land Parcel which does not exist is only reported in the log and metrics.
+         */
+        ACKNOWLEDGED,
+        /**
+         * Once the group commit holding it has been committed, the update is as durable as a direct update. The queue is
+         * written as soon as the previous group commit has finished rather than every flush interval, so the updates
+         * arriving during one group commit are written together in the next.
+         */
+        COMMITTED
+    }
+
+    /**
+     * How writes made without the queue, such as creations, deletes and versioned updates, are ordered against queued
+     * updates. The order is kept by the callers of {@link #awaitQueuedUpdates}, the API and {@link LandParcelImporter},
+     * a write made directly through {@link LandParcelService} does not wait for the queue.
+     */
+    public enum Ordering {
+        /**
+         * A write of a Land Parcel with a queued update waits until the queue has been written, writes of other Land
+         * Parcels do not wait.
+         */
+        PER_PARCEL,
+        /**
+         * Every write waits until the queue has been written, so all writes are committed in the order they were accepted.
+         */
+        STRICT
+    }
+
+    private final LandParcelService landParcelService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int flushSize;
+    private final Durability durability;
+    private final Ordering ordering;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("landparcel-write-behind").daemon().factory());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Queued updates in the order their Land Parcels were first queued and the updates being written, guarded by lock.
+     */
+    private Map<Long, Pending> queued = new LinkedHashMap<>();
+    private Map<Long, Pending> writing = Map.of();
+    private boolean closed;
+    private boolean flushScheduled;
+    private final CountDownLatch drained = new CountDownLatch(1);
+
+    private final AtomicLong updatesQueued = new AtomicLong();
+    private final AtomicLong updatesCoalesced = new AtomicLong();
+    private final AtomicLong updatesCommitted = new AtomicLong();
+    private final AtomicLong updatesFailed = new AtomicLong();
+    private final AtomicLong groupCommits = new AtomicLong();
+
+    public LandParcelWriteBehind(LandParcelService landParcelService,
+            @Value("${landparcel.write-behind.enabled:false}") boolean enabled,
+            @Value("${landparcel.write-behind.capacity:10000}") int capacity,
+            @Value("${landparcel.write-behind.flush-size:500}") int flushSize,
+            @Value("${landparcel.write-behind.flush-interval:50ms}") Duration flushInterval,
+            @Value("${landparcel.write-behind.durability:ACKNOWLEDGED}") Durability durability,
+            @Value("${landparcel.write-behind.ordering:PER_PARCEL}") Ordering ordering) {
+        this.landParcelService = landParcelService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.flushSize = Math.min(flushSize, capacity);
+        this.durability = durability;
+        this.ordering = ordering;
+        if (enabled) {
+            long interval = flushInterval.toNanos();
+            flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Queues an update, or applies it directly when write-behind is disabled or once the queue has been written at shutdown.
+     * @param landParcel should have all properties assigned.
+     * @return Completed with the Land Parcel as committed, which holds the changes of a later update of the same Land
+     * Parcel if the two were written together, or with the exception of {@link LandParcelService#updateLandParcel}.
+     * @throws InterruptedException If interrupted while waiting for room in a full queue.
+     */
+    public CompletableFuture<LandParcel> update(LandParcel landParcel) throws InterruptedException {
+        if (!enabled) {
+            return updateDirectly(landParcel);
+        }
+        lock.lock();
+        try {
+            while (!closed && queued.size() >= capacity && !queued.containsKey(landParcel.getObjectID())) {
+                flusher.execute(this::flush);
+                notFull.await();
+            }
+            if (!closed) {
+                Pending pending = queued.get(landParcel.getObjectID());
+                if (pending != null) {
+                    pending.landParcel = landParcel;
+                    updatesCoalesced.incrementAndGet();
+                } else {
+                    pending = new Pending(landParcel);
+                    queued.put(landParcel.getObjectID(), pending);
+                    updatesQueued.incrementAndGet();
+                }
+                if (queued.size() == flushSize || (durability == Durability.COMMITTED && !flushScheduled)) {
+                    flushScheduled = true;
+                    flusher.execute(this::flush);
+                }
+                return pending.committed;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        drained.await();
+        return updateDirectly(landParcel);
+    }
+
+    private CompletableFuture<LandParcel> updateDirectly(LandParcel landParcel) {
+        try {
+            return CompletableFuture.completedFuture(landParcelService.updateLandParcel(landParcel));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits until the queue has been written if a write of the Land Parcels given must not overtake it under the
+     * configured {@link Ordering}. Called before any write which does not go through the queue.
+     * @param objectIDs the Land Parcels about to be written.
+     */
+    public void awaitQueuedUpdates(Collection<Long> objectIDs) throws InterruptedException {
+        lock.lock();
+        try {
+            if (queued.isEmpty() && writing.isEmpty()) {
+                return;
+            }
+            if (ordering == Ordering.PER_PARCEL && objectIDs.stream().noneMatch(id -> queued.containsKey(id) || writing.containsKey(id))) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        flushAndWait();
+    }
+
+    private void flushAndWait() throws InterruptedException {
+        try {
+            flusher.submit(this::flush).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (RejectedExecutionException e) {
+            drained.await();
+        }
+    }
+
+    /**
+     * Writes every queued update as one group commit, only ever run by the flusher thread.
+     */
+    private void flush() {
+        lock.lock();
+        try {
+            flushScheduled = false;
+            if (queued.isEmpty()) {
+                return;
+            }
+            writing = queued;
+            queued = new LinkedHashMap<>();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            List<LandParcel> landParcels = new ArrayList<>(writing.size());
+            for (Pending pending : writing.values()) {
+                landParcels.add(pending.landParcel);
+            }
+            Map<Long, LandParcel> committed = new HashMap<>();
+            try {
+                for (LandParcel landParcel : landParcelService.updateLandParcels(landParcels)) {
+                    committed.put(landParcel.getObjectID(), landParcel);
+                }
+                groupCommits.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.warn("Group commit of {} land parcel updates failed, applying them one at a time: {}", landParcels.size(), e.getMessage());
+                for (Pending pending : writing.values()) {
+                    try {
+                        LandParcel landParcel = landParcelService.updateLandParcel(pending.landParcel);
+                        committed.put(landParcel.getObjectID(), landParcel);
+                    } catch (RuntimeException failure) {
+                        fail(pending, failure);
+                    }
+                }
+            }
+            for (Map.Entry<Long, Pending> entry : writing.entrySet()) {
+                Pending pending = entry.getValue();
+                LandParcel landParcel = committed.get(entry.getKey());
+                if (landParcel != null) {
+                    updatesCommitted.incrementAndGet();
+                    pending.committed.complete(landParcel);
+                } else if (!pending.committed.isDone()) {
+                    fail(pending, new LandParcelNotFoundException("Land Parcel with object ID:"+entry.getKey()+" not found."));
+                }
+            }
+        } finally {
+            lock.lock();
+            try {
+                writing = Map.of();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void fail(Pending pending, RuntimeException failure) {
+        updatesFailed.incrementAndGet();
+        if (durability == Durability.ACKNOWLEDGED) {
+            log.warn("Queued update of land parcel {} was not applied: {}", pending.landParcel.getObjectID(), failure.getMessage());
+        }
+        pending.committed.completeExceptionally(failure);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, updatesQueued, "queued");
+        counter(registry, updatesCoalesced, "coalesced");
+        counter(registry, updatesCommitted, "committed");
+        counter(registry, updatesFailed, "failed");
+        FunctionCounter.builder("landparcel.write-behind.group-commits", groupCommits, AtomicLong::get)
+                .description("Number of group commits written")
+                .register(registry);
+        Gauge.builder("landparcel.write-behind.queued", this, LandParcelWriteBehind::queuedSize)
+                .description("Number of Land Parcels with a queued update")
+                .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, AtomicLong count, String outcome) {
+        FunctionCounter.builder("landparcel.write-behind.updates", count, AtomicLong::get)
+                .description("Number of updates given to the write-behind queue")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private int queuedSize() {
+        lock.lock();
+        try {
+            return queued.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the queue in full, updates arriving from now on are applied directly.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flushAndWait();
+            flusher.shutdown();
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } finally {
+            drained.countDown();
+        }
+    }
+
+    private static final class Pending {
+        private volatile LandParcel landParcel;
+        private final CompletableFuture<LandParcel> committed = new CompletableFuture<>();
+
+        Pending(LandParcel landParcel) {
+            this.landParcel = landParcel;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package landclan.com.landparcel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import landclan.com.landparcel.domain.Status;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+/**
+ * Encodes the keyset position of the last Land Parcel of a search page as an opaque URL safe string, and back.
+ * The position holds the value of the sort field and the objectID of that Land Parcel.
+ */
+final class SearchCursor {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private SearchCursor() {}
+    
+    static String encode(ScrollPosition position) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(keys));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Search cursor could not be encoded.", e);
+        }
+    }
+    
+    /**
+     * @throws IllegalArgumentException If the cursor was not produced by {@link #encode}.
+     */
+    static ScrollPosition decode(String cursor) {
+        Map<String, Object> keys;
+        try {
+            keys = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII)), new TypeReference<LinkedHashMap<String, Object>>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Search cursor "+cursor+" is not valid.", e);
+        }
+        
+        Map<String, Object> typedKeys = new LinkedHashMap<>();
+        try {
+            keys.forEach((field, value) -> typedKeys.put(field, switch (field) {
+                case "objectID" -> ((Number) value).longValue();
+                case "area" -> ((Number) value).doubleValue();
+                case "status" -> Status.valueOf((String) value);
+                case "name" -> (String) value;
+                default -> throw new IllegalArgumentException("Unknown field "+field);
+            }));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Search cursor "+cursor+" is not valid.", e);
+        }
+        return ScrollPosition.forward(typedKeys);
+    }
+}
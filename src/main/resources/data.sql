@@ -1,14 +1,31 @@
-CREATE SCHEMA `test`;
-USE `test`;
+CREATE SEQUENCE landParcel_seq START WITH 3 INCREMENT BY 50;
 
 CREATE TABLE landParcel (
-objectID BIGINT NOT NULL AUTO_INCREMENT,
+objectID BIGINT NOT NULL,
 name varchar(100) NOT NULL,
 status ENUM('SAVED', 'SHORT_LISTED', 'UNDER_CONSTRUCTION', 'APPROVED') NOT NULL,
 area DOUBLE PRECISION NOT NULL,
 constraints boolean,
+boundary VARBINARY(1048576),
+minX DOUBLE PRECISION,
+minY DOUBLE PRECISION,
+maxX DOUBLE PRECISION,
+maxY DOUBLE PRECISION,
+version BIGINT DEFAULT 0 NOT NULL,
+changeSeq BIGINT NOT NULL,
 PRIMARY KEY(objectID)
 );
 
-INSERT INTO landParcel (objectID,name,status,area,constraints) VALUES (1,'test','SAVED',23.5,true);
-INSERT INTO landParcel (objectID,name,status,area,constraints) VALUES (2,'test2','SHORT_LISTED',10.0,true);
\ No newline at end of file
+CREATE INDEX idx_landParcel_area ON landParcel(area);
+CREATE INDEX idx_landParcel_changeSeq ON landParcel(changeSeq);
+
+CREATE TABLE landParcelTombstone (
+objectID BIGINT NOT NULL,
+changeSeq BIGINT NOT NULL,
+PRIMARY KEY(objectID)
+);
+
+CREATE INDEX idx_landParcelTombstone_changeSeq ON landParcelTombstone(changeSeq, objectID);
+
+INSERT INTO landParcel (objectID,name,status,area,constraints,changeSeq) VALUES (1,'test','SAVED',23.5,true,1);
+INSERT INTO landParcel (objectID,name,status,area,constraints,changeSeq) VALUES (2,'test2','SHORT_LISTED',10.0,true,2);
\ No newline at end of file
@@ -1,13 +1,110 @@
 package landclan.com.landparcel;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
 class LandparcelApplicationTests {
+	
+	@Autowired
+	MockMvc mockMvc;
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	ObjectMapper objectMapper;
 
 	@Test
 	void contextLoads() {
 	}
+	
+	@Test
+	@DisplayName("Ensure request, service, repository, connection pool, cache and count metrics are exposed for Prometheus.")
+	void prometheusMetrics() throws Exception {
+		mockMvc.perform(get("/api/landParcel/1")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/landParcel/999")).andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/landParcel?limit=1")).andExpect(status().isOk());
+		
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(allOf(
+						containsString("http_server_requests_seconds_count{application=\"landparcel\",error=\"none\",exception=\"none\",method=\"GET\",outcome=\"SUCCESS\",status=\"204\",uri=\"/api/landParcel/{objectId}\",}"),
+						containsString("landparcel_service_seconds_count{application=\"landparcel\",class=\"landclan.com.landparcel.service.LandParcelServiceImpl\",exception=\"none\",method=\"getLandParcels\",}"),
+						containsString("spring_data_repository_invocations_seconds_count{application=\"landparcel\",exception=\"None\",method=\"findViewById\",repository=\"LandParcelRepository\",state=\"SUCCESS\",}"),
+						containsString("hikaricp_connections_active{application=\"landparcel\""),
+						containsString("cache_gets_total{application=\"landparcel\",cache=\"landParcels\""),
+						containsString("landparcel_index_size{application=\"landparcel\",index=\"LandParcelNameIndex\",}"),
+						containsString("landparcel_count{application=\"landparcel\",}"))));
+	}
+	
+	@Test
+	@DisplayName("Ensure a land parcel can be read as Smile or CBOR with the same properties as JSON.")
+	void binaryFormats() throws Exception {
+		byte[] smile = mockMvc.perform(get("/api/landParcel/2").accept("application/x-jackson-smile"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-jackson-smile"))
+				.andReturn().getResponse().getContentAsByteArray();
+		byte[] cbor = mockMvc.perform(get("/api/landParcel/2").accept("application/cbor"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/cbor"))
+				.andReturn().getResponse().getContentAsByteArray();
+		
+		assertEquals("test2", new SmileMapper().readTree(smile).get("name").asText());
+		assertEquals("SHORT_LISTED", new CBORMapper().readTree(cbor).get("status").asText());
+	}
+	
+	@Test
+	@DisplayName("Ensure creates, updates and deletes made through the service are returned once each by the delta read with an index range scan.")
+	void deltaSync() throws Exception {
+		long since = delta(0).get("nextSince").asLong();
+		String body = "{\"name\":\"Delta\",\"status\":\"SAVED\",\"area\":5.0,\"constraints\":false}";
+		long updated = objectMapper.readTree(mockMvc.perform(post("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString()).get("objectID").asLong();
+		long deleted = objectMapper.readTree(mockMvc.perform(post("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString()).get("objectID").asLong();
+		mockMvc.perform(put("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(body.replace("{", "{\"objectID\":"+updated+",").replace("Delta", "Updated")))
+				.andExpect(status().isOk());
+		mockMvc.perform(delete("/api/landParcel/"+deleted)).andExpect(status().isOk());
+		
+		JsonNode delta = delta(since);
+		
+		assertEquals(1, delta.get("landParcels").size());
+		assertEquals(updated, delta.get("landParcels").get(0).get("objectID").asLong());
+		assertEquals("Updated", delta.get("landParcels").get(0).get("name").asText());
+		assertEquals(deleted, delta.get("deletedObjectIDs").get(0).asLong());
+		assertEquals(since + 4, delta.get("nextSince").asLong());
+		assertEquals(0, delta(delta.get("nextSince").asLong()).get("landParcels").size());
+		String plan = jdbcTemplate.queryForObject("explain select objectID, name from landParcel where changeSeq > 1 and changeSeq <= 9 order by changeSeq fetch first 101 rows only", String.class);
+		assertTrue(plan.contains("IDX_LANDPARCEL_CHANGESEQ: CHANGESEQ >") && plan.contains("index sorted"), plan);
+	}
+	
+	private JsonNode delta(long since) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(get("/api/landParcel/delta").param("since", ""+since).param("limit", "1000"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+	}
 
 }
@@ -0,0 +1,124 @@
+package landclan.com.landparcel.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import landclan.com.landparcel.LandparcelApplication;
+import landclan.com.landparcel.service.LandParcelService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Has increasing numbers of concurrent clients read the first page of Land Parcels and a few Land Parcels by objectID,
+ * as map clients do when they load, each sending its next request as soon as the previous one was answered, against
+ * the application started once without read coalescing and once with it. Admission control is disabled for both.
+ * Reports the throughput, the latency percentiles, the errors and the share of reads which were coalesced.
+ * A first run which is not reported warms up the JVM so that neither mode is measured while it is being compiled.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+public class LandParcelCoalescingBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20000);
+    private static final int[] CONCURRENCY = {16, 256, 1024};
+    private static final int HOT_PARCELS = 4;
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmupSeconds", 5));
+    private static final Duration MEASURE = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+
+    @Test
+    public void compareWithAndWithoutCoalescing() throws Exception {
+        run(false, false);
+        run(false, true);
+        run(true, true);
+    }
+
+    private void run(boolean coalescing, boolean report) throws Exception {
+        String mode = coalescing ? "coalesced" : "uncoalesced";
+        String[] args = {"--server.port=0", "--spring.datasource.url=jdbc:h2:mem:" + mode, "--logging.level.root=WARN",
+                "--server.tomcat.accept-count=10000", "--server.tomcat.max-connections=10000", "--landparcel.admission.enabled=false",
+                "--landparcel.coalescing.enabled=" + coalescing};
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LandparcelApplication.class).run(args)) {
+            LandParcelService landParcelService = context.getBean(LandParcelService.class);
+            for (int loaded = 0; loaded < ROWS; loaded += 10_000) {
+                landParcelService.saveLandParcels(LandParcelInsertBenchmark.landParcels(Math.min(10_000, ROWS - loaded)));
+            }
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/landParcel";
+
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient httpClient = HttpClient.newBuilder().executor(clients).version(HttpClient.Version.HTTP_1_1).build();
+                for (int concurrency : CONCURRENCY) {
+                    drive(httpClient, clients, baseUrl, concurrency, WARMUP);
+                    Result result = drive(httpClient, clients, baseUrl, concurrency, MEASURE);
+                    if (!report) {
+                        continue;
+                    }
+                    System.out.printf("%s, %d concurrent: %.0f requests/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d errors, %.0f%% of reads coalesced%n",
+                            mode, concurrency, result.latencies.length / (double) MEASURE.toSeconds(), result.percentile(0.5),
+                            result.percentile(0.99), result.percentile(1.0), result.errors,
+                            100 * context.getBean(MeterRegistry.class).get("landparcel.coalescing.ratio").gauge().value());
+                }
+            }
+        }
+    }
+
+    private Result drive(HttpClient httpClient, ExecutorService clients, String baseUrl, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(clients.submit(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    int hot = ThreadLocalRandom.current().nextInt(HOT_PARCELS + 1);
+                    String uri = hot == 0 ? baseUrl + "?limit=100" : baseUrl + "/" + hot;
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(uri)).build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+        List<long[]> latencies = new ArrayList<>();
+        for (Future<long[]> worker : workers) {
+            latencies.add(worker.get());
+        }
+        return new Result(latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray(), errors.get());
+    }
+
+    private record Result(long[] latencies, long errors) {
+
+        double percentile(double fraction) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            return latencies[Math.min(latencies.length - 1, (int) (latencies.length * fraction))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package landclan.com.landparcel.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import landclan.com.landparcel.LandparcelApplication;
+import landclan.com.landparcel.domain.JobState;
+import landclan.com.landparcel.domain.Status;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Imports generated Land Parcels and compares reading all of them by paging through GET /api/landParcel with the first
+ * export to CSV, a download of the exported file and a repeated export of the unchanged Land Parcels.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+public class LandParcelExportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200000);
+    private static final int PAGE_SIZE = 1000;
+
+    @Test
+    public void compareExportWithPaging() throws Exception {
+        String[] properties = {"server.port=0", "spring.datasource.url=jdbc:h2:mem:export", "logging.level.root=WARN"};
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LandparcelApplication.class).properties(properties).run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/landParcel";
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            importLandParcels(httpClient, objectMapper, baseUrl);
+
+            long start = System.nanoTime();
+            long rows = 0;
+            String cursor = "";
+            do {
+                HttpResponse<byte[]> page = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "?limit=" + PAGE_SIZE + cursor)).build(), HttpResponse.BodyHandlers.ofByteArray());
+                JsonNode body = objectMapper.readTree(page.body());
+                rows += body.get("landParcels").size();
+                cursor = body.get("nextCursor").isNull() ? null : "&after=" + body.get("nextCursor").asLong();
+            } while (cursor != null);
+            System.out.printf("%-30s %d rows in %d ms%n", "GET /api/landParcel pages", rows, (System.nanoTime() - start) / 1_000_000);
+
+            for (String name : new String[] {"first export", "repeated export"}) {
+                start = System.nanoTime();
+                JsonNode status = awaitExport(httpClient, objectMapper, baseUrl);
+                long exportNanos = System.nanoTime() - start;
+                String id = status.get("id").asText();
+                HttpResponse<Path> download = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/export/" + id + "/download")).build(),
+                        HttpResponse.BodyHandlers.ofFile(Files.createTempFile("landparcel-export-benchmark-", ".csv.gz")));
+                long totalNanos = System.nanoTime() - start;
+                assertEquals(200, download.statusCode());
+                System.out.printf("%-30s %d rows, %d KB, export %d ms, with download %d ms%n", name, status.get("rowsWritten").asLong(),
+                        Files.size(download.body()) >> 10, exportNanos / 1_000_000, totalNanos / 1_000_000);
+                Files.delete(download.body());
+            }
+        }
+    }
+
+    private static void importLandParcels(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl) throws Exception {
+        Path csv = Files.createTempFile("landparcel-export-benchmark-", ".csv");
+        try {
+            Status[] statuses = Status.values();
+            try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+                writer.write("name,status,area,constraints,boundary\n");
+                for (int i = 0; i < ROWS; i++) {
+                    double x = i % 1000, y = i / 1000;
+                    writer.write("Parcel " + i + "," + statuses[i % statuses.length] + "," + (1.0 + (i % 1000) / 10.0) + "," + (i % 3 == 0)
+                            + ",\"POLYGON ((" + x + " " + y + ", " + (x + 0.9) + " " + y + ", " + (x + 0.9) + " " + (y + 0.9) + ", " + x + " " + (y + 0.9) + ", " + x + " " + y + "))\"\n");
+                }
+            }
+            HttpResponse<String> accepted = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/import"))
+                    .header("Content-Type", "text/csv").POST(HttpRequest.BodyPublishers.ofFile(csv)).build(), HttpResponse.BodyHandlers.ofString());
+            String id = objectMapper.readTree(accepted.body()).get("id").asText();
+            JsonNode status;
+            do {
+                Thread.sleep(100);
+                status = objectMapper.readTree(httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/import/" + id)).build(), HttpResponse.BodyHandlers.ofString()).body());
+            } while (status.get("finishedAt").isNull());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    private static JsonNode awaitExport(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl) throws Exception {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/export?format=csv"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode status = objectMapper.readTree(response.body());
+        String id = status.get("id").asText();
+        while (!status.get("state").asText().equals(JobState.COMPLETED.name())) {
+            assertNotEquals(JobState.FAILED.name(), status.get("state").asText(), status.toString());
+            Thread.sleep(20);
+            status = objectMapper.readTree(httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/export/" + id)).build(), HttpResponse.BodyHandlers.ofString()).body());
+        }
+        return status;
+    }
+}
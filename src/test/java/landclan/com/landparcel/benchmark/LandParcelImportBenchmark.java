@@ -0,0 +1,116 @@
+package landclan.com.landparcel.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import landclan.com.landparcel.LandparcelApplication;
+import landclan.com.landparcel.domain.FileFormat;
+import landclan.com.landparcel.domain.LandParcelImportStatus;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelImporter;
+import landclan.com.landparcel.service.LandParcelService;
+import landclan.com.landparcel.service.LandParcelWriteBehind;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Imports a generated CSV file of Land Parcels with square boundaries three ways: through the import pipeline with a
+ * service which discards the Land Parcels, showing how fast the file can be read and parsed, through POST /api/landParcel/import
+ * of the running server and, for a sample of the rows, one POST /api/landParcel per Land Parcel.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+public class LandParcelImportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200000);
+    private static final int SINGLE_ROWS = 2000;
+
+    @Test
+    public void compareImportWithParsingAndSingleInserts() throws Exception {
+        Path csv = Files.createTempFile("landparcel-import-benchmark-", ".csv");
+        try {
+            writeCsv(csv);
+            System.out.printf("%d rows, %d MB%n", ROWS, Files.size(csv) >> 20);
+
+            LandParcelImporter parseOnly = new LandParcelImporter(Mockito.mock(LandParcelService.class), Mockito.mock(LandParcelWriteBehind.class), new ObjectMapper(), 0, 1000, 10);
+            try (InputStream in = Files.newInputStream(csv)) {
+                long start = System.nanoTime();
+                String id = parseOnly.submit(FileFormat.CSV, in).getId();
+                LandParcelImportStatus status = awaitFinished(() -> parseOnly.getStatus(id).orElseThrow());
+                report("read and parse only", status, System.nanoTime() - start);
+            } finally {
+                parseOnly.shutdown();
+            }
+
+            String[] properties = {"server.port=0", "spring.datasource.url=jdbc:h2:mem:import", "logging.level.root=WARN"};
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LandparcelApplication.class).properties(properties).run()) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/landParcel";
+                HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+                long start = System.nanoTime();
+                HttpResponse<String> accepted = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/import"))
+                        .header("Content-Type", "text/csv").POST(HttpRequest.BodyPublishers.ofFile(csv)).build(), HttpResponse.BodyHandlers.ofString());
+                long uploadNanos = System.nanoTime() - start;
+                assertEquals(202, accepted.statusCode());
+                String id = objectMapper.readTree(accepted.body()).get("id").asText();
+                LandParcelImporter importer = context.getBean(LandParcelImporter.class);
+                LandParcelImportStatus status = awaitFinished(() -> importer.getStatus(id).orElseThrow());
+                System.out.printf("upload answered in %d ms%n", uploadNanos / 1_000_000);
+                report("POST /api/landParcel/import", status, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < SINGLE_ROWS; i++) {
+                    String body = "{\"name\":\"Single " + i + "\",\"status\":\"SAVED\",\"area\":1.0,\"constraints\":false,\"boundary\":[[0,0],[1,0],[1,1],[0,1]]}";
+                    HttpResponse<Void> created = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl)).header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.discarding());
+                    assertEquals(201, created.statusCode());
+                }
+                long singleNanos = System.nanoTime() - start;
+                System.out.printf("%-30s %d rows in %d ms (%.0f rows/s)%n", "POST /api/landParcel", SINGLE_ROWS, singleNanos / 1_000_000, SINGLE_ROWS * 1e9 / singleNanos);
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    private static void writeCsv(Path csv) throws Exception {
+        Status[] statuses = Status.values();
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("name,status,area,constraints,boundary\n");
+            for (int i = 0; i < ROWS; i++) {
+                double x = i % 1000, y = i / 1000;
+                writer.write("Parcel " + i + "," + statuses[i % statuses.length] + "," + (1.0 + (i % 1000) / 10.0) + "," + (i % 3 == 0)
+                        + ",\"POLYGON ((" + x + " " + y + ", " + (x + 0.9) + " " + y + ", " + (x + 0.9) + " " + (y + 0.9) + ", " + x + " " + (y + 0.9) + ", " + x + " " + y + "))\"\n");
+            }
+        }
+    }
+
+    private static LandParcelImportStatus awaitFinished(StatusSupplier status) throws Exception {
+        LandParcelImportStatus current = status.get();
+        while (current.getFinishedAt() == null) {
+            Thread.sleep(20);
+            current = status.get();
+        }
+        assertEquals(ROWS, current.getRowsImported(), current.getFailure());
+        return current;
+    }
+
+    private static void report(String name, LandParcelImportStatus status, long nanos) {
+        System.out.printf("%-30s %d rows in %d ms (%.0f rows/s)%n", name, status.getRowsImported(), nanos / 1_000_000, status.getRowsImported() * 1e9 / nanos);
+    }
+
+    private interface StatusSupplier {
+        LandParcelImportStatus get() throws Exception;
+    }
+}
@@ -0,0 +1,61 @@
+package landclan.com.landparcel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.repo.LandParcelRepository;
+import landclan.com.landparcel.service.LandParcelService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Compares creating Land Parcels one at a time through saveLandParcel with the batched saveLandParcels.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class LandParcelInsertBenchmark {
+    
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20000);
+    private static final int ROUNDS = 3;
+    
+    @Autowired
+    LandParcelService landParcelService;
+    
+    @Autowired
+    LandParcelRepository landParcelRepository;
+    
+    @Test
+    public void compareSingleAndBulkInserts() {
+        for (int round = 1; round <= ROUNDS; round++) {
+            List<LandParcel> landParcels = landParcels(ROWS);
+            
+            long start = System.nanoTime();
+            for (LandParcel landParcel : landParcels) {
+                landParcelService.saveLandParcel(landParcel);
+            }
+            long singleNanos = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            landParcelService.saveLandParcels(landParcels);
+            long bulkNanos = System.nanoTime() - start;
+            
+            assertEquals(2L * ROWS * round + 2, landParcelRepository.count());
+            System.out.printf("round %d: %d rows, saveLandParcel %d ms (%.0f rows/s), saveLandParcels %d ms (%.0f rows/s)%n",
+                    round, ROWS, singleNanos / 1_000_000, ROWS * 1e9 / singleNanos, bulkNanos / 1_000_000, ROWS * 1e9 / bulkNanos);
+        }
+    }
+    
+    static List<LandParcel> landParcels(int count) {
+        Status[] statuses = Status.values();
+        List<LandParcel> landParcels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            landParcels.add(new LandParcel(0L, "Parcel " + i, statuses[i % statuses.length], 1.0 + (i % 1000) / 10.0, i % 3 == 0));
+        }
+        return landParcels;
+    }
+}
@@ -0,0 +1,55 @@
+package landclan.com.landparcel.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.index.LandParcelNameIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures autocomplete queries against the name index filled with generated names, without the database.
+ * Queries are prefixes of 1 to 8 characters of the words used in the names, so most of them match many names.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+public class LandParcelNameIndexBenchmark {
+    
+    private static final int NAMES = Integer.getInteger("benchmark.names", 1_000_000);
+    private static final int QUERIES = 20_000;
+    private static final String[] WORDS = {"north", "south", "east", "west", "upper", "lower", "field", "meadow", "farm",
+        "green", "oak", "ash", "mill", "brook", "hill", "wood", "lane", "croft", "moor", "bridge", "cross", "park", "grange", "acre"};
+    
+    @Test
+    public void measureSearchLatency() {
+        Random random = new Random(3);
+        LandParcelNameIndex landParcelNameIndex = new LandParcelNameIndex();
+        long start = System.nanoTime();
+        for (int i = 0; i < NAMES; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            landParcelNameIndex.landParcelSaved(new LandParcel(i + 1, name, Status.SAVED, 1.0, false));
+        }
+        System.out.printf("indexed %d names in %d ms%n", NAMES, (System.nanoTime() - start) / 1_000_000);
+        
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)] + WORDS[random.nextInt(WORDS.length)];
+            int from = random.nextInt(3);
+            queries[i] = word.substring(from, Math.min(word.length(), from + 1 + random.nextInt(8)));
+        }
+        for (String query : queries) {
+            landParcelNameIndex.search(query, LandParcelNameIndex.DEFAULT_LIMIT);
+        }
+        
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long queryStart = System.nanoTime();
+            landParcelNameIndex.search(queries[i], LandParcelNameIndex.DEFAULT_LIMIT);
+            nanos[i] = System.nanoTime() - queryStart;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%d names, top %d: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", NAMES, LandParcelNameIndex.DEFAULT_LIMIT,
+                nanos[QUERIES / 2] / 1e6, nanos[QUERIES * 99 / 100] / 1e6, nanos[QUERIES - 1] / 1e6);
+    }
+}
@@ -0,0 +1,93 @@
+package landclan.com.landparcel.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import landclan.com.landparcel.LandparcelApplication;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.service.LandParcelService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Requests the same page of Land Parcels from the running server as JSON, Smile and CBOR, each with and without gzip,
+ * reporting the bytes sent over the wire and the request latency. The client does not decompress so the size reported
+ * is the size of the response body as sent by Tomcat. A page of Land Parcels without boundaries is compared first and
+ * then a page where every Land Parcel has a square boundary.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+public class LandParcelPayloadBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 200);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 500);
+    private static final Map<String, String> FORMATS = new LinkedHashMap<>();
+
+    static {
+        FORMATS.put("json", "application/json");
+        FORMATS.put("smile", "application/x-jackson-smile");
+        FORMATS.put("cbor", "application/cbor");
+    }
+
+    @Test
+    public void compareWireFormats() throws Exception {
+        String[] properties = {"server.port=0", "spring.datasource.url=jdbc:h2:mem:payload", "logging.level.root=WARN"};
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LandparcelApplication.class).properties(properties).run()) {
+            LandParcelService landParcelService = context.getBean(LandParcelService.class);
+            List<LandParcel> withoutBoundaries = landParcelService.saveLandParcels(LandParcelInsertBenchmark.landParcels(PAGE_SIZE));
+            List<LandParcel> withBoundaries = LandParcelInsertBenchmark.landParcels(PAGE_SIZE);
+            for (int i = 0; i < withBoundaries.size(); i++) {
+                double x = i % 100, y = i / 100;
+                withBoundaries.get(i).setBoundary(new Polygon(x, y, x + 0.9, y, x + 0.9, y + 0.9, x, y + 0.9));
+            }
+            landParcelService.saveLandParcels(withBoundaries);
+            
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/landParcel?limit=" + PAGE_SIZE;
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            System.out.println("without boundaries");
+            compare(httpClient, URI.create(baseUrl + "&after=" + (withoutBoundaries.get(0).getObjectID() - 1)));
+            System.out.println("with boundaries");
+            compare(httpClient, URI.create(baseUrl + "&after=" + withoutBoundaries.get(PAGE_SIZE - 1).getObjectID()));
+        }
+    }
+    
+    private void compare(HttpClient httpClient, URI uri) throws Exception {
+        long jsonBytes = 0;
+        for (Map.Entry<String, String> format : FORMATS.entrySet()) {
+            for (String encoding : new String[] {"identity", "gzip"}) {
+                HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", format.getValue()).header("Accept-Encoding", encoding).build();
+                for (int i = 0; i < WARMUP; i++) {
+                    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                }
+
+                long[] latencies = new long[REQUESTS];
+                HttpResponse<byte[]> response = null;
+                for (int i = 0; i < REQUESTS; i++) {
+                    long start = System.nanoTime();
+                    response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    latencies[i] = System.nanoTime() - start;
+                }
+
+                assertEquals(200, response.statusCode());
+                assertEquals(encoding.equals("gzip"), response.headers().firstValue("Content-Encoding").orElse("").equals("gzip"));
+                long bytes = response.body().length;
+                if (jsonBytes == 0) {
+                    jsonBytes = bytes;
+                }
+                Arrays.sort(latencies);
+                System.out.printf("%-5s %-8s %8d bytes (%5.1f%% of json), p50 %.2f ms, p99 %.2f ms%n", format.getKey(), encoding, bytes,
+                        100.0 * bytes / jsonBytes, latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6);
+            }
+        }
+    }
+}
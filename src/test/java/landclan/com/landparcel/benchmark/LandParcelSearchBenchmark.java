@@ -0,0 +1,81 @@
+package landclan.com.landparcel.benchmark;
+
+import java.util.Set;
+import landclan.com.landparcel.domain.LandParcelSearchCriteria;
+import landclan.com.landparcel.domain.LandParcelSearchResponse;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Compares the search query with the index from data.sql against the same query once the index has been dropped.
+ * Each query uses a different area range as H2 reuses the result of a query repeated against an unchanged table.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DirtiesContext
+public class LandParcelSearchBenchmark {
+    
+    private static final int ROWS = Integer.getInteger("benchmark.searchRows", 200_000);
+    private static final int QUERIES = 200;
+    private static final String EXPLAIN = "EXPLAIN SELECT * FROM landParcel WHERE status IN ('SAVED', 'APPROVED') AND area >= 50 AND area <= 50.5 AND constraints = TRUE ORDER BY area, objectID FETCH FIRST 100 ROWS ONLY";
+    
+    @Autowired
+    LandParcelService landParcelService;
+    
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    
+    @Test
+    public void compareIndexedAndFullScan() {
+        for (int loaded = 0; loaded < ROWS; loaded += 10_000) {
+            landParcelService.saveLandParcels(LandParcelInsertBenchmark.landParcels(Math.min(10_000, ROWS - loaded)));
+        }
+        jdbcTemplate.execute("ANALYZE");
+        
+        int indexedMatches = countMatches(criteria(50.0));
+        System.out.println("indexed plan: " + jdbcTemplate.queryForObject(EXPLAIN, String.class).replaceAll("\\s+", " "));
+        double indexedMillis = averageMillis();
+        
+        jdbcTemplate.execute("DROP INDEX idx_landParcel_area");
+        int scannedMatches = countMatches(criteria(50.0));
+        System.out.println("full scan plan: " + jdbcTemplate.queryForObject(EXPLAIN, String.class).replaceAll("\\s+", " "));
+        double scanMillis = averageMillis();
+        
+        assertEquals(indexedMatches, scannedMatches);
+        System.out.printf("%d rows, %d matches: indexed %.3f ms per query, full scan %.3f ms per query%n", ROWS, indexedMatches, indexedMillis, scanMillis);
+    }
+    
+    private int countMatches(LandParcelSearchCriteria criteria) {
+        int matches = 0;
+        String after = null;
+        do {
+            LandParcelSearchResponse page = landParcelService.searchLandParcels(criteria, after, LandParcelService.MAX_PAGE_SIZE);
+            matches += page.getLandParcels().size();
+            after = page.getNextCursor();
+        } while (after != null);
+        return matches;
+    }
+    
+    private double averageMillis() {
+        for (int i = 0; i < QUERIES; i++) {
+            landParcelService.searchLandParcels(criteria(1 + i % 90 + i / 1000.0), null, 100);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            landParcelService.searchLandParcels(criteria(1 + i % 90 + i / 997.0), null, 100);
+        }
+        return (System.nanoTime() - start) / 1e6 / QUERIES;
+    }
+    
+    private static LandParcelSearchCriteria criteria(double minArea) {
+        return new LandParcelSearchCriteria(Set.of(Status.SAVED, Status.APPROVED), minArea, minArea + 0.5, true, "area,asc");
+    }
+}
@@ -0,0 +1,110 @@
+package landclan.com.landparcel.benchmark;
+
+import java.io.File;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Starts the application in a new JVM with each of the startup optimizations of the faststart profile added in turn
+ * and reports the median time from launching the JVM to the first successful GET /api/landParcel, and the resident
+ * memory of the process after idling once that request was answered.
+ * Every launch uses the jar and libraries built by "mvn -Pfaststart package -DskipTests", which must be run first.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark -Dtest=LandParcelStartupBenchmark".
+ */
+@Tag("benchmark")
+public class LandParcelStartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("benchmark.startup.runs", 5);
+    private static final Duration IDLE = Duration.ofSeconds(2);
+    private static final Path FASTSTART = Path.of("target", "faststart");
+
+    @Test
+    public void measureTimeToFirstRequest() throws Exception {
+        Path jar;
+        try (Stream<Path> files = Files.list(Path.of("target"))) {
+            jar = files.filter(file -> file.getFileName().toString().endsWith(".jar.original")).findFirst().orElse(null);
+        }
+        Path archive = FASTSTART.resolve("landparcel.jsa");
+        assertTrue(jar != null && Files.exists(archive), "Run mvn -Pfaststart package -DskipTests first.");
+        String classpath = jar + File.pathSeparator + FASTSTART.resolve("BOOT-INF").resolve("lib") + File.separator + "*";
+
+        run("default", classpath);
+        run("lazy initialization", classpath, "-Dspring.profiles.active=faststart");
+        run("lazy + AOT", classpath, "-Dspring.profiles.active=faststart", "-Dspring.aot.enabled=true");
+        run("lazy + AOT + AppCDS", classpath, "-Dspring.profiles.active=faststart", "-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive);
+    }
+
+    private static void run(String name, String classpath, String... options) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofMillis(200)).build();
+        long[] startupMillis = new long[RUNS];
+        long[] residentKilobytes = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+            command.addAll(List.of(options));
+            command.addAll(List.of("-Xlog:cds=error", "-cp", classpath, "landclan.com.landparcel.LandparcelApplication",
+                    "--server.port=" + port, "--logging.level.root=WARN"));
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/landParcel")).build();
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            try {
+                while (true) {
+                    assertTrue(process.isAlive(), () -> name + " exited with " + process.exitValue());
+                    try {
+                        if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                            break;
+                        }
+                    } catch (ConnectException | HttpConnectTimeoutException e) {
+                        // not listening yet
+                    }
+                    Thread.sleep(5);
+                }
+                startupMillis[run] = (System.nanoTime() - start) / 1_000_000;
+                Thread.sleep(IDLE.toMillis());
+                residentKilobytes[run] = residentKilobytes(process.pid());
+            } finally {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+        System.out.printf("%-22s first GET /api/landParcel after %5d ms, %4d MB resident at idle (median of %d)%n", name,
+                median(startupMillis), median(residentKilobytes) >> 10, RUNS);
+    }
+
+    /**
+     * @return The resident set size of the process from /proc, or 0 where /proc is not available.
+     */
+    private static long residentKilobytes(long pid) throws Exception {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        return Files.readAllLines(status).stream().filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", ""))).findFirst().orElse(0);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,148 @@
+package landclan.com.landparcel.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import landclan.com.landparcel.LandparcelApplication;
+import landclan.com.landparcel.service.LandParcelService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Drives the paged list and search endpoints at increasing concurrency against the application started once with the
+ * Tomcat platform thread pool and once with the virtual profile, reporting throughput and latency percentiles.
+ * While the virtual profile runs, JFR jdk.VirtualThreadPinned events are recorded and the test fails if a virtual
+ * thread was pinned to its carrier in the Hibernate and H2 path.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+public class LandParcelThreadModeBenchmark {
+    
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20000);
+    private static final int[] CONCURRENCY = {16, 256, 1024};
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmupSeconds", 5));
+    private static final Duration MEASURE = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+    
+    @Test
+    public void comparePlatformAndVirtualThreads() throws Exception {
+        run("platform");
+        
+        Map<String, AtomicLong> pinnedFrames = new ConcurrentHashMap<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                String frames = event.getStackTrace() == null ? "unknown" : event.getStackTrace().getFrames().stream().limit(6)
+                        .map(RecordedFrame::getMethod).map(method -> method.getType().getName() + "." + method.getName())
+                        .collect(Collectors.joining(" < "));
+                pinnedFrames.computeIfAbsent(frames, key -> new AtomicLong()).incrementAndGet();
+            });
+            recording.startAsync();
+            run("virtual");
+        }
+        
+        pinnedFrames.forEach((frames, count) -> System.out.printf("pinned %d times at %s%n", count.get(), frames));
+        assertEquals(0, pinnedFrames.size(), "virtual threads were pinned");
+    }
+    
+    private void run(String mode) throws Exception {
+        String[] properties = {"server.port=0", "spring.datasource.url=jdbc:h2:mem:" + mode, "logging.level.root=WARN"};
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(LandparcelApplication.class).properties(properties);
+        if (mode.equals("virtual")) {
+            builder.profiles("virtual");
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            LandParcelService landParcelService = context.getBean(LandParcelService.class);
+            for (int loaded = 0; loaded < ROWS; loaded += 10_000) {
+                landParcelService.saveLandParcels(LandParcelInsertBenchmark.landParcels(Math.min(10_000, ROWS - loaded)));
+            }
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/landParcel";
+            
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient httpClient = HttpClient.newBuilder().executor(clients).version(HttpClient.Version.HTTP_1_1).build();
+                for (int concurrency : CONCURRENCY) {
+                    drive(httpClient, clients, baseUrl, concurrency, WARMUP);
+                    Result result = drive(httpClient, clients, baseUrl, concurrency, MEASURE);
+                    System.out.printf("%s threads, %d concurrent: %.0f requests/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d errors%n",
+                            mode, concurrency, result.latencies.length / (double) MEASURE.toSeconds(), result.percentile(0.5),
+                            result.percentile(0.99), result.percentile(1.0), result.errors);
+                }
+            }
+        }
+    }
+    
+    private Result drive(HttpClient httpClient, ExecutorService clients, String baseUrl, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(clients.submit(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    double minArea = 1 + random.nextInt(1000) / 10.0;
+                    String uri = random.nextBoolean()
+                            ? baseUrl + "?limit=20&after=" + random.nextInt(ROWS)
+                            : baseUrl + "/search?status=SAVED&minArea=" + minArea + "&maxArea=" + (minArea + 0.5) + "&limit=20";
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(uri)).build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+        for (Future<long[]> worker : workers) {
+            latencies.add(worker.get());
+        }
+        return new Result(latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray(), errors.get());
+    }
+    
+    private static final class Result {
+        private final long[] latencies;
+        private final long errors;
+
+        Result(long[] latencies, long errors) {
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+        
+        double percentile(double fraction) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            return latencies[Math.min(latencies.length - 1, (int) (latencies.length * fraction))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package landclan.com.landparcel.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import landclan.com.landparcel.LandparcelApplication;
+import landclan.com.landparcel.service.LandParcelWriteBehind;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Sends PUT /api/landParcel updates to a small set of Land Parcels from several clients at once, as surveyors editing the
+ * same parcels do, with write-behind disabled and enabled with each durability. Without write-behind concurrent updates of
+ * the same Land Parcel can fail with 409, these are counted.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+public class LandParcelWriteBehindBenchmark {
+
+    private static final int PARCELS = 100;
+    private static final int CLIENTS = 8;
+    private static final int UPDATES_PER_CLIENT = Integer.getInteger("benchmark.rows", 200000) / 100;
+
+    @Test
+    public void compareUpdatesWithAndWithoutWriteBehind() throws Exception {
+        run("write-through", "landparcel.write-behind.enabled=false");
+        run("write-behind ACKNOWLEDGED", "landparcel.write-behind.enabled=true", "landparcel.write-behind.durability=ACKNOWLEDGED");
+        run("write-behind COMMITTED", "landparcel.write-behind.enabled=true", "landparcel.write-behind.durability=COMMITTED");
+    }
+
+    private static void run(String name, String... writeBehindProperties) throws Exception {
+        String[] properties = {"server.port=0", "spring.datasource.url=jdbc:h2:mem:writebehind", "logging.level.root=WARN"};
+        String[] args = Stream.of(writeBehindProperties).map(property -> "--" + property).toArray(String[]::new);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LandparcelApplication.class).properties(properties).run(args)) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/landParcel";
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            StringBuilder body = new StringBuilder("[");
+            for (int i = 0; i < PARCELS; i++) {
+                body.append(i == 0 ? "" : ",").append("{\"name\":\"Parcel ").append(i).append("\",\"status\":\"SAVED\",\"area\":1.0,\"constraints\":false}");
+            }
+            HttpResponse<String> created = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/bulk")).header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.append("]").toString())).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, created.statusCode());
+            long firstId = Long.parseLong(created.body().replaceAll("(?s).*?\"objectID\":(\\d+).*", "$1"));
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            AtomicLong conflicts = new AtomicLong();
+            for (int client = 0; client < CLIENTS; client++) {
+                int seed = client;
+                results.add(clients.submit(() -> {
+                    for (int i = 0; i < UPDATES_PER_CLIENT; i++) {
+                        long id = firstId + (seed * 31L + i * 7L) % PARCELS;
+                        String update = "{\"objectID\":" + id + ",\"name\":\"Parcel " + id + " edit " + i + "\",\"status\":\"APPROVED\",\"area\":" + (i % 50 + 1) + ".0,\"constraints\":false}";
+                        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl)).header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(update)).build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 409) {
+                            conflicts.incrementAndGet();
+                        } else if (response.statusCode() != 200 && response.statusCode() != 202) {
+                            throw new AssertionError("PUT returned " + response.statusCode());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            long nanos = System.nanoTime() - start;
+            clients.shutdown();
+            context.getBean(LandParcelWriteBehind.class).shutdown();
+            long updates = (long) CLIENTS * UPDATES_PER_CLIENT;
+            System.out.printf("%-28s %d updates in %d ms (%.0f updates/s), %d rejected as conflicting%n", name, updates, nanos / 1_000_000,
+                    updates * 1e9 / nanos, conflicts.get());
+        }
+    }
+}
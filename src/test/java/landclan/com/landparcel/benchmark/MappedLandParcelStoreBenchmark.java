@@ -0,0 +1,78 @@
+package landclan.com.landparcel.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.repo.MappedLandParcelStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Writes generated Land Parcels to a {@link MappedLandParcelStore}, then measures reads by objectID, reopening the
+ * store as at startup and compacting it after every Land Parcel has been updated once.
+ * Excluded from the normal build, run with "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+public class MappedLandParcelStoreBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200000);
+    private static final int READS = 2_000_000;
+    private static final int SEGMENT_SIZE = 64 << 20;
+
+    @Test
+    public void measureStore() throws Exception {
+        Path directory = Files.createTempDirectory("landparcel-store-benchmark-");
+        try {
+            long start = System.nanoTime();
+            try (MappedLandParcelStore store = new MappedLandParcelStore(directory, SEGMENT_SIZE, false)) {
+                for (int i = 1; i <= ROWS; i++) {
+                    store.put(landParcel(i, "Parcel " + i, i));
+                }
+                System.out.printf("%-20s %d land parcels in %d ms%n", "put", ROWS, (System.nanoTime() - start) / 1_000_000);
+
+                SplittableRandom random = new SplittableRandom(42);
+                long found = 0;
+                for (int i = 0; i < READS / 10; i++) {
+                    found += store.get(random.nextLong(1, ROWS + 1)).isPresent() ? 1 : 0;
+                }
+                start = System.nanoTime();
+                for (int i = 0; i < READS; i++) {
+                    found += store.get(random.nextLong(1, ROWS + 1)).isPresent() ? 1 : 0;
+                }
+                long nanos = System.nanoTime() - start;
+                System.out.printf("%-20s %d reads, %d ns per read (%d found)%n", "get", READS, nanos / READS, found);
+
+                for (int i = 1; i <= ROWS; i++) {
+                    store.put(landParcel(i, "Updated parcel " + i, ROWS + i));
+                }
+                start = System.nanoTime();
+                long logBytes = store.getLogBytes();
+                store.compact();
+                System.out.printf("%-20s %d MB to %d MB in %d ms%n", "compact", logBytes >> 20, store.getLogBytes() >> 20, (System.nanoTime() - start) / 1_000_000);
+            }
+
+            start = System.nanoTime();
+            try (MappedLandParcelStore store = new MappedLandParcelStore(directory, SEGMENT_SIZE, false)) {
+                System.out.printf("%-20s %d land parcels in %d ms%n", "open", store.size(), (System.nanoTime() - start) / 1_000_000);
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static LandParcelView landParcel(long objectID, String name, long changeSeq) {
+        double x = objectID % 1000, y = objectID / 1000;
+        Polygon boundary = new Polygon(x, y, x + 0.9, y, x + 0.9, y + 0.9, x, y + 0.9);
+        return new LandParcelView(objectID, name, Status.values()[(int) (objectID % 4)], 1.0 + objectID % 1000 / 10.0, objectID % 3 == 0, boundary,
+                boundary.getMinX(), boundary.getMinY(), boundary.getMaxX(), boundary.getMaxY(), 0, changeSeq);
+    }
+}
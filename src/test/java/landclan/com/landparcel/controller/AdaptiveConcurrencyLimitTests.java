@@ -0,0 +1,85 @@
+package landclan.com.landparcel.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    private static final long MILLISECOND = 1_000_000;
+
+    /**
+     * Admits as many requests as the limit allows at once and releases each of them with the given latency.
+     */
+    private static void round(AdaptiveConcurrencyLimit limit, long latencyNanos) {
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.release(latencyNanos, false);
+        }
+    }
+
+    @Test
+    @DisplayName("Ensure requests beyond the limit are rejected until an admitted request is released.")
+    public void testRejectsBeyondLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        limit.release();
+        assertEquals(2, limit.getLimit());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(20, 1, 10, 2.0));
+    }
+
+    @Test
+    @DisplayName("Ensure the limit grows while it is in use and the latency is steady, and shrinks once the latency rises.")
+    public void testAdjustsToLatency() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 2, 100, 2.0);
+        for (int i = 0; i < 20; i++) {
+            round(limit, MILLISECOND);
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 4, "limit grew to " + grown);
+
+        for (int i = 0; i < 20; i++) {
+            round(limit, 20 * MILLISECOND);
+        }
+        int shrunk = limit.getLimit();
+        assertTrue(shrunk < grown / 2, "limit shrank from " + grown + " to " + shrunk);
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Ensure the limit does not grow while little of it is in use.")
+    public void testIdleLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 2.0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(MILLISECOND, false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Ensure a failed request lowers the limit at once but never below the minimum.")
+    public void testFailureBackoff() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100, 2.0);
+        assertTrue(limit.tryAcquire());
+        limit.release(MILLISECOND, true);
+        assertEquals(9, limit.getLimit());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(MILLISECOND, true);
+        }
+        assertEquals(5, limit.getLimit());
+    }
+}
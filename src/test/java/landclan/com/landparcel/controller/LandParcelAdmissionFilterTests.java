@@ -0,0 +1,74 @@
+package landclan.com.landparcel.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class LandParcelAdmissionFilterTests {
+
+    private final LandParcelAdmissionFilter filter = new LandParcelAdmissionFilter(true, 1, 1, 1, 1, 1, 2.0, Duration.ofSeconds(3));
+
+    /**
+     * @return The response to a request passed through the filter while the given chain holds the request admitted before it.
+     */
+    private MockHttpServletResponse whileProcessing(String method, String heldMethod, String uri) throws Exception {
+        AtomicReference<MockHttpServletResponse> response = new AtomicReference<>();
+        FilterChain chain = (request, held) -> {
+            MockHttpServletResponse inner = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(method, uri), inner, (r, s) -> { });
+            response.set(inner);
+        };
+        filter.doFilter(new MockHttpServletRequest(heldMethod, "/api/landParcel/1"), new MockHttpServletResponse(), chain);
+        return response.get();
+    }
+
+    @Test
+    @DisplayName("Ensure a read beyond the read limit is answered with 503 and Retry-After without being processed.")
+    public void testShedsExcessReads() throws Exception {
+        MockHttpServletResponse response = whileProcessing("GET", "GET", "/api/landParcel");
+        assertEquals(503, response.getStatus());
+        assertEquals("3", response.getHeader(HttpHeaders.RETRY_AFTER));
+
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/landParcel"), after, (r, s) -> { });
+        assertEquals(200, after.getStatus());
+    }
+
+    @Test
+    @DisplayName("Ensure reads and writes are limited separately and requests outside /api are not limited.")
+    public void testSeparateLimits() throws Exception {
+        MockHttpServletResponse write = whileProcessing("POST", "GET", "/api/landParcel");
+        assertEquals(200, write.getStatus());
+        assertNull(write.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, whileProcessing("DELETE", "PUT", "/api/landParcel/2").getStatus());
+        assertEquals(200, whileProcessing("GET", "GET", "/actuator/health").getStatus());
+    }
+
+    @Test
+    @DisplayName("Ensure uploads to import and downloads of exports do not adjust the limit while other requests do.")
+    public void testTransfersNotSampled() throws Exception {
+        LandParcelAdmissionFilter admission = new LandParcelAdmissionFilter(true, 20, 200, 10, 50, 2, 2.0, Duration.ofSeconds(1));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        admission.bindTo(registry);
+        FilterChain failing = (request, response) -> ((HttpServletResponse) response).setStatus(500);
+
+        admission.doFilter(new MockHttpServletRequest("POST", "/api/landParcel/import"), new MockHttpServletResponse(), failing);
+        admission.doFilter(new MockHttpServletRequest("GET", "/api/landParcel/export/1/download"), new MockHttpServletResponse(), failing);
+        assertEquals(10, registry.get("landparcel.admission.limit").tag("type", "write").gauge().value());
+        assertEquals(20, registry.get("landparcel.admission.limit").tag("type", "read").gauge().value());
+        assertEquals(0, registry.get("landparcel.admission.in-flight").tag("type", "write").gauge().value());
+
+        admission.doFilter(new MockHttpServletRequest("POST", "/api/landParcel/export"), new MockHttpServletResponse(), failing);
+        assertEquals(9, registry.get("landparcel.admission.limit").tag("type", "write").gauge().value());
+    }
+}
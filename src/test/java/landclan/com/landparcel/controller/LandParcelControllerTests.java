@@ -1,30 +1,78 @@
 package landclan.com.landparcel.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import landclan.com.landparcel.domain.FileFormat;
+import landclan.com.landparcel.domain.JobState;
 import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelAggregate;
+import landclan.com.landparcel.domain.LandParcelAggregates;
+import landclan.com.landparcel.domain.LandParcelCacheStats;
+import landclan.com.landparcel.domain.LandParcelDelta;
+import landclan.com.landparcel.domain.LandParcelExportStatus;
+import landclan.com.landparcel.domain.LandParcelImportStatus;
+import landclan.com.landparcel.domain.LandParcelNameMatch;
+import landclan.com.landparcel.domain.LandParcelOperation;
+import landclan.com.landparcel.domain.LandParcelOperationResult;
 import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelSearchResponse;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.OperationType;
+import landclan.com.landparcel.domain.Polygon;
 import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.exception.LandParcelNotFoundException;
+import landclan.com.landparcel.exception.LandParcelVersionMismatchException;
+import landclan.com.landparcel.index.LandParcelColumns;
+import landclan.com.landparcel.index.LandParcelNameIndex;
+import landclan.com.landparcel.index.LandParcelSpatialIndex;
+import landclan.com.landparcel.service.LandParcelCache;
+import landclan.com.landparcel.service.LandParcelChangeFeed;
+import landclan.com.landparcel.service.LandParcelExporter;
+import landclan.com.landparcel.service.LandParcelGeneration;
+import landclan.com.landparcel.service.LandParcelImporter;
 import landclan.com.landparcel.service.LandParcelService;
+import landclan.com.landparcel.service.LandParcelWriteBehind;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +85,33 @@ public class LandParcelControllerTests {
     @MockBean
     LandParcelService landParcelService;
     
+    @MockBean
+    LandParcelCache landParcelCache;
+    
+    @MockBean
+    LandParcelColumns landParcelColumns;
+    
+    @MockBean
+    LandParcelSpatialIndex landParcelSpatialIndex;
+    
+    @MockBean
+    LandParcelNameIndex landParcelNameIndex;
+    
+    @MockBean
+    LandParcelGeneration landParcelGeneration;
+    
+    @MockBean
+    LandParcelChangeFeed landParcelChangeFeed;
+    
+    @MockBean
+    LandParcelImporter landParcelImporter;
+    
+    @MockBean
+    LandParcelExporter landParcelExporter;
+    
+    @MockBean
+    LandParcelWriteBehind landParcelWriteBehind;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -51,23 +126,181 @@ public class LandParcelControllerTests {
     @DisplayName("Ensure the correct number of Land Parcels are returned.")
     public void testGetLandParcels() throws Exception {
         LandParcelResponse response = new LandParcelResponse();
-        List<LandParcel> landParcels = new ArrayList<>();
+        List<LandParcelView> landParcels = new ArrayList<>();
         LandParcel landParcel2 = new LandParcel(2L, "SecondParcel", Status.SHORT_LISTED, 4.0, false);
-        landParcels.add(landParcel);
-        landParcels.add(landParcel2);
+        landParcels.add(LandParcelView.of(landParcel));
+        landParcels.add(LandParcelView.of(landParcel2));
         response.setLandParcels(landParcels);
-        when(landParcelService.getLandParcels()).thenReturn(response);
+        when(landParcelService.getLandParcels(null, LandParcelService.DEFAULT_PAGE_SIZE)).thenReturn(response);
         
         ResultActions result = mockMvc.perform(get("/api/landParcel"));   
                 
         result.andExpect(status().isOk())
                 .andExpect(jsonPath("$.landParcels.size()", is(response.getLandParcels().size())));       
     }
+    
+    @Test
+    @DisplayName("Ensure the paging parameters are passed on and the next cursor is returned.")
+    public void testGetLandParcelsPage() throws Exception {
+        LandParcelResponse response = new LandParcelResponse(List.of(LandParcelView.of(landParcel)), 1L, 5L);
+        when(landParcelService.getLandParcels(0L, 1)).thenReturn(response);
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel").param("after", "0").param("limit", "1"));
+        
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.landParcels.size()", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is(1)))
+                .andExpect(jsonPath("$.totalCount", is(5)));
+    }
+    
+    @Test
+    @DisplayName("Ensure the correct http code is returned when the page size is not positive.")
+    public void testGetLandParcelsInvalidLimit() throws Exception {
+        ResultActions result = mockMvc.perform(get("/api/landParcel").param("limit", "0"));
+        
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Ensure the changes since a change sequence are returned along with the change sequence to continue from.")
+    public void testGetLandParcelChanges() throws Exception {
+        LandParcelDelta delta = new LandParcelDelta(List.of(LandParcelView.of(landParcel)), List.of(7L), 12L, false, false);
+        when(landParcelService.getLandParcelChanges(5L, LandParcelService.DEFAULT_PAGE_SIZE)).thenReturn(delta);
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel/delta").param("since", "5"));
+        
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.landParcels[0].objectID", is(1)))
+                .andExpect(jsonPath("$.deletedObjectIDs[0]", is(7)))
+                .andExpect(jsonPath("$.nextSince", is(12)))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+        mockMvc.perform(get("/api/landParcel/delta").param("since", "-1")).andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Ensure an uploaded CSV file is queued for import and its job can be looked up.")
+    public void testImportLandParcels() throws Exception {
+        LandParcelImportStatus queued = new LandParcelImportStatus("job-1", FileFormat.CSV, JobState.QUEUED, 0, 0, 0, Instant.now(), null, null, null);
+        when(landParcelImporter.submit(ArgumentMatchers.eq(FileFormat.CSV), ArgumentMatchers.any())).thenReturn(queued);
+        when(landParcelImporter.getStatus("job-1")).thenReturn(Optional.of(queued));
+        
+        ResultActions result = mockMvc.perform(post("/api/landParcel/import").contentType("text/csv").content("name,status,area\nFirst,SAVED,1.0\n"));
+        
+        result.andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/landParcel/import/job-1"))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+        mockMvc.perform(get("/api/landParcel/import/job-1")).andExpect(status().isOk()).andExpect(jsonPath("$.format", is("CSV")));
+        mockMvc.perform(get("/api/landParcel/import/unknown")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/landParcel/import").contentType("application/xml").content("<parcels/>")).andExpect(status().isUnsupportedMediaType());
+    }
+    
+    @Test
+    @DisplayName("Ensure a completed export is downloaded whole, by byte range or not at all when unchanged.")
+    public void testDownloadExport(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("landparcels-export-1.csv.gz"), "0123456789", StandardCharsets.UTF_8);
+        LandParcelExportStatus completed = new LandParcelExportStatus("export-1", FileFormat.CSV, JobState.COMPLETED, "1-1", 1, 10, Instant.now(), Instant.now(), Instant.now(), null);
+        LandParcelExportStatus running = new LandParcelExportStatus("export-2", FileFormat.CSV, JobState.RUNNING, "1-2", 0, 0, Instant.now(), Instant.now(), null, null);
+        when(landParcelExporter.export(FileFormat.CSV)).thenReturn(completed);
+        when(landParcelExporter.getStatus("export-1")).thenReturn(Optional.of(completed));
+        when(landParcelExporter.getStatus("export-2")).thenReturn(Optional.of(running));
+        when(landParcelExporter.getFile("export-1")).thenReturn(Optional.of(file));
+        when(landParcelExporter.getFile("export-2")).thenReturn(Optional.empty());
+        
+        mockMvc.perform(post("/api/landParcel/export").param("format", "csv")).andExpect(status().isOk())
+                .andExpect(header().string("Location", "/api/landParcel/export/export-1"));
+        mockMvc.perform(post("/api/landParcel/export").param("format", "xml")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/landParcel/export/export-1/download")).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"export-1\""))
+                .andExpect(content().string("0123456789"));
+        mockMvc.perform(get("/api/landParcel/export/export-1/download").header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10"))
+                .andExpect(content().string("456789"));
+        mockMvc.perform(get("/api/landParcel/export/export-1/download").header(HttpHeaders.RANGE, "bytes=4-5").header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk()).andExpect(content().string("0123456789"));
+        mockMvc.perform(get("/api/landParcel/export/export-1/download").header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable()).andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+        mockMvc.perform(get("/api/landParcel/export/export-1/download").header(HttpHeaders.IF_NONE_MATCH, "\"export-1\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/landParcel/export/export-2/download")).andExpect(status().isConflict());
+        mockMvc.perform(get("/api/landParcel/export/unknown/download")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    @DisplayName("Ensure the search filters are passed on and the matching Land Parcels are returned.")
+    public void testSearchLandParcels() throws Exception {
+        given(landParcelService.searchLandParcels(ArgumentMatchers.argThat(criteria ->
+                criteria.getStatuses().equals(Set.of(Status.SAVED, Status.APPROVED)) && criteria.getMinArea() == 5.0
+                        && criteria.getConstraints() && criteria.getSort().equals("area,desc")), ArgumentMatchers.eq("abc"), ArgumentMatchers.eq(10)))
+                .willReturn(new LandParcelSearchResponse(List.of(landParcel), "def"));
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel/search")
+                .param("status", "SAVED", "APPROVED").param("minArea", "5").param("constraints", "true")
+                .param("sort", "area,desc").param("after", "abc").param("limit", "10"));
+        
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.landParcels[0].name", is(landParcel.getName())))
+                .andExpect(jsonPath("$.nextCursor", is("def")));
+    }
+    
+    @Test
+    @DisplayName("Ensure the correct http code is returned when the search is not valid.")
+    public void testSearchLandParcelsInvalid() throws Exception {
+        given(landParcelService.searchLandParcels(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt()))
+                .willThrow(new IllegalArgumentException("Sort password is not valid."));
+        
+        mockMvc.perform(get("/api/landParcel/search").param("sort", "password")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/landParcel/search").param("status", "UNKNOWN")).andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Ensure all Land Parcels are streamed as newline delimited JSON.")
+    public void testStreamLandParcels() throws Exception {
+        LandParcel landParcel2 = new LandParcel(2L, "SecondParcel", Status.SHORT_LISTED, 4.0, false);
+        doAnswer(invocation -> {
+            Consumer<LandParcel> consumer = invocation.getArgument(0);
+            consumer.accept(landParcel);
+            consumer.accept(landParcel2);
+            return null;
+        }).when(landParcelService).streamLandParcels(ArgumentMatchers.any());
+        
+        MvcResult asyncResult = mockMvc.perform(get("/api/landParcel/stream")).andReturn();
+        ResultActions result = mockMvc.perform(asyncDispatch(asyncResult));
+        
+        result.andExpect(status().isOk())
+                .andExpect(content().contentType(LandParcelController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(objectMapper.writeValueAsString(landParcel) + "\n"
+                        + objectMapper.writeValueAsString(landParcel2) + "\n"));
+    }
+
+    @Test
+    @DisplayName("Ensure committed changes are streamed as Server-Sent Events with their ids.")
+    public void testStreamChanges() throws Exception {
+        LandParcelChangeFeed feed = new LandParcelChangeFeed(16);
+        when(landParcelChangeFeed.subscribe(null)).thenReturn(feed.subscribe(null));
+        
+        MvcResult result = mockMvc.perform(get("/api/landParcel/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        feed.landParcelSaved(landParcel);
+        feed.landParcelDeleted(2L);
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().contains("DELETE") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        String events = result.getResponse().getContentAsString();
+        assertTrue(events.contains("event:change"), events);
+        assertTrue(events.contains("\"type\":\"CREATE\",\"objectID\":1"), events);
+        assertTrue(events.contains("\"type\":\"DELETE\",\"objectID\":2"), events);
+        assertTrue(events.contains("id:" + feed.subscribe(null).getLastEventId()), events);
+    }
 
     @Test
     @DisplayName("Ensure Land Parcel is corrected displayed.")
     public void testGetLandParcel() throws Exception {
-        Optional<LandParcel> returnedLandParcel = Optional.of(landParcel);
+        Optional<LandParcelView> returnedLandParcel = Optional.of(LandParcelView.of(landParcel));
         
         when(landParcelService.getLandParcel(1L)).thenReturn(returnedLandParcel);
         
@@ -81,6 +314,58 @@ public class LandParcelControllerTests {
                 .andExpect(jsonPath("$.constraints", is(landParcel.isConstraints())));         
     }
     
+    @Test
+    @DisplayName("Ensure a land parcel still at the version sent in If-None-Match is not sent again.")
+    public void testGetLandParcelNotModified() throws Exception {
+        when(landParcelService.getLandParcel(1L)).thenReturn(Optional.of(LandParcelView.of(landParcel)));
+        
+        ResultActions unchanged = mockMvc.perform(get("/api/landParcel/1").header(HttpHeaders.IF_NONE_MATCH, "\"0\""));
+        ResultActions changed = mockMvc.perform(get("/api/landParcel/1").header(HttpHeaders.IF_NONE_MATCH, "\"7\""));
+        
+        unchanged.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(content().string(""));
+        changed.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.version", is(0)));
+    }
+    
+    @Test
+    @DisplayName("Ensure a land parcel read as Smile has a different ETag from JSON and the responses vary by Accept.")
+    public void testGetLandParcelETagPerEncoding() throws Exception {
+        when(landParcelService.getLandParcel(1L)).thenReturn(Optional.of(LandParcelView.of(landParcel)));
+        
+        String json = mockMvc.perform(get("/api/landParcel/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String smile = mockMvc.perform(get("/api/landParcel/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        
+        assertEquals("\"0\"", json);
+        assertEquals("\"0+smile\"", smile);
+        mockMvc.perform(get("/api/landParcel/1").accept("application/x-jackson-smile").header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/landParcel/1").accept("application/x-jackson-smile").header(HttpHeaders.IF_NONE_MATCH, smile))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/landParcel/1").accept("application/cbor"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0+cbor\""));
+    }
+    
+    @Test
+    @DisplayName("Ensure the list of land parcels is not read again while no land parcel has changed.")
+    public void testGetLandParcelsNotModified() throws Exception {
+        when(landParcelGeneration.current()).thenReturn("1700000000000-5");
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel").header(HttpHeaders.IF_NONE_MATCH, "W/\"1700000000000-5\""));
+        
+        result.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1700000000000-5\""));
+        verify(landParcelService, never()).getLandParcels(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+    }
+    
     @Test
     @DisplayName("Ensure the correct http code is returned when a land parcel cannot be found.")
     public void testGetLandParcelWhichDoesNotExist() throws Exception {
@@ -91,6 +376,104 @@ public class LandParcelControllerTests {
         result.andExpect(status().isNoContent());       
     }
     
+    @Test
+    @DisplayName("Ensure the aggregates are displayed once loaded.")
+    public void testGetAggregates() throws Exception {
+        LandParcelAggregate aggregate = new LandParcelAggregate(Status.SAVED, true, 2, 33.5, 10.0, 23.5, 10.0, 23.5, 23.5);
+        when(landParcelColumns.isLoaded()).thenReturn(true);
+        when(landParcelColumns.aggregate()).thenReturn(new LandParcelAggregates(2, List.of(aggregate)));
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel/aggregates"));
+        
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount", is(2)))
+                .andExpect(jsonPath("$.groups[0].status", is("SAVED")))
+                .andExpect(jsonPath("$.groups[0].average", is(16.75)));
+    }
+    
+    @Test
+    @DisplayName("Ensure the correct http code is returned when the aggregates are still being loaded.")
+    public void testGetAggregatesWhileLoading() throws Exception {
+        when(landParcelColumns.isLoaded()).thenReturn(false);
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel/aggregates"));
+        
+        result.andExpect(status().isServiceUnavailable());
+    }
+    
+    @Test
+    @DisplayName("Ensure the land parcels intersecting a bounding box are displayed with their boundary and match count.")
+    public void testGetLandParcelsIntersecting() throws Exception {
+        landParcel.setBoundary(new Polygon(0, 0, 10, 0, 10, 10, 0, 10));
+        when(landParcelSpatialIndex.isLoaded()).thenReturn(true);
+        doAnswer(invocation -> {
+            List<Long> objectIDs = invocation.getArgument(5);
+            objectIDs.add(1L);
+            return 3;
+        }).when(landParcelSpatialIndex).intersecting(ArgumentMatchers.eq(5.0), ArgumentMatchers.eq(5.0), ArgumentMatchers.eq(20.0), ArgumentMatchers.eq(20.0), ArgumentMatchers.eq(1), ArgumentMatchers.any());
+        when(landParcelService.getLandParcels(List.of(1L))).thenReturn(List.of(LandParcelView.of(landParcel)));
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel/spatial/bbox?minX=5&minY=5&maxX=20&maxY=20&limit=1"));
+        
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount", is(3)))
+                .andExpect(jsonPath("$.landParcels[0].objectID", is(1)))
+                .andExpect(jsonPath("$.landParcels[0].boundary[2][0]", is(10.0)))
+                .andExpect(jsonPath("$.landParcels[0].maxY", is(10.0)));
+    }
+    
+    @Test
+    @DisplayName("Ensure the correct http code is returned for an inverted bounding box.")
+    public void testGetLandParcelsIntersectingInvalidBox() throws Exception {
+        ResultActions result = mockMvc.perform(get("/api/landParcel/spatial/bbox?minX=20&minY=5&maxX=5&maxY=20"));
+        
+        result.andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Ensure the correct http code is returned when the spatial index is still being loaded.")
+    public void testGetLandParcelsContainingWhileLoading() throws Exception {
+        when(landParcelSpatialIndex.isLoaded()).thenReturn(false);
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel/spatial/point?x=1&y=1"));
+        
+        result.andExpect(status().isServiceUnavailable());
+    }
+    
+    @Test
+    @DisplayName("Ensure the matching names are displayed with the limit capped.")
+    public void testSearchLandParcelNames() throws Exception {
+        when(landParcelNameIndex.isLoaded()).thenReturn(true);
+        when(landParcelNameIndex.search("fir", LandParcelNameIndex.MAX_LIMIT)).thenReturn(List.of(new LandParcelNameMatch(1L, "FirstParcel")));
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel/names?query=fir&limit=5000"));
+        
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].objectID", is(1)))
+                .andExpect(jsonPath("$[0].name", is("FirstParcel")));
+    }
+    
+    @Test
+    @DisplayName("Ensure the correct http code is returned for a blank name query.")
+    public void testSearchLandParcelNamesBlankQuery() throws Exception {
+        ResultActions result = mockMvc.perform(get("/api/landParcel/names").param("query", " "));
+        
+        result.andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Ensure the cache statistics are displayed.")
+    public void testGetCacheStats() throws Exception {
+        when(landParcelCache.getStats()).thenReturn(new LandParcelCacheStats(1, 3, 1, 0, 0.75));
+        
+        ResultActions result = mockMvc.perform(get("/api/landParcel/cache/stats"));
+        
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount", is(3)))
+                .andExpect(jsonPath("$.missCount", is(1)))
+                .andExpect(jsonPath("$.hitRate", is(0.75)));
+    }
+    
     @Test
     @DisplayName("Ensure the correct http code is returned when a land parcel is created and the correct values are displayed.")
     public void testCreateLandParcel() throws Exception {
@@ -108,10 +491,80 @@ public class LandParcelControllerTests {
                 .andExpect(jsonPath("$.constraints", is(landParcel.isConstraints())));      
     }
     
+    @Test
+    @DisplayName("Ensure the correct http code is returned when land parcels are created in bulk.")
+    public void testCreateLandParcels() throws Exception {
+        LandParcel landParcel2 = new LandParcel(2L, "SecondParcel", Status.SHORT_LISTED, 4.0, false);
+        given(landParcelService.saveLandParcels(ArgumentMatchers.any())).willAnswer(invocation -> invocation.getArgument(0));
+        
+        ResultActions result = mockMvc.perform(post("/api/landParcel/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(landParcel, landParcel2))));
+        
+        result.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].name", is(landParcel2.getName())));
+    }
+    
+    @Test
+    @DisplayName("Ensure the correct http code is returned when creating land parcels in bulk fails.")
+    public void testCreateLandParcelsFails() throws Exception {
+        given(landParcelService.saveLandParcels(ArgumentMatchers.any())).willThrow(new IllegalStateException());
+        
+        ResultActions result = mockMvc.perform(post("/api/landParcel/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(landParcel))));
+        
+        result.andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Ensure land parcels are only created once queued updates are written where the ordering requires, and 503 is returned when interrupted.")
+    public void testCreateLandParcelsAfterQueuedUpdates() throws Exception {
+        given(landParcelService.saveLandParcel(ArgumentMatchers.any())).willAnswer(invocation -> invocation.getArgument(0));
+        given(landParcelService.saveLandParcels(ArgumentMatchers.any())).willAnswer(invocation -> invocation.getArgument(0));
+        
+        mockMvc.perform(post("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(landParcel)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/landParcel/bulk").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(List.of(landParcel))))
+                .andExpect(status().isCreated());
+        InOrder inOrder = Mockito.inOrder(landParcelWriteBehind, landParcelService);
+        inOrder.verify(landParcelWriteBehind).awaitQueuedUpdates(List.of());
+        inOrder.verify(landParcelService).saveLandParcel(ArgumentMatchers.any());
+        inOrder.verify(landParcelWriteBehind).awaitQueuedUpdates(List.of());
+        inOrder.verify(landParcelService).saveLandParcels(ArgumentMatchers.any());
+        
+        doThrow(new InterruptedException()).when(landParcelWriteBehind).awaitQueuedUpdates(ArgumentMatchers.any());
+        mockMvc.perform(post("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(landParcel)))
+                .andExpect(status().isServiceUnavailable());
+        assertTrue(Thread.interrupted());
+    }
+    
+    @Test
+    @DisplayName("Ensure the result of each operation in a batch is returned.")
+    public void testApplyLandParcelOperations() throws Exception {
+        List<LandParcelOperation> operations = List.of(
+                new LandParcelOperation(OperationType.UPDATE, null, landParcel),
+                new LandParcelOperation(OperationType.DELETE, 3L, null));
+        List<LandParcelOperationResult> results = List.of(
+                new LandParcelOperationResult(0, OperationType.UPDATE, 1L, 200, null, landParcel),
+                new LandParcelOperationResult(1, OperationType.DELETE, 3L, 404, "Land Parcel with object ID:3 not found for deletion.", null));
+        given(landParcelService.applyLandParcelOperations(ArgumentMatchers.any())).willReturn(results);
+        
+        ResultActions result = mockMvc.perform(post("/api/landParcel/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(operations)));
+        
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].landParcel.name", is(landParcel.getName())))
+                .andExpect(jsonPath("$[1].status", is(404)));
+    }
+    
     @Test
     @DisplayName("Ensure the correct http code is returned when a land parcel is updated and the correct values are displayed.")
     public void testUpdateLandParcel() throws Exception {
-        given(landParcelService.updateLandParcel(ArgumentMatchers.any())).willAnswer(invocation -> invocation.getArgument(0));
+        given(landParcelService.updateLandParcel(ArgumentMatchers.any(), ArgumentMatchers.isNull())).willAnswer(invocation -> invocation.getArgument(0));
 
         ResultActions result = mockMvc.perform(put("/api/landParcel")
                 .contentType(MediaType.APPLICATION_JSON)  
@@ -125,6 +578,73 @@ public class LandParcelControllerTests {
                 .andExpect(jsonPath("$.constraints", is(landParcel.isConstraints()))); 
     }
     
+    @Test
+    @DisplayName("Ensure an update is queued when write-behind is enabled and answered according to its durability.")
+    public void testUpdateLandParcelWriteBehind() throws Exception {
+        when(landParcelWriteBehind.isEnabled()).thenReturn(true);
+        when(landParcelWriteBehind.update(ArgumentMatchers.any())).thenReturn(new CompletableFuture<>());
+        when(landParcelWriteBehind.getDurability()).thenReturn(LandParcelWriteBehind.Durability.ACKNOWLEDGED);
+        
+        mockMvc.perform(put("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(landParcel)))
+                .andExpect(status().isAccepted());
+        
+        when(landParcelWriteBehind.update(ArgumentMatchers.any())).thenReturn(CompletableFuture.failedFuture(new LandParcelNotFoundException("Land Parcel with object ID:1 not found.")));
+        when(landParcelWriteBehind.getDurability()).thenReturn(LandParcelWriteBehind.Durability.COMMITTED);
+        
+        mockMvc.perform(put("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(landParcel)))
+                .andExpect(status().isNotFound());
+        verify(landParcelService, never()).updateLandParcel(ArgumentMatchers.any(), ArgumentMatchers.any());
+        
+        mockMvc.perform(delete("/api/landParcel/" + landParcel.getObjectID())).andExpect(status().isOk());
+        verify(landParcelWriteBehind).awaitQueuedUpdates(List.of(landParcel.getObjectID()));
+    }
+
+    @Test
+    @DisplayName("Ensure an incomplete update is rejected before it is queued and an interrupted one returns 503.")
+    public void testUpdateLandParcelWriteBehindRejected() throws Exception {
+        when(landParcelWriteBehind.isEnabled()).thenReturn(true);
+        when(landParcelWriteBehind.getDurability()).thenReturn(LandParcelWriteBehind.Durability.ACKNOWLEDGED);
+        LandParcel withoutName = new LandParcel(1L, null, Status.SAVED, 9.5, true);
+        LandParcel withoutStatus = new LandParcel(1L, "FirstParcel", null, 9.5, true);
+
+        mockMvc.perform(put("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(withoutName)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(withoutStatus)))
+                .andExpect(status().isBadRequest());
+        verify(landParcelWriteBehind, never()).update(ArgumentMatchers.any());
+
+        when(landParcelWriteBehind.update(ArgumentMatchers.any())).thenThrow(new InterruptedException());
+
+        mockMvc.perform(put("/api/landParcel").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(landParcel)))
+                .andExpect(status().isServiceUnavailable());
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    @DisplayName("Ensure an update is only applied to the version sent in If-Match and fails once the land parcel has changed.")
+    public void testUpdateLandParcelIfMatch() throws Exception {
+        given(landParcelService.updateLandParcel(ArgumentMatchers.any(), ArgumentMatchers.eq(3L)))
+                .willThrow(new LandParcelVersionMismatchException("Land Parcel with object ID:1 is at version 4 not 3."));
+        
+        ResultActions result = mockMvc.perform(put("/api/landParcel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content(objectMapper.writeValueAsString(landParcel)));
+        ResultActions weak = mockMvc.perform(put("/api/landParcel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "W/\"4\"")
+                .content(objectMapper.writeValueAsString(landParcel)));
+        
+        ResultActions smile = mockMvc.perform(put("/api/landParcel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"3+smile\"")
+                .content(objectMapper.writeValueAsString(landParcel)));
+        
+        result.andExpect(status().isPreconditionFailed());
+        weak.andExpect(status().isPreconditionFailed());
+        smile.andExpect(status().isPreconditionFailed());
+    }
+    
     @Test
     @DisplayName("Ensure the correct http code is returned when a land parcel is deleted.")
     public void testDeleteLandParcel() throws Exception {
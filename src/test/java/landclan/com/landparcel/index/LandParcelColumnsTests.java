@@ -0,0 +1,105 @@
+package landclan.com.landparcel.index;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelAggregate;
+import landclan.com.landparcel.domain.LandParcelAggregates;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LandParcelColumnsTests {
+    
+    @Mock
+    private LandParcelService landParcelService;
+    
+    @InjectMocks
+    private LandParcelColumns landParcelColumns;
+    
+    @Test
+    @DisplayName("Ensure land parcels loaded and changed afterwards are grouped by status and constraints.")
+    public void testLoadAndChanges() {
+        load(new LandParcel(1L, "First", Status.SAVED, 10.0, true),
+                new LandParcel(2L, "Second", Status.SAVED, 30.0, true),
+                new LandParcel(3L, "Third", Status.APPROVED, 5.0, false));
+        
+        landParcelColumns.landParcelSaved(new LandParcel(4L, "Fourth", Status.SAVED, 20.0, true));
+        landParcelColumns.landParcelSaved(new LandParcel(3L, "Third", Status.SAVED, 5.0, false));
+        landParcelColumns.landParcelDeleted(1L);
+        
+        LandParcelAggregates aggregates = landParcelColumns.aggregate();
+        
+        assertTrue(landParcelColumns.isLoaded());
+        assertEquals(3, aggregates.getTotalCount());
+        assertEquals(2, aggregates.getGroups().size());
+        LandParcelAggregate unconstrained = aggregates.getGroups().get(0);
+        assertEquals(Status.SAVED, unconstrained.getStatus());
+        assertEquals(1, unconstrained.getCount());
+        LandParcelAggregate constrained = aggregates.getGroups().get(1);
+        assertTrue(constrained.isConstraints());
+        assertEquals(2, constrained.getCount());
+        assertEquals(50.0, constrained.getSum());
+        assertEquals(25.0, constrained.getAverage());
+        assertEquals(20.0, constrained.getMin());
+        assertEquals(30.0, constrained.getMax());
+    }
+    
+    @Test
+    @DisplayName("Ensure the aggregates are only recomputed after a change.")
+    public void testAggregatesReusedUntilChanged() {
+        load(new LandParcel(1L, "First", Status.SAVED, 10.0, true));
+        
+        LandParcelAggregates first = landParcelColumns.aggregate();
+        assertSame(first, landParcelColumns.aggregate());
+        
+        landParcelColumns.landParcelSaved(new LandParcel(2L, "Second", Status.SAVED, 30.0, true));
+        assertEquals(2, landParcelColumns.aggregate().getTotalCount());
+    }
+    
+    @Test
+    @DisplayName("Ensure the parallel scan of a large table matches the exact totals and percentiles.")
+    public void testParallelScanMatchesExactValues() {
+        Random random = new Random(7);
+        LandParcel[] landParcels = new LandParcel[200_000];
+        for (int i = 0; i < landParcels.length; i++) {
+            landParcels[i] = new LandParcel(i + 1, "Parcel", Status.values()[random.nextInt(4)], 1 + random.nextDouble() * 1000, random.nextBoolean());
+        }
+        load(landParcels);
+        
+        double[] areas = Arrays.stream(landParcels)
+                .filter(landParcel -> landParcel.getStatus() == Status.APPROVED && landParcel.isConstraints())
+                .mapToDouble(LandParcel::getArea).sorted().toArray();
+        LandParcelAggregate aggregate = landParcelColumns.aggregate().getGroups().stream()
+                .filter(group -> group.getStatus() == Status.APPROVED && group.isConstraints())
+                .findFirst().orElseThrow();
+        
+        assertEquals(areas.length, aggregate.getCount());
+        assertEquals(Arrays.stream(areas).sum(), aggregate.getSum(), 1e-6 * aggregate.getSum());
+        assertEquals(areas[0], aggregate.getMin());
+        assertEquals(areas[areas.length - 1], aggregate.getMax());
+        assertEquals(areas[areas.length / 2], aggregate.getP50(), areas[areas.length / 2] * 0.02);
+        assertEquals(areas[(int) (areas.length * 0.99)], aggregate.getP99(), areas[(int) (areas.length * 0.99)] * 0.02);
+    }
+    
+    private void load(LandParcel... landParcels) {
+        doAnswer(invocation -> {
+            Consumer<LandParcel> consumer = invocation.getArgument(0);
+            Arrays.stream(landParcels).forEach(consumer);
+            return null;
+        }).when(landParcelService).streamLandParcels(ArgumentMatchers.any());
+        landParcelColumns.load();
+    }
+}
@@ -0,0 +1,79 @@
+package landclan.com.landparcel.index;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelNameMatch;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LandParcelNameIndexTests {
+    
+    @Mock
+    private LandParcelService landParcelService;
+    
+    @InjectMocks
+    private LandParcelNameIndex landParcelNameIndex;
+    
+    @Test
+    @DisplayName("Ensure name prefixes rank before word prefixes and word prefixes before other matches.")
+    public void testRanking() {
+        load(parcel(1L, "North Field"), parcel(2L, "Old Fielding Farm"), parcel(3L, "Fieldgate"),
+                parcel(4L, "Greenfield"), parcel(5L, "Field"), parcel(6L, "Meadow"));
+        
+        assertEquals(List.of(5L, 3L, 1L, 2L, 4L), objectIDs(landParcelNameIndex.search("FIELD", 10)));
+        assertEquals(List.of(5L, 3L), objectIDs(landParcelNameIndex.search("field", 2)));
+        assertEquals(List.of(6L), objectIDs(landParcelNameIndex.search("m", 10)));
+        assertEquals(List.of(5L, 3L, 1L, 2L), objectIDs(landParcelNameIndex.search("f", 10)));
+        assertEquals(List.of(2L), objectIDs(landParcelNameIndex.search("fa", 10)));
+        assertEquals(List.of(), objectIDs(landParcelNameIndex.search("fields", 10)));
+    }
+    
+    @Test
+    @DisplayName("Ensure renamed and deleted land parcels are no longer found, including after the rows are compacted.")
+    public void testChangesAndCompaction() {
+        load(parcel(1L, "North Field"), parcel(2L, "South Field"));
+        
+        landParcelNameIndex.landParcelSaved(parcel(1L, "North Meadow"));
+        landParcelNameIndex.landParcelDeleted(2L);
+        assertEquals(List.of(), objectIDs(landParcelNameIndex.search("field", 10)));
+        assertEquals(List.of(1L), objectIDs(landParcelNameIndex.search("meadow", 10)));
+        
+        for (int i = 0; i < 5000; i++) {
+            landParcelNameIndex.landParcelSaved(parcel(1L, "North Meadow " + i));
+        }
+        landParcelNameIndex.landParcelSaved(parcel(3L, "East Meadow"));
+        
+        assertEquals(List.of(3L, 1L), objectIDs(landParcelNameIndex.search("meadow", 10)));
+        assertEquals(List.of(1L), objectIDs(landParcelNameIndex.search("meadow 4999", 10)));
+        assertEquals(2, landParcelNameIndex.size());
+    }
+    
+    private static List<Long> objectIDs(List<LandParcelNameMatch> matches) {
+        return matches.stream().map(LandParcelNameMatch::getObjectID).toList();
+    }
+    
+    private static LandParcel parcel(long objectID, String name) {
+        return new LandParcel(objectID, name, Status.SAVED, 1.0, false);
+    }
+    
+    private void load(LandParcel... landParcels) {
+        doAnswer(invocation -> {
+            Consumer<LandParcel> consumer = invocation.getArgument(0);
+            Arrays.stream(landParcels).forEach(consumer);
+            return null;
+        }).when(landParcelService).streamLandParcels(ArgumentMatchers.any());
+        landParcelNameIndex.load();
+    }
+}
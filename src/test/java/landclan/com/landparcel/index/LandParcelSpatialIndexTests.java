@@ -0,0 +1,151 @@
+package landclan.com.landparcel.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LandParcelSpatialIndexTests {
+    
+    @Mock
+    private LandParcelService landParcelService;
+    
+    @InjectMocks
+    private LandParcelSpatialIndex landParcelSpatialIndex;
+    
+    @Test
+    @DisplayName("Ensure bounding box and point queries see land parcels loaded and changed afterwards.")
+    public void testLoadAndChanges() {
+        load(parcel(1L, new Polygon(0, 0, 10, 0, 10, 10, 0, 10)),
+                parcel(2L, new Polygon(20, 0, 30, 0, 25, 10)),
+                parcel(3L, null));
+        
+        assertEquals(List.of(1L), intersecting(5, 5, 15, 15));
+        assertEquals(List.of(2L), containing(25, 5));
+        assertEquals(List.of(), containing(21, 9));
+        
+        landParcelSpatialIndex.landParcelSaved(parcel(2L, new Polygon(100, 100, 110, 100, 110, 110)));
+        landParcelSpatialIndex.landParcelSaved(parcel(4L, new Polygon(5, 5, 15, 5, 15, 15, 5, 15)));
+        landParcelSpatialIndex.landParcelDeleted(1L);
+        
+        assertTrue(landParcelSpatialIndex.isLoaded());
+        assertEquals(List.of(4L), intersecting(0, 0, 30, 30));
+        assertEquals(List.of(2L), containing(109, 101));
+        assertEquals(2, landParcelSpatialIndex.size());
+    }
+    
+    @Test
+    @DisplayName("Ensure the packed tree and the overlay of changes match a scan of every boundary.")
+    public void testQueriesMatchScan() {
+        Random random = new Random(11);
+        LandParcel[] landParcels = new LandParcel[20_000];
+        for (int i = 0; i < landParcels.length; i++) {
+            landParcels[i] = parcel(i + 1, square(random));
+        }
+        load(landParcels);
+        for (int i = 0; i < 2_000; i++) {
+            int index = random.nextInt(landParcels.length);
+            landParcels[index] = parcel(index + 1, square(random));
+            landParcelSpatialIndex.landParcelSaved(landParcels[index]);
+        }
+        landParcelSpatialIndex.rebuild();
+        for (int i = 0; i < 500; i++) {
+            int index = random.nextInt(landParcels.length);
+            landParcels[index] = parcel(index + 1, square(random));
+            landParcelSpatialIndex.landParcelSaved(landParcels[index]);
+        }
+        
+        for (int query = 0; query < 50; query++) {
+            double x = random.nextDouble() * 1000, y = random.nextDouble() * 1000;
+            Set<Long> expected = new HashSet<>();
+            Set<Long> expectedContaining = new HashSet<>();
+            for (LandParcel landParcel : landParcels) {
+                Polygon boundary = landParcel.getBoundary();
+                if (boundary.getMinX() <= x + 20 && boundary.getMaxX() >= x && boundary.getMinY() <= y + 20 && boundary.getMaxY() >= y) {
+                    expected.add(landParcel.getObjectID());
+                }
+                if (boundary.contains(x, y)) {
+                    expectedContaining.add(landParcel.getObjectID());
+                }
+            }
+            assertEquals(expected, new HashSet<>(intersecting(x, y, x + 20, y + 20)));
+            assertEquals(expectedContaining, new HashSet<>(containing(x, y)));
+        }
+    }
+    
+    @Test
+    @DisplayName("Ensure matches are counted up to the maximum and boundaries changed after packing are found whatever their size.")
+    public void testCountLimitAndChangedBoundaries() {
+        LandParcel[] landParcels = new LandParcel[LandParcelSpatialIndex.MAX_COUNT + 500];
+        for (int i = 0; i < landParcels.length; i++) {
+            landParcels[i] = parcel(i + 1, new Polygon(i % 100, i / 100, i % 100 + 1, i / 100, i % 100 + 1, i / 100 + 1));
+        }
+        load(landParcels);
+        
+        List<Long> objectIDs = new ArrayList<>();
+        assertEquals(LandParcelSpatialIndex.MAX_COUNT, landParcelSpatialIndex.intersecting(-1, -1, 1000, 1000, 10, objectIDs));
+        assertEquals(10, objectIDs.size());
+        
+        for (int i = 100; i < 200; i++) {
+            landParcelSpatialIndex.landParcelSaved(parcel(i, new Polygon(2000 + i, 0, 2001 + i, 0, 2001 + i, 1)));
+        }
+        landParcelSpatialIndex.landParcelSaved(parcel(1L, new Polygon(-500, -500, 500, -500, 500, 500, -500, 500)));
+        landParcelSpatialIndex.landParcelSaved(parcel(2L, new Polygon(250.5, 250.5, 251, 250.5, 251, 251)));
+        landParcelSpatialIndex.landParcelSaved(parcel(3L, new Polygon(40.2, 200.2, 40.8, 200.2, 40.8, 200.8)));
+        assertEquals(Set.of(1L, 2L), new HashSet<>(intersecting(250, 250, 252, 252)));
+        assertEquals(Set.of(1L, 3L), new HashSet<>(containing(40.5, 200.5)));
+        assertEquals(List.of(), containing(600, 600));
+        assertEquals(List.of(150L), containing(2150.5, 0.5));
+    }
+    
+    private static Polygon square(Random random) {
+        double x = random.nextDouble() * 1000, y = random.nextDouble() * 1000, size = 1 + random.nextDouble() * 5;
+        return new Polygon(x, y, x + size, y, x + size, y + size, x, y + size);
+    }
+    
+    private static LandParcel parcel(long objectID, Polygon boundary) {
+        LandParcel landParcel = new LandParcel(objectID, "Parcel", Status.SAVED, 1.0, false);
+        landParcel.setBoundary(boundary);
+        return landParcel;
+    }
+    
+    private List<Long> intersecting(double minX, double minY, double maxX, double maxY) {
+        List<Long> objectIDs = new ArrayList<>();
+        int count = landParcelSpatialIndex.intersecting(minX, minY, maxX, maxY, Integer.MAX_VALUE, objectIDs);
+        assertEquals(count, objectIDs.size());
+        return objectIDs;
+    }
+    
+    private List<Long> containing(double x, double y) {
+        List<Long> objectIDs = new ArrayList<>();
+        landParcelSpatialIndex.containing(x, y, Integer.MAX_VALUE, objectIDs);
+        return objectIDs;
+    }
+    
+    private void load(LandParcel... landParcels) {
+        doAnswer(invocation -> {
+            Consumer<LandParcel> consumer = invocation.getArgument(0);
+            Arrays.stream(landParcels).forEach(consumer);
+            return null;
+        }).when(landParcelService).streamLandParcels(ArgumentMatchers.any());
+        landParcelSpatialIndex.load();
+    }
+}
@@ -0,0 +1,84 @@
+package landclan.com.landparcel.repo;
+
+import java.nio.file.Path;
+import landclan.com.landparcel.LandparcelApplication;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelService;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class LandParcelStoreTests {
+
+    @TempDir
+    Path directory;
+
+    private ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(LandparcelApplication.class).web(WebApplicationType.NONE).run(
+                "--spring.datasource.url=jdbc:h2:mem:" + database, "--landparcel.store.enabled=true", "--landparcel.store.directory=" + directory,
+                "--landparcel.store.segment-size=64KB", "--logging.level.root=WARN");
+    }
+
+    @Test
+    @DisplayName("Ensure committed changes are restored into a new database with the objectID and change sequences continuing after them.")
+    public void testRestore() {
+        long created, deleted, lastChangeSeq;
+        try (ConfigurableApplicationContext context = start("storeFirst")) {
+            LandParcelService landParcelService = context.getBean(LandParcelService.class);
+            LandParcel landParcel = new LandParcel(0, "Stored", Status.SAVED, 3.5, true);
+            landParcel.setBoundary(new Polygon(0, 0, 2, 0, 2, 1));
+            created = landParcelService.saveLandParcel(landParcel).getObjectID();
+            deleted = landParcelService.saveLandParcel(new LandParcel(0, "Deleted", Status.SAVED, 1.0, false)).getObjectID();
+            landParcelService.updateLandParcel(new LandParcel(1L, "Renamed", Status.APPROVED, 23.5, true));
+            landParcelService.deleteLandParcel(deleted);
+            lastChangeSeq = context.getBean(LandParcelChangeSequence.class).getCommitted();
+        }
+
+        try (ConfigurableApplicationContext context = start("storeSecond")) {
+            LandParcelService landParcelService = context.getBean(LandParcelService.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            assertEquals("Renamed", landParcelService.getLandParcel(1L).orElseThrow().name());
+            assertEquals(new Polygon(0, 0, 2, 0, 2, 1), landParcelService.getLandParcel(created).orElseThrow().boundary());
+            assertEquals(2.0, jdbcTemplate.queryForObject("select maxX from landParcel where objectID = ?", Double.class, created));
+            assertEquals(3, jdbcTemplate.queryForObject("select count(*) from landParcel", Integer.class));
+            assertEquals(1L, jdbcTemplate.queryForObject("select version from landParcel where objectID = 1", Long.class));
+            assertEquals(lastChangeSeq, jdbcTemplate.queryForObject("select changeSeq from landParcelTombstone where objectID = ?", Long.class, deleted));
+
+            LandParcel next = landParcelService.saveLandParcel(new LandParcel(0, "Next", Status.SAVED, 1.0, false));
+            assertTrue(next.getObjectID() > deleted);
+            assertEquals(lastChangeSeq + 1, next.getChangeSeq());
+        }
+    }
+
+    @Test
+    @DisplayName("Ensure Land Parcels are read from the database once a committed change could not be written to the store.")
+    public void testFailedWrite() {
+        try (ConfigurableApplicationContext context = start("storeFailed")) {
+            LandParcelService landParcelService = context.getBean(LandParcelService.class);
+            LandParcelStore landParcelStore = context.getBean(LandParcelStore.class);
+            assertTrue(landParcelStore.isReadable());
+
+            double[] coordinates = new double[10_000];
+            for (int i = 0; i < coordinates.length; i += 2) {
+                coordinates[i] = Math.cos(i);
+                coordinates[i + 1] = Math.sin(i);
+            }
+            LandParcel landParcel = new LandParcel(1L, "Too large", Status.APPROVED, 23.5, true);
+            landParcel.setBoundary(new Polygon(coordinates));
+            landParcelService.updateLandParcel(landParcel);
+
+            assertFalse(landParcelStore.isReadable());
+            assertEquals("Too large", landParcelService.getLandParcel(1L).orElseThrow().name());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package landclan.com.landparcel.repo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedLandParcelStoreTests {
+
+    @TempDir
+    Path directory;
+
+    private static LandParcelView landParcel(long objectID, String name, long changeSeq) {
+        Polygon boundary = new Polygon(objectID, 0, objectID + 1, 0, objectID + 1, 1);
+        return new LandParcelView(objectID, name, Status.APPROVED, objectID * 1.5, objectID % 2 == 0, boundary,
+                boundary.getMinX(), boundary.getMinY(), boundary.getMaxX(), boundary.getMaxY(), changeSeq, changeSeq);
+    }
+
+    private static List<String> contents(MappedLandParcelStore store) {
+        List<String> contents = new ArrayList<>();
+        store.forEach(new MappedLandParcelStore.Visitor() {
+            @Override
+            public void landParcel(LandParcelView landParcel) {
+                contents.add(landParcel.objectID() + ":" + landParcel.name() + ":" + landParcel.changeSeq());
+            }
+
+            @Override
+            public void tombstone(long objectID, long changeSeq) {
+                contents.add(objectID + ":deleted:" + changeSeq);
+            }
+        });
+        return contents;
+    }
+
+    @Test
+    @DisplayName("Ensure the latest change of a land parcel is read back and older changes arriving late are ignored.")
+    public void testPutGetDelete() throws Exception {
+        try (MappedLandParcelStore store = new MappedLandParcelStore(directory, 4096, false)) {
+            assertTrue(store.isEmpty());
+            LandParcelView first = landParcel(1L, "First", 1);
+            assertTrue(store.put(first));
+            assertTrue(store.put(new LandParcelView(2L, "Grüne Wiese", Status.SAVED, 2.0, false, null, null, null, null, null, 0, 2)));
+            assertTrue(store.put(landParcel(1L, "Renamed", 4)));
+            assertFalse(store.put(landParcel(1L, "Stale", 3)));
+            assertTrue(store.delete(2L, 5));
+
+            LandParcelView renamed = store.get(1L).orElseThrow();
+            assertEquals(landParcel(1L, "Renamed", 4), renamed);
+            assertEquals(first.boundary(), renamed.boundary());
+            assertEquals(Optional.empty(), store.get(2L));
+            assertEquals(Optional.empty(), store.get(3L));
+            assertEquals(1, store.size());
+            assertEquals(List.of("1:Renamed:4", "2:deleted:5"), contents(store));
+            assertTrue(store.getDeadBytes() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Ensure a reopened store holds every record across segments and is truncated at a record torn by a crash.")
+    public void testRecovery() throws Exception {
+        // a segment of 256 bytes holds two of these land parcels, the tombstone goes to a sixth segment
+        try (MappedLandParcelStore store = new MappedLandParcelStore(directory, 256, false)) {
+            for (long id = 1; id <= 10; id++) {
+                store.put(landParcel(id, "Parcel " + id, id));
+            }
+            store.delete(3L, 11);
+        }
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.sorted().toList();
+        }
+        assertEquals(6, segments.size());
+
+        try (MappedLandParcelStore store = new MappedLandParcelStore(directory, 256, false)) {
+            assertEquals(9, store.size());
+            assertEquals("Parcel 10", store.get(10L).orElseThrow().name());
+            assertEquals(Optional.empty(), store.get(3L));
+        }
+
+        // corrupt the objectID of land parcel 10, the second record of the fifth segment
+        try (FileChannel channel = FileChannel.open(segments.get(4), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), 112 + 16);
+        }
+        try (MappedLandParcelStore store = new MappedLandParcelStore(directory, 256, false)) {
+            assertEquals(Optional.empty(), store.get(10L));
+            assertEquals("Parcel 9", store.get(9L).orElseThrow().name());
+            assertEquals("Parcel 3", store.get(3L).orElseThrow().name());
+            assertEquals(9, store.size());
+            assertFalse(Files.exists(segments.get(5)));
+            assertTrue(store.put(landParcel(10L, "Written again", 12)));
+        }
+        try (MappedLandParcelStore store = new MappedLandParcelStore(directory, 256, false)) {
+            assertEquals("Written again", store.get(10L).orElseThrow().name());
+            assertEquals(10, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Ensure compaction keeps only the latest record of every land parcel and the compacted store is reopened.")
+    public void testCompaction() throws Exception {
+        List<String> expected;
+        try (MappedLandParcelStore store = new MappedLandParcelStore(directory, 1024, false)) {
+            long changeSeq = 0;
+            for (int round = 0; round < 5; round++) {
+                for (long id = 1; id <= 20; id++) {
+                    store.put(landParcel(id, "Parcel " + id + " round " + round, ++changeSeq));
+                }
+            }
+            store.delete(7L, ++changeSeq);
+            expected = contents(store);
+            long logBytes = store.getLogBytes();
+
+            store.compact();
+
+            assertEquals(0, store.getDeadBytes());
+            assertTrue(store.getLogBytes() < logBytes / 4, store.getLogBytes() + " of " + logBytes);
+            assertEquals(expected, contents(store));
+            store.put(landParcel(1L, "After compaction", ++changeSeq));
+            expected = contents(store);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(".log")).allMatch(name -> name.startsWith("2-")));
+        }
+        try (MappedLandParcelStore store = new MappedLandParcelStore(directory, 1024, false)) {
+            assertEquals(expected, contents(store));
+            assertEquals("After compaction", store.get(1L).orElseThrow().name());
+            assertEquals(19, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Ensure a land parcel too large for a segment is rejected.")
+    public void testRecordLargerThanSegment() throws IOException {
+        try (MappedLandParcelStore store = new MappedLandParcelStore(directory, 64, false)) {
+            assertThrows(IllegalArgumentException.class, () -> store.put(landParcel(1L, "Too large", 1)));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package landclan.com.landparcel.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelCacheStats;
+import landclan.com.landparcel.domain.LandParcelTombstone;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.Status;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+public class LandParcelCacheTests {
+    
+    private final LandParcelCache landParcelCache = new LandParcelCache(100, Duration.ofMinutes(1));
+    
+    private final LandParcel landParcel = new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true);
+    
+    private final LandParcelView landParcelView = LandParcelView.of(landParcel);
+    
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    @DisplayName("Ensure hits, misses and invalidations are counted and applied.")
+    public void testHitsMissesAndInvalidation() {
+        AtomicInteger loads = new AtomicInteger();
+        
+        landParcelCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(landParcelView); });
+        landParcelCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(landParcelView); });
+        landParcelCache.landParcelSaved(landParcel);
+        landParcelCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(landParcelView); });
+        landParcelCache.landParcelDeleted(1L);
+        Optional<LandParcelView> deleted = landParcelCache.get(1L, id -> { loads.incrementAndGet(); return Optional.empty(); });
+        
+        LandParcelCacheStats stats = landParcelCache.getStats();
+        assertFalse(deleted.isPresent());
+        assertEquals(3, loads.get());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+        assertEquals(0, stats.getSize());
+    }
+    
+    @Test
+    @DisplayName("Ensure a land parcel read before a delete is committed is not left in the cache after the delete.")
+    public void testDeleteDuringLoadIsNotLost() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch deleteCommitted = new CountDownLatch(1);
+        
+        CompletableFuture<Optional<LandParcelView>> reader = CompletableFuture.supplyAsync(() -> landParcelCache.get(1L, id -> {
+            loading.countDown();
+            awaitQuietly(deleteCommitted);
+            return Optional.of(landParcelView);
+        }));
+        
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> invalidation = CompletableFuture.runAsync(() -> landParcelCache.landParcelDeleted(1L));
+        deleteCommitted.countDown();
+        invalidation.get(5, TimeUnit.SECONDS);
+        
+        assertTrue(reader.get(5, TimeUnit.SECONDS).isPresent());
+        assertFalse(landParcelCache.get(1L, id -> Optional.empty()).isPresent());
+    }
+    
+    @Test
+    @DisplayName("Ensure changes made inside a transaction only reach the cache once it commits.")
+    public void testChangesPublishedAfterCommit() {
+        LandParcelChangePublisher changePublisher = new LandParcelChangePublisher(listeners(landParcelCache));
+        landParcelCache.get(1L, id -> Optional.of(landParcelView));
+        
+        TransactionSynchronizationManager.initSynchronization();
+        changePublisher.deleted(new LandParcelTombstone(1L));
+        assertEquals(1, landParcelCache.getStats().getSize());
+        
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(0, landParcelCache.getStats().getSize());
+    }
+    
+    @Test
+    @DisplayName("Ensure changes made inside a transaction which rolls back are dropped.")
+    public void testChangesDroppedOnRollback() {
+        LandParcelChangePublisher changePublisher = new LandParcelChangePublisher(listeners(landParcelCache));
+        landParcelCache.get(1L, id -> Optional.of(landParcelView));
+        
+        TransactionSynchronizationManager.initSynchronization();
+        changePublisher.deleted(new LandParcelTombstone(1L));
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        
+        assertEquals(1, landParcelCache.getStats().getSize());
+        assertFalse(TransactionSynchronizationManager.hasResource(changePublisher));
+    }
+    
+    private static ObjectProvider<LandParcelChangeListener> listeners(LandParcelChangeListener listener) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("listener", listener);
+        return beanFactory.getBeanProvider(LandParcelChangeListener.class);
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
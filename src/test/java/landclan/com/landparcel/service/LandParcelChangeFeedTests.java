@@ -0,0 +1,75 @@
+package landclan.com.landparcel.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelChange;
+import landclan.com.landparcel.domain.OperationType;
+import landclan.com.landparcel.domain.Status;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LandParcelChangeFeedTests {
+
+    private final LandParcelChangeFeed feed = new LandParcelChangeFeed(4);
+
+    @Test
+    @DisplayName("Ensure changes are received in commit order and a subscriber can resume after the last change it received.")
+    public void testPollAndResume() throws Exception {
+        LandParcelChangeFeed.Subscription subscription = feed.subscribe(null);
+        feed.landParcelSaved(new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true));
+        feed.landParcelDeleted(2L);
+
+        List<LandParcelChange> changes = subscription.poll(1, 1, TimeUnit.SECONDS);
+        subscription.close();
+        LandParcelChangeFeed.Subscription resumed = feed.subscribe(changes.get(0).getId());
+        List<LandParcelChange> missed = resumed.poll(10, 1, TimeUnit.SECONDS);
+
+        assertEquals(OperationType.CREATE, changes.get(0).getType());
+        assertEquals("FirstParcel", changes.get(0).getLandParcel().name());
+        assertFalse(resumed.isReset());
+        assertEquals(1, missed.size());
+        assertEquals(OperationType.DELETE, missed.get(0).getType());
+        assertEquals(2L, missed.get(0).getObjectID());
+        assertTrue(resumed.poll(10, 10, TimeUnit.MILLISECONDS).isEmpty());
+        assertEquals(1, feed.getSubscribers());
+    }
+
+    @Test
+    @DisplayName("Ensure a subscriber is reset when changes it has not received have been overwritten or cannot be resumed.")
+    public void testReset() throws Exception {
+        LandParcelChangeFeed.Subscription subscription = feed.subscribe(null);
+        for (long objectID = 1; objectID <= 6; objectID++) {
+            feed.landParcelDeleted(objectID);
+        }
+
+        assertNull(subscription.poll(10, 1, TimeUnit.SECONDS));
+        assertTrue(subscription.isReset());
+        feed.landParcelDeleted(7L);
+        assertEquals(7L, subscription.poll(10, 1, TimeUnit.SECONDS).get(0).getObjectID());
+        assertTrue(feed.subscribe("0-1").isReset());
+        assertTrue(feed.subscribe("not-an-id").isReset());
+        assertTrue(feed.subscribe(subscription.getLastEventId().replaceFirst("-\\d+$", "-0")).isReset());
+    }
+
+    @Test
+    @DisplayName("Ensure a change passed on after a newer change of the same land parcel is left out.")
+    public void testOutOfOrderChange() throws Exception {
+        LandParcelChangeFeed.Subscription subscription = feed.subscribe(null);
+        LandParcel older = new LandParcel(1L, "Older", Status.SAVED, 9.5, true);
+        older.setChangeSeq(5);
+        LandParcel other = new LandParcel(2L, "Other", Status.SAVED, 1.0, false);
+        other.setChangeSeq(4);
+        feed.landParcelDeleted(1L, 6);
+        feed.landParcelSaved(older);
+        feed.landParcelSaved(other);
+
+        List<LandParcelChange> changes = subscription.poll(10, 1, TimeUnit.SECONDS);
+        assertEquals(List.of(OperationType.DELETE, OperationType.CREATE), changes.stream().map(LandParcelChange::getType).toList());
+        assertEquals(List.of(1L, 2L), changes.stream().map(LandParcelChange::getObjectID).toList());
+    }
+}
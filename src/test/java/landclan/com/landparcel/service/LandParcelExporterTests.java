@@ -0,0 +1,173 @@
+package landclan.com.landparcel.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import landclan.com.landparcel.domain.FileFormat;
+import landclan.com.landparcel.domain.JobState;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelExportStatus;
+import landclan.com.landparcel.domain.Polygon;
+import landclan.com.landparcel.domain.Status;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LandParcelExporterTests {
+    
+    private final LandParcelService landParcelService = Mockito.mock(LandParcelService.class);
+    private final LandParcelGeneration landParcelGeneration = Mockito.mock(LandParcelGeneration.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Duration REPLACED_RETENTION = Duration.ofMillis(500);
+    private LandParcelExporter exporter;
+    
+    @TempDir
+    Path directory;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        exporter = new LandParcelExporter(landParcelService, landParcelGeneration, objectMapper, directory, 1, REPLACED_RETENTION);
+        LandParcel first = new LandParcel(1, "First, with comma", Status.SAVED, 1.5, true);
+        first.setBoundary(new Polygon(new double[] {0, 0, 2, 0, 2, 2, 0, 2}));
+        LandParcel second = new LandParcel(2, "Second", Status.APPROVED, 2.5, false);
+        doAnswer(invocation -> {
+            Consumer<LandParcel> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(landParcelService).streamLandParcels(ArgumentMatchers.any());
+        when(landParcelGeneration.current()).thenReturn("1-1");
+    }
+    
+    @AfterEach
+    public void shutdown() throws Exception {
+        exporter.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Ensure a CSV export can be read back by the importer and is reused until the Land Parcels change.")
+    public void testExportCsv() throws Exception {
+        LandParcelExportStatus status = awaitFinished(exporter.export(FileFormat.CSV));
+    
+        assertEquals(JobState.COMPLETED, status.getState());
+        assertEquals(2, status.getRowsWritten());
+        Path file = exporter.getFile(status.getId()).orElseThrow();
+        assertTrue(file.getFileName().toString().endsWith(".csv.gz"));
+        assertEquals(Files.size(file), status.getSizeBytes());
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+        assertEquals(3, lines.size());
+        int[] columns = LandParcelRowParser.csvColumns(lines.get(0));
+        LandParcel first = LandParcelRowParser.fromCsv(lines.get(1), columns);
+        assertEquals("First, with comma", first.getName());
+        assertEquals(4, first.getBoundary().vertexCount());
+        assertEquals(2, first.getBoundary().getX(2));
+        assertEquals(2, first.getBoundary().getY(2));
+        assertNull(LandParcelRowParser.fromCsv(lines.get(2), columns).getBoundary());
+    
+        assertEquals(status.getId(), exporter.export(FileFormat.CSV).getId());
+        verify(landParcelService, times(1)).streamLandParcels(ArgumentMatchers.any());
+    
+        when(landParcelGeneration.current()).thenReturn("1-2");
+        LandParcelExportStatus changed = awaitFinished(exporter.export(FileFormat.CSV));
+        assertNotEquals(status.getId(), changed.getId());
+        assertEquals("1-2", changed.getSnapshot());
+        assertEquals(file, exporter.getFile(status.getId()).orElseThrow());
+        assertTrue(Files.exists(file));
+        assertEquals(changed.getId(), exporter.export(FileFormat.CSV).getId());
+        for (int i = 0; i < 500 && Files.exists(file); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(Files.exists(file));
+        assertTrue(exporter.getStatus(status.getId()).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Ensure a GeoJSON export is a FeatureCollection which can be read back by the importer.")
+    public void testExportGeoJson() throws Exception {
+        LandParcelExportStatus status = awaitFinished(exporter.export(FileFormat.GEOJSON));
+    
+        assertEquals(JobState.COMPLETED, status.getState());
+        JsonNode collection;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(exporter.getFile(status.getId()).orElseThrow()))) {
+            collection = objectMapper.readTree(in);
+        }
+        assertEquals("FeatureCollection", collection.get("type").asText());
+        assertEquals(2, collection.get("features").size());
+        LandParcel first = LandParcelRowParser.fromFeature(collection.get("features").get(0));
+        assertEquals(Status.SAVED, first.getStatus());
+        assertEquals(4, first.getBoundary().vertexCount());
+        assertTrue(collection.get("features").get(1).get("geometry").isNull());
+    }
+    
+    @Test
+    @DisplayName("Ensure a failed export is reported and not reused.")
+    public void testExportFailed() throws Exception {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Database unavailable");
+        }).when(landParcelService).streamLandParcels(ArgumentMatchers.any());
+    
+        LandParcelExportStatus status = awaitFinished(exporter.export(FileFormat.CSV));
+    
+        assertEquals(JobState.FAILED, status.getState());
+        assertEquals("The export could not be written: Database unavailable", status.getFailure());
+        assertTrue(exporter.getFile(status.getId()).isEmpty());
+        assertNotEquals(status.getId(), exporter.export(FileFormat.CSV).getId());
+    }
+    
+    @Test
+    @DisplayName("Ensure exporters sharing a directory keep each other's files and only remove those of processes no longer running.")
+    public void testSharedDirectory() throws Exception {
+        Path file = exporter.getFile(awaitFinished(exporter.export(FileFormat.CSV)).getId()).orElseThrow();
+        Path deadInstance = Files.createDirectory(directory.resolve(Long.MAX_VALUE + "-dead"));
+        Files.writeString(deadInstance.resolve("landparcels-left-over.csv.gz.part"), "partial");
+        
+        LandParcelExporter other = new LandParcelExporter(landParcelService, landParcelGeneration, objectMapper, directory, 1, REPLACED_RETENTION);
+        assertTrue(Files.exists(file));
+        assertFalse(Files.exists(deadInstance));
+        
+        Path otherFile = other.getFile(awaitFinished(other, other.export(FileFormat.CSV)).getId()).orElseThrow();
+        other.shutdown();
+        assertFalse(Files.exists(otherFile.getParent()));
+        assertTrue(Files.exists(file));
+    }
+    
+    private LandParcelExportStatus awaitFinished(LandParcelExportStatus submitted) throws InterruptedException {
+        return awaitFinished(exporter, submitted);
+    }
+    
+    private static LandParcelExportStatus awaitFinished(LandParcelExporter exporter, LandParcelExportStatus submitted) throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            LandParcelExportStatus status = exporter.getStatus(submitted.getId()).orElseThrow();
+            if (status.getState() == JobState.COMPLETED || status.getState() == JobState.FAILED) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("The export did not finish.");
+    }
+}
@@ -0,0 +1,140 @@
+package landclan.com.landparcel.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import landclan.com.landparcel.domain.FileFormat;
+import landclan.com.landparcel.domain.JobState;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelImportStatus;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.service.LandParcelWriteBehind.Durability;
+import landclan.com.landparcel.service.LandParcelWriteBehind.Ordering;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public class LandParcelImporterTests {
+    
+    private final LandParcelService landParcelService = Mockito.mock(LandParcelService.class);
+    private final LandParcelWriteBehind writeBehind = new LandParcelWriteBehind(landParcelService, true, 100, 100, Duration.ofHours(1),
+            Durability.ACKNOWLEDGED, Ordering.STRICT);
+    private final LandParcelImporter importer = new LandParcelImporter(landParcelService, writeBehind, new ObjectMapper(), 2, 2, 10);
+    private final List<LandParcel> saved = new ArrayList<>();
+    
+    @AfterEach
+    public void shutdown() throws InterruptedException {
+        importer.shutdown();
+        writeBehind.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Ensure valid CSV rows are saved in file order in chunks and invalid rows are reported by line number.")
+    public void testImportCsv() throws Exception {
+        doAnswer(invocation -> saved.addAll(invocation.getArgument(0))).when(landParcelService).saveLandParcels(ArgumentMatchers.anyList());
+        String csv = """
+                area,name,status,constraints,boundary
+                1.5,First,SAVED,true,"POLYGON ((0 0, 2 0, 2 2, 0 2, 0 0))"
+                2.5,"Second, with comma",approved,,
+                3.5,Third,DEMOLISHED,false,
+                
+                ,Fifth,SAVED,false,
+                5.5,Sixth,SHORT_LISTED,false,
+                """;
+        
+        LandParcelImportStatus status = awaitFinished(importer.submit(FileFormat.CSV, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+        
+        assertEquals(JobState.COMPLETED, status.getState());
+        assertEquals(5, status.getRowsRead());
+        assertEquals(3, status.getRowsImported());
+        assertEquals(2, status.getRowsRejected());
+        assertEquals(List.of("First", "Second, with comma", "Sixth"), saved.stream().map(LandParcel::getName).toList());
+        assertEquals(4, saved.get(0).getBoundary().vertexCount());
+        assertEquals(Status.APPROVED, saved.get(1).getStatus());
+        List<String> report = Files.readAllLines(importer.getErrorReport(status.getId()).orElseThrow());
+        assertEquals("row,message", report.get(0));
+        assertTrue(report.get(1).startsWith("4,\"The status DEMOLISHED"));
+        assertEquals("6,\"The area is missing.\"", report.get(2));
+    }
+    
+    @Test
+    @DisplayName("Ensure GeoJSON features are imported with their Polygon geometry and other geometries are reported by feature number.")
+    public void testImportGeoJson() throws Exception {
+        doAnswer(invocation -> saved.addAll(invocation.getArgument(0))).when(landParcelService).saveLandParcels(ArgumentMatchers.anyList());
+        String geoJson = """
+                {"type": "FeatureCollection", "name": "parcels", "features": [
+                  {"type": "Feature", "properties": {"name": "First", "status": "SAVED", "area": 4.0, "constraints": true},
+                   "geometry": {"type": "Polygon", "coordinates": [[[0, 0], [2, 0], [2, 2], [0, 0]]]}},
+                  {"type": "Feature", "properties": {"name": "Second", "status": "SAVED", "area": 1.0},
+                   "geometry": {"type": "MultiPolygon", "coordinates": []}},
+                  {"type": "Feature", "properties": {"name": "Third", "status": "APPROVED", "area": "2.0"}, "geometry": null}
+                ]}
+                """;
+        
+        LandParcelImportStatus status = awaitFinished(importer.submit(FileFormat.GEOJSON, new ByteArrayInputStream(geoJson.getBytes(StandardCharsets.UTF_8))));
+        
+        assertEquals(JobState.COMPLETED, status.getState());
+        assertEquals(List.of("First", "Third"), saved.stream().map(LandParcel::getName).toList());
+        assertEquals(3, saved.get(0).getBoundary().vertexCount());
+        assertTrue(saved.get(0).isConstraints());
+        assertNull(saved.get(1).getBoundary());
+        assertEquals("2,\"The geometry MultiPolygon is not a Polygon.\"", Files.readAllLines(importer.getErrorReport(status.getId()).orElseThrow()).get(1));
+    }
+    
+    @Test
+    @DisplayName("Ensure a chunk rejected by the database is saved row by row so only the rows at fault are rejected, and a malformed file fails the job.")
+    public void testImportDatabaseRejectionAndMalformedFile() throws Exception {
+        when(landParcelService.saveLandParcels(ArgumentMatchers.anyList())).thenThrow(new DataIntegrityViolationException("Duplicate"));
+        when(landParcelService.saveLandParcel(ArgumentMatchers.argThat(landParcel -> landParcel.getName().equals("Bad"))))
+                .thenThrow(new DataIntegrityViolationException("Value too long"));
+        
+        LandParcelImportStatus status = awaitFinished(importer.submit(FileFormat.CSV,
+                new ByteArrayInputStream("name,status,area\nGood,SAVED,1\nBad,SAVED,2\n".getBytes(StandardCharsets.UTF_8))));
+        LandParcelImportStatus malformed = awaitFinished(importer.submit(FileFormat.GEOJSON,
+                new ByteArrayInputStream("{\"features\": [{\"properties\": ".getBytes(StandardCharsets.UTF_8))));
+        
+        assertEquals(1, status.getRowsImported());
+        assertEquals("3,\"The database rejected the row: Value too long\"", Files.readAllLines(importer.getErrorReport(status.getId()).orElseThrow()).get(1));
+        assertEquals(JobState.FAILED, malformed.getState());
+        assertTrue(malformed.getFailure().startsWith("The file could not be read"));
+    }
+    
+    @Test
+    @DisplayName("Ensure an import started after an update was queued is saved after the update under strict ordering.")
+    public void testImportAfterQueuedUpdate() throws Exception {
+        when(landParcelService.updateLandParcels(ArgumentMatchers.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        writeBehind.update(new LandParcel(1L, "Queued", Status.SAVED, 1.0, false));
+        
+        LandParcelImportStatus status = awaitFinished(importer.submit(FileFormat.CSV,
+                new ByteArrayInputStream("name,status,area\nImported,SAVED,1\n".getBytes(StandardCharsets.UTF_8))));
+        
+        assertEquals(1, status.getRowsImported());
+        InOrder inOrder = Mockito.inOrder(landParcelService);
+        inOrder.verify(landParcelService).updateLandParcels(ArgumentMatchers.anyList());
+        inOrder.verify(landParcelService).saveLandParcels(ArgumentMatchers.anyList());
+    }
+    
+    private LandParcelImportStatus awaitFinished(LandParcelImportStatus submitted) throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            LandParcelImportStatus status = importer.getStatus(submitted.getId()).orElseThrow();
+            if (status.getState() == JobState.COMPLETED || status.getState() == JobState.FAILED) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("The import did not finish.");
+    }
+}
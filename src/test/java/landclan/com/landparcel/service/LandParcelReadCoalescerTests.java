@@ -0,0 +1,157 @@
+package landclan.com.landparcel.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.Status;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LandParcelReadCoalescerTests {
+
+    private final LandParcelReadCoalescer readCoalescer = new LandParcelReadCoalescer(true);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ExecutorService readers = Executors.newCachedThreadPool();
+
+    private final LandParcel landParcel = new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true);
+
+    public LandParcelReadCoalescerTests() {
+        readCoalescer.bindTo(registry);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        readers.shutdownNow();
+    }
+
+    private double reads(String read, String outcome) {
+        return registry.get("landparcel.coalescing.reads").tag("read", read).tag("outcome", outcome).functionCounter().count();
+    }
+
+    /**
+     * Waits until the given number of reads have joined the read in flight.
+     */
+    private void awaitShared(String read, int shared) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reads(read, "shared") < shared) {
+            assertTrue(System.nanoTime() < deadline, "reads did not join the read in flight");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Ensure concurrent reads of the same page share one read and its result.")
+    public void testConcurrentReadsShareOneRead() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        LandParcelResponse page = new LandParcelResponse(List.of(LandParcelView.of(landParcel)), null, 1);
+
+        List<CompletableFuture<LandParcelResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(CompletableFuture.supplyAsync(() -> readCoalescer.getLandParcels(0L, 100, () -> {
+                reads.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return page;
+            }), readers));
+        }
+        awaitShared("page", 7);
+        release.countDown();
+
+        for (CompletableFuture<LandParcelResponse> response : responses) {
+            assertSame(page, response.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, reads.get());
+        assertEquals(7.0 / 8, readCoalescer.getSharedRatio());
+
+        readCoalescer.getLandParcels(0L, 100, () -> { reads.incrementAndGet(); return page; });
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    @DisplayName("Ensure a read arriving after a committed change does not join a read in flight from before it.")
+    public void testChangeInvalidatesReadsInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Optional<LandParcelView> before = Optional.of(LandParcelView.of(landParcel));
+        CompletableFuture<Optional<LandParcelView>> stale = CompletableFuture.supplyAsync(() -> readCoalescer.getLandParcel(1L, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return before;
+        }), readers);
+        CompletableFuture<LandParcelResponse> stalePage = CompletableFuture.supplyAsync(() -> readCoalescer.getLandParcels(0L, 100, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new LandParcelResponse(List.of(), null, 0);
+        }), readers);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reads("landParcel", "executed") + reads("page", "executed") < 2) {
+            assertTrue(System.nanoTime() < deadline, "reads did not start");
+            Thread.sleep(1);
+        }
+
+        landParcel.setName("Renamed");
+        readCoalescer.landParcelSaved(landParcel);
+        Optional<LandParcelView> after = readCoalescer.getLandParcel(1L, () -> Optional.of(LandParcelView.of(landParcel)));
+        LandParcelResponse afterPage = readCoalescer.getLandParcels(0L, 100, () -> new LandParcelResponse(List.of(LandParcelView.of(landParcel)), null, 1));
+        release.countDown();
+
+        assertEquals("Renamed", after.get().name());
+        assertEquals(1, afterPage.getTotalCount());
+        assertNotSame(before, after);
+        assertSame(before, stale.get(5, TimeUnit.SECONDS));
+        assertEquals(0, stalePage.get(5, TimeUnit.SECONDS).getTotalCount());
+        assertEquals(0.0, reads("landParcel", "shared") + reads("page", "shared"));
+    }
+
+    @Test
+    @DisplayName("Ensure a read which fails hands its exception to the reads which joined it and is not kept.")
+    public void testFailureIsSharedAndNotKept() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Optional<LandParcelView>>> reads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            reads.add(CompletableFuture.supplyAsync(() -> readCoalescer.getLandParcel(1L, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("database unavailable");
+            }), readers));
+        }
+        awaitShared("landParcel", 2);
+        release.countDown();
+
+        for (CompletableFuture<Optional<LandParcelView>> read : reads) {
+            Exception e = assertThrows(Exception.class, () -> read.get(5, TimeUnit.SECONDS));
+            assertEquals("database unavailable", e.getCause().getMessage());
+        }
+        assertEquals(Optional.empty(), readCoalescer.getLandParcel(1L, Optional::empty));
+    }
+}
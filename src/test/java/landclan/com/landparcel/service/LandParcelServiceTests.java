@@ -1,15 +1,35 @@
 package landclan.com.landparcel.service;
 
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.LandParcelDelta;
+import landclan.com.landparcel.domain.LandParcelOperation;
+import landclan.com.landparcel.domain.LandParcelOperationResult;
 import landclan.com.landparcel.domain.LandParcelResponse;
+import landclan.com.landparcel.domain.LandParcelSearchCriteria;
+import landclan.com.landparcel.domain.LandParcelTombstone;
+import landclan.com.landparcel.domain.LandParcelView;
+import landclan.com.landparcel.domain.OperationType;
 import landclan.com.landparcel.domain.Status;
 import landclan.com.landparcel.exception.LandParcelNotFoundException;
+import landclan.com.landparcel.exception.LandParcelVersionMismatchException;
+import landclan.com.landparcel.repo.LandParcelChangeSequence;
 import landclan.com.landparcel.repo.LandParcelRepository;
+import landclan.com.landparcel.repo.LandParcelStore;
+import landclan.com.landparcel.repo.LandParcelTombstoneRepository;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -19,9 +39,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 public class LandParcelServiceTests {
@@ -29,43 +56,152 @@ public class LandParcelServiceTests {
     @Mock
     private LandParcelRepository landParcelRepository;
     
+    @Mock
+    private LandParcelTombstoneRepository tombstoneRepository;
+    
+    @Mock
+    private LandParcelChangeSequence changeSequence;
+    
+    @Mock
+    private EntityManager entityManager;
+    
+    @Mock
+    private LandParcelChangePublisher changePublisher;
+    
+    @Mock
+    private LandParcelStore landParcelStore;
+    
+    @Spy
+    private LandParcelCache landParcelCache = new LandParcelCache(100, Duration.ofMinutes(1));
+    
+    @Spy
+    private LandParcelReadCoalescer readCoalescer = new LandParcelReadCoalescer(true);
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
     @InjectMocks
     private LandParcelServiceImpl landParcelService;
     
     @Test
     @DisplayName("Ensure a non-empty set of land parcels are returned.")
     public void testGetLandParcels() {
-        List<LandParcel> landParcels = Mockito.mock(List.class);
+        List<LandParcelView> landParcels = Mockito.mock(List.class);
         
-        when(landParcelRepository.findAll()).thenReturn(landParcels);
+        when(landParcelRepository.findViewsAfter(0L, Limit.of(LandParcelService.DEFAULT_PAGE_SIZE + 1))).thenReturn(landParcels);
         
-        LandParcelResponse response = landParcelService.getLandParcels();
+        LandParcelResponse response = landParcelService.getLandParcels(null, LandParcelService.DEFAULT_PAGE_SIZE);
         
         assertThat(response).isNotNull();
     }
     
+    @Test
+    @DisplayName("Ensure a full page of land parcels returns the cursor of its last land parcel.")
+    public void testGetLandParcelsNextCursor() {
+        List<LandParcelView> landParcels = List.of(
+                LandParcelView.of(new LandParcel(3L, "Third", Status.SAVED, 1.0, false)),
+                LandParcelView.of(new LandParcel(4L, "Fourth", Status.APPROVED, 2.0, true)),
+                LandParcelView.of(new LandParcel(5L, "Fifth", Status.SAVED, 3.0, false)));
+        
+        when(landParcelRepository.findViewsAfter(2L, Limit.of(3))).thenReturn(landParcels);
+        when(landParcelRepository.count()).thenReturn(5L);
+        
+        LandParcelResponse response = landParcelService.getLandParcels(2L, 2);
+        
+        assertEquals(2, response.getLandParcels().size());
+        assertEquals(4L, response.getNextCursor());
+        assertEquals(5L, response.getTotalCount());
+    }
+    
+    @Test
+    @DisplayName("Ensure the last page of land parcels has no next cursor and oversized pages are capped.")
+    public void testGetLandParcelsLastPage() {
+        List<LandParcelView> landParcels = List.of(LandParcelView.of(new LandParcel(5L, "Fifth", Status.SAVED, 3.0, false)));
+        
+        when(landParcelRepository.findViewsAfter(4L, Limit.of(LandParcelService.MAX_PAGE_SIZE + 1))).thenReturn(landParcels);
+        
+        LandParcelResponse response = landParcelService.getLandParcels(4L, Integer.MAX_VALUE);
+        
+        assertEquals(1, response.getLandParcels().size());
+        assertNull(response.getNextCursor());
+    }
+    
+    @Test
+    @DisplayName("Ensure every streamed land parcel is passed on and then detached.")
+    public void testStreamLandParcels() {
+        LandParcel landParcel = new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true);
+        LandParcel landParcel2 = new LandParcel(2L, "SecondParcel", Status.SHORT_LISTED, 4.0, false);
+        List<LandParcel> consumed = new ArrayList<>();
+        
+        when(landParcelRepository.streamAllByOrderByObjectIDAsc()).thenReturn(Stream.of(landParcel, landParcel2));
+        
+        landParcelService.streamLandParcels(consumed::add);
+        
+        assertEquals(List.of(landParcel, landParcel2), consumed);
+        verify(entityManager).detach(landParcel);
+        verify(entityManager).detach(landParcel2);
+    }
+    
+    @Test
+    @DisplayName("Ensure a search with an unknown sort field or a corrupt cursor is rejected.")
+    public void testSearchLandParcelsInvalid() {
+        LandParcelSearchCriteria unknownSort = new LandParcelSearchCriteria(null, null, null, null, "password,asc");
+        LandParcelSearchCriteria valid = new LandParcelSearchCriteria(Set.of(Status.SAVED), 1.0, 2.0, true, "area,desc");
+        
+        assertThrows(IllegalArgumentException.class, () -> landParcelService.searchLandParcels(unknownSort, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> landParcelService.searchLandParcels(valid, "not-a-cursor", 10));
+    }
+    
+    @Test
+    @DisplayName("Ensure a search cursor decodes to the keyset position it was encoded from.")
+    public void testSearchCursorRoundTrip() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("status", Status.APPROVED);
+        keys.put("area", 12.5);
+        keys.put("objectID", 42L);
+        
+        KeysetScrollPosition position = (KeysetScrollPosition) SearchCursor.decode(SearchCursor.encode(ScrollPosition.forward(keys)));
+        
+        assertEquals(keys, position.getKeys());
+    }
+    
     @Test
     @DisplayName("Ensure a land parcel is returned when the objectId is specified.")
     public void testGetLandParcelWhenExists() {
         long objectId = 1L;
-        LandParcel landParcel = Mockito.mock(LandParcel.class);
+        LandParcelView landParcel = LandParcelView.of(new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true));
         
-        when(landParcelRepository.findById(objectId)).thenReturn(Optional.of(landParcel));
+        when(landParcelRepository.findViewById(objectId)).thenReturn(Optional.of(landParcel));
         
-        Optional<LandParcel> result = landParcelService.getLandParcel(objectId);
+        Optional<LandParcelView> result = landParcelService.getLandParcel(objectId);
         
         assertTrue(result.isPresent());
         assertSame(landParcel, result.get());
     }
     
+    @Test
+    @DisplayName("Ensure a land parcel is only read from the database once while it is cached.")
+    public void testGetLandParcelIsCached() {
+        long objectId = 1L;
+        LandParcelView landParcel = LandParcelView.of(new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true));
+        
+        when(landParcelRepository.findViewById(objectId)).thenReturn(Optional.of(landParcel));
+        
+        landParcelService.getLandParcel(objectId);
+        Optional<LandParcelView> result = landParcelService.getLandParcel(objectId);
+        
+        assertSame(landParcel, result.get());
+        verify(landParcelRepository, Mockito.times(1)).findViewById(objectId);
+    }
+    
     @Test
     @DisplayName("Ensure a land parcel is not returned when the objectId is specified.")
     public void testGetLandParcelWhenNotExists() {
         long objectId = 1L;
         
-        when(landParcelRepository.findById(objectId)).thenReturn(Optional.ofNullable(null));
+        when(landParcelRepository.findViewById(objectId)).thenReturn(Optional.ofNullable(null));
         
-        Optional<LandParcel> result = landParcelService.getLandParcel(objectId);
+        Optional<LandParcelView> result = landParcelService.getLandParcel(objectId);
         
         assertTrue(result.isEmpty());
     }
@@ -82,6 +218,61 @@ public class LandParcelServiceTests {
         assertSame(savedLandParcel, landParcel);
     }
     
+    @Test
+    @DisplayName("Ensure land parcels are created in bulk and flushed once per batch.")
+    public void testSaveLandParcels() {
+        ReflectionTestUtils.setField(landParcelService, "batchSize", 2);
+        List<LandParcel> landParcels = List.of(
+                new LandParcel(0L, "FirstParcel", Status.SAVED, 9.5, true),
+                new LandParcel(0L, "SecondParcel", Status.SHORT_LISTED, 4.0, false),
+                new LandParcel(0L, "ThirdParcel", Status.APPROVED, 1.5, false));
+        
+        List<LandParcel> savedLandParcels = landParcelService.saveLandParcels(landParcels);
+        
+        assertEquals(3, savedLandParcels.size());
+        assertEquals("ThirdParcel", savedLandParcels.get(2).getName());
+        verify(entityManager, Mockito.times(3)).persist(Mockito.any(LandParcel.class));
+        verify(entityManager, Mockito.times(1)).flush();
+        verify(entityManager, Mockito.times(1)).clear();
+    }
+    
+    @Test
+    @DisplayName("Ensure a batch size which is not positive is rejected when the service is created.")
+    public void testInvalidBatchSize() {
+        ReflectionTestUtils.setField(landParcelService, "batchSize", 0);
+        assertThrows(IllegalArgumentException.class, () -> landParcelService.checkBatchSize());
+        ReflectionTestUtils.setField(landParcelService, "batchSize", -1);
+        assertThrows(IllegalArgumentException.class, () -> landParcelService.checkBatchSize());
+        ReflectionTestUtils.setField(landParcelService, "batchSize", 1);
+        landParcelService.checkBatchSize();
+    }
+    
+    @Test
+    @DisplayName("Ensure a batch of operations loads existing land parcels once and reports a result per operation.")
+    public void testApplyLandParcelOperations() {
+        LandParcel existing = new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true);
+        LandParcel deleted = new LandParcel(2L, "SecondParcel", Status.SAVED, 4.0, false);
+        LandParcel created = new LandParcel(0L, "NewParcel", Status.SAVED, 1.0, false);
+        LandParcel updated = new LandParcel(1L, "RenamedParcel", Status.APPROVED, 9.5, true);
+        List<LandParcelOperation> operations = List.of(
+                new LandParcelOperation(OperationType.CREATE, null, created),
+                new LandParcelOperation(OperationType.UPDATE, null, updated),
+                new LandParcelOperation(OperationType.DELETE, 2L, null),
+                new LandParcelOperation(OperationType.DELETE, 2L, null),
+                new LandParcelOperation(OperationType.DELETE, null, null));
+        
+        when(landParcelRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(existing, deleted));
+        
+        List<LandParcelOperationResult> results = landParcelService.applyLandParcelOperations(operations);
+        
+        assertEquals(List.of(201, 200, 200, 404, 400), results.stream().map(LandParcelOperationResult::getStatus).toList());
+        assertEquals("RenamedParcel", existing.getName());
+        assertEquals(Status.APPROVED, existing.getStatus());
+        verify(landParcelRepository, Mockito.times(1)).findAllById(Mockito.any());
+        verify(entityManager).persist(Mockito.any(LandParcel.class));
+        verify(entityManager).remove(deleted);
+    }
+    
     @Test
     @DisplayName("Ensure a land parcel is updated correctly.")
     public void testUpdateLandParcel() {
@@ -95,6 +286,40 @@ public class LandParcelServiceTests {
         
         assertThat(updatedLandParcel).isNotNull();
         assertSame(updatedLandParcel, landParcel);
+        verify(changePublisher).saved(landParcel);
+    }
+    
+    @Test
+    @DisplayName("Ensure an update expecting a version other than the stored version is rejected before any change is made.")
+    public void testUpdateLandParcelVersionMismatch() {
+        long objectId = 1L;
+        LandParcel landParcel = new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true);
+        LandParcel changes = new LandParcel(1L, "RenamedParcel", Status.APPROVED, 9.5, true);
+        
+        when(landParcelRepository.findById(objectId)).thenReturn(Optional.of(landParcel));
+        
+        assertThrows(LandParcelVersionMismatchException.class, () -> landParcelService.updateLandParcel(changes, 3L));
+        assertEquals("FirstParcel", landParcel.getName());
+        verify(landParcelRepository, Mockito.never()).save(Mockito.any());
+        verify(changePublisher, Mockito.never()).saved(Mockito.any());
+    }
+    
+    @Test
+    @DisplayName("Ensure a group commit loads the land parcels once and leaves out those which do not exist.")
+    public void testUpdateLandParcels() {
+        LandParcel stored = new LandParcel(1L, "FirstParcel", Status.SAVED, 9.5, true);
+        LandParcel changes = new LandParcel(1L, "RenamedParcel", Status.APPROVED, 9.5, true);
+        LandParcel missing = new LandParcel(2L, "SecondParcel", Status.SAVED, 1.0, false);
+        
+        when(landParcelRepository.findAllById(Set.of(1L, 2L))).thenReturn(new ArrayList<>(List.of(stored)));
+        
+        List<LandParcel> updated = landParcelService.updateLandParcels(List.of(changes, missing));
+        
+        assertEquals(List.of(stored), updated);
+        assertEquals("RenamedParcel", stored.getName());
+        assertEquals(Status.APPROVED, stored.getStatus());
+        verify(changePublisher).saved(stored);
+        verify(landParcelRepository, Mockito.never()).save(Mockito.any());
     }
     
     @Test
@@ -109,6 +334,49 @@ public class LandParcelServiceTests {
         assertEquals("Land Parcel with object ID:"+objectId+" not found.", exception.getMessage());
     }
     
+    @Test
+    @DisplayName("Ensure changed land parcels and tombstones are merged in change sequence order up to the page size.")
+    public void testGetLandParcelChanges() {
+        when(changeSequence.getCommitted()).thenReturn(10L);
+        when(landParcelRepository.findViewsChangedBetween(2L, 10L, Limit.of(4))).thenReturn(List.of(view(3L, 3L), view(5L, 6L)));
+        when(tombstoneRepository.findChangedBetween(2L, 10L, Limit.of(4))).thenReturn(List.of(tombstone(1L, 4L), tombstone(2L, 8L)));
+        
+        LandParcelDelta delta = landParcelService.getLandParcelChanges(2L, 3);
+        
+        assertEquals(List.of(3L, 5L), delta.getLandParcels().stream().map(LandParcelView::objectID).toList());
+        assertEquals(List.of(1L), delta.getDeletedObjectIDs());
+        assertEquals(6L, delta.getNextSince());
+        assertTrue(delta.isHasMore());
+        assertFalse(delta.isReset());
+    }
+    
+    @Test
+    @DisplayName("Ensure a client which has caught up is given the committed change sequence and one from another database is reset.")
+    public void testGetLandParcelChangesCaughtUpAndReset() {
+        when(changeSequence.getCommitted()).thenReturn(10L);
+        when(landParcelRepository.findViewsChangedBetween(0L, 10L, Limit.of(LandParcelService.DEFAULT_PAGE_SIZE + 1))).thenReturn(List.of(view(3L, 7L)));
+        when(tombstoneRepository.findChangedBetween(0L, 10L, Limit.of(LandParcelService.DEFAULT_PAGE_SIZE + 1))).thenReturn(List.of());
+        
+        LandParcelDelta delta = landParcelService.getLandParcelChanges(25L, LandParcelService.DEFAULT_PAGE_SIZE);
+        
+        assertEquals(1, delta.getLandParcels().size());
+        assertEquals(10L, delta.getNextSince());
+        assertFalse(delta.isHasMore());
+        assertTrue(delta.isReset());
+    }
+    
+    private static LandParcelView view(long objectID, long changeSeq) {
+        LandParcel landParcel = new LandParcel(objectID, "Parcel"+objectID, Status.SAVED, 1.0, false);
+        landParcel.setChangeSeq(changeSeq);
+        return LandParcelView.of(landParcel);
+    }
+    
+    private static LandParcelTombstone tombstone(long objectID, long changeSeq) {
+        LandParcelTombstone tombstone = new LandParcelTombstone(objectID);
+        tombstone.setChangeSeq(changeSeq);
+        return tombstone;
+    }
+    
     @Test
     @DisplayName("Ensure a land parcel is correctly deleted.")
     public void testDeleteLandParcel() {
@@ -120,6 +388,8 @@ public class LandParcelServiceTests {
         doNothing().when(landParcelRepository).deleteById(objectId);
         
         assertAll(() -> landParcelService.deleteLandParcel(objectId));
+        verify(entityManager).persist(Mockito.any(LandParcelTombstone.class));
+        verify(changePublisher).deleted(Mockito.<LandParcelTombstone>argThat(tombstone -> tombstone.getObjectID() == objectId));
     }
     
     @Test
@@ -0,0 +1,129 @@
+package landclan.com.landparcel.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import landclan.com.landparcel.domain.LandParcel;
+import landclan.com.landparcel.domain.Status;
+import landclan.com.landparcel.exception.LandParcelNotFoundException;
+import landclan.com.landparcel.service.LandParcelWriteBehind.Durability;
+import landclan.com.landparcel.service.LandParcelWriteBehind.Ordering;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+public class LandParcelWriteBehindTests {
+
+    private final LandParcelService landParcelService = Mockito.mock(LandParcelService.class);
+
+    private LandParcelWriteBehind writeBehind(int flushSize, Durability durability, Ordering ordering) {
+        return new LandParcelWriteBehind(landParcelService, true, 100, flushSize, Duration.ofHours(1), durability, ordering);
+    }
+
+    @Test
+    @DisplayName("Ensure updates of the same land parcel are coalesced and the queue is written in one group commit at shutdown.")
+    public void testCoalesceAndFlushOnShutdown() throws Exception {
+        when(landParcelService.updateLandParcels(ArgumentMatchers.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        LandParcelWriteBehind writeBehind = writeBehind(100, Durability.ACKNOWLEDGED, Ordering.PER_PARCEL);
+
+        CompletableFuture<LandParcel> first = writeBehind.update(new LandParcel(1L, "First", Status.SAVED, 1.0, false));
+        CompletableFuture<LandParcel> second = writeBehind.update(new LandParcel(2L, "Second", Status.SAVED, 2.0, false));
+        CompletableFuture<LandParcel> renamed = writeBehind.update(new LandParcel(1L, "Renamed", Status.APPROVED, 1.0, false));
+        assertFalse(first.isDone());
+
+        writeBehind.shutdown();
+
+        verify(landParcelService).updateLandParcels(ArgumentMatchers.argThat(landParcels ->
+                landParcels.stream().map(LandParcel::getName).toList().equals(List.of("Renamed", "Second"))));
+        assertEquals("Renamed", first.get().getName());
+        assertEquals("Renamed", renamed.get().getName());
+        assertEquals("Second", second.get().getName());
+
+        LandParcel late = new LandParcel(3L, "Late", Status.SAVED, 3.0, false);
+        when(landParcelService.updateLandParcel(late)).thenReturn(late);
+        assertEquals(late, writeBehind.update(late).get());
+    }
+
+    @Test
+    @DisplayName("Ensure the queue is written as soon as it holds flush-size land parcels, or at once when updates wait to be committed.")
+    public void testFlushWithoutWaitingForInterval() throws Exception {
+        when(landParcelService.updateLandParcels(ArgumentMatchers.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        LandParcelWriteBehind acknowledged = writeBehind(2, Durability.ACKNOWLEDGED, Ordering.PER_PARCEL);
+        LandParcelWriteBehind committed = writeBehind(100, Durability.COMMITTED, Ordering.PER_PARCEL);
+        try {
+            acknowledged.update(new LandParcel(1L, "First", Status.SAVED, 1.0, false));
+            CompletableFuture<LandParcel> second = acknowledged.update(new LandParcel(2L, "Second", Status.SAVED, 2.0, false));
+            CompletableFuture<LandParcel> third = committed.update(new LandParcel(3L, "Third", Status.SAVED, 3.0, false));
+
+            assertEquals("Second", second.get(5, TimeUnit.SECONDS).getName());
+            assertEquals("Third", third.get(5, TimeUnit.SECONDS).getName());
+        } finally {
+            acknowledged.shutdown();
+            committed.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Ensure a failed group commit is applied one update at a time and missing land parcels are reported.")
+    public void testGroupCommitFailure() throws Exception {
+        LandParcel first = new LandParcel(1L, "First", Status.SAVED, 1.0, false);
+        LandParcel second = new LandParcel(2L, "Second", Status.SAVED, 2.0, false);
+        LandParcel third = new LandParcel(3L, "Third", Status.SAVED, 3.0, false);
+        when(landParcelService.updateLandParcels(ArgumentMatchers.anyList()))
+                .thenThrow(new OptimisticLockingFailureException("Row was updated by another transaction"))
+                .thenReturn(List.of(third));
+        when(landParcelService.updateLandParcel(first)).thenReturn(first);
+        when(landParcelService.updateLandParcel(second)).thenThrow(new OptimisticLockingFailureException("Row was updated by another transaction"));
+        LandParcelWriteBehind writeBehind = writeBehind(100, Durability.ACKNOWLEDGED, Ordering.PER_PARCEL);
+
+        CompletableFuture<LandParcel> firstUpdate = writeBehind.update(first);
+        CompletableFuture<LandParcel> secondUpdate = writeBehind.update(second);
+        writeBehind.awaitQueuedUpdates(List.of(1L));
+        CompletableFuture<LandParcel> thirdUpdate = writeBehind.update(third);
+        CompletableFuture<LandParcel> missingUpdate = writeBehind.update(new LandParcel(4L, "Missing", Status.SAVED, 4.0, false));
+        writeBehind.shutdown();
+
+        assertEquals(first, firstUpdate.get());
+        ExecutionException conflict = assertThrows(ExecutionException.class, secondUpdate::get);
+        assertInstanceOf(OptimisticLockingFailureException.class, conflict.getCause());
+        assertEquals(third, thirdUpdate.get());
+        ExecutionException missing = assertThrows(ExecutionException.class, missingUpdate::get);
+        assertEquals("Land Parcel with object ID:4 not found.", missing.getCause().getMessage());
+        assertInstanceOf(LandParcelNotFoundException.class, missing.getCause());
+    }
+
+    @Test
+    @DisplayName("Ensure other writes only wait for the queue when it holds their land parcel, or always when ordering is strict.")
+    public void testOrdering() throws Exception {
+        when(landParcelService.updateLandParcels(ArgumentMatchers.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        LandParcelWriteBehind perParcel = writeBehind(100, Durability.ACKNOWLEDGED, Ordering.PER_PARCEL);
+        LandParcelWriteBehind strict = writeBehind(100, Durability.ACKNOWLEDGED, Ordering.STRICT);
+        try {
+            CompletableFuture<LandParcel> queued = perParcel.update(new LandParcel(1L, "First", Status.SAVED, 1.0, false));
+            perParcel.awaitQueuedUpdates(List.of(2L));
+            assertFalse(queued.isDone());
+            verifyNoInteractions(landParcelService);
+            perParcel.awaitQueuedUpdates(List.of(1L));
+            assertTrue(queued.isDone());
+
+            CompletableFuture<LandParcel> strictlyQueued = strict.update(new LandParcel(1L, "First", Status.SAVED, 1.0, false));
+            strict.awaitQueuedUpdates(List.of(2L));
+            assertTrue(strictlyQueued.isDone());
+        } finally {
+            perParcel.shutdown();
+            strict.shutdown();
+        }
+    }
+}